@@ -9,7 +9,6 @@ import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageInterface;
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageLog;
 import nl.uu.cs.iss.ga.sim2apl.core.logging.MessageLogContext;
 import nl.uu.cs.iss.ga.sim2apl.core.plan.Plan;
-import nl.uu.cs.iss.ga.sim2apl.core.plan.PlanSchemeBase;
 import nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor;
 import nl.uu.cs.iss.ga.sim2apl.core.platform.Platform;
 import nl.uu.cs.iss.ga.sim2apl.core.platform.PlatformNotFoundException;
@@ -29,22 +28,36 @@ public class Agent implements AgentInterface{
 	
 	private Platform platform =null;
 	
-	/** Interface that exposes the relevant parts of the agent run time data for plans. */
-	private final PlanToAgentInterface planInterface;
+	/** Interface that exposes the relevant parts of the agent run time data for plans. Created on first use. */
+	private PlanToAgentInterface planInterface;
 	
 	private AgentID AID;
 
-	/** Listeners that are notified when this agent dies. */
-	private final List<AgentDeathListener> deathListeners;
+	/** Index of the agent on its platform, or -1 if the agent is not registered. Indices of agents that were deregistered are reused. */
+	private int index = -1;
+
+	/** Number of agents that were registered on the platform before this agent, or -1 if the agent is not registered. */
+	private long registrationNumber = -1;
+	
+	/** The random number stream of the agent. Created on first use, and read without locking the agent. */
+	private volatile RandomContext randomContext;
+
+	/** Listeners that are notified when this agent dies. Allocated when the first listener is registered. */
+	private List<AgentDeathListener> deathListeners;
 	
-	private Queue<MessageInterface> messageQueue;
+	/** Messages that are not yet processed. Allocated when the first message is received. */
+	private volatile Queue<MessageInterface> messageQueue;
 	
-	/** The messageHistory contains the history of messages send and received by the Agent
+	/** The messageHistory contains the history of messages send and received by the Agent.
+	 * Created when the first message is sent or received, or when the context is requested, and read without locking the agent.
 	 */
-	private final MessageLogContext messageContext;
+	private volatile MessageLogContext messageContext;
 	 
 	// This indicates the state of the agent (The naming is FIPA complient).
 	private FIPAAgentState State = FIPAAgentState.INITIATED;
+	
+	/** The state of the agent before it went into transit, which is restored if it could not move. */
+	private FIPAAgentState stateBeforeTransit;
 
 	/** The context container which contains contexts for decision making and actuation. */
 	private final ContextContainer contextContainer;
@@ -55,29 +68,35 @@ public class Agent implements AgentInterface{
 	/** The current internal and external  triggers. */
 	private final List<Trigger> internalTriggers, externalTriggers;
 	
-	/** The current trigger interceptors. */
+	/** The current trigger interceptors. Each list is allocated when its first interceptor is adopted. */
 	private List<TriggerInterceptor> internalTriggerInterceptors, externalTriggerInterceptors, messageInterceptors, goalInterceptors;
 	
-	/** The agent's plan scheme base that defines its decision making. */
-	private final PlanSchemeBase planSchemeBase;
+	/** The agent's archetype, which holds the plan scheme base that defines its decision making and the deliberation cycle. */
+	private final AgentArchetype archetype;
 	
 	/** The current plans of the agent. */
 	private final List<nl.uu.cs.iss.ga.sim2apl.core.plan.Plan> plans;
 	
-	/** The agent will try to execute these on shutdown/kill. */
+	/** The agent will try to execute these on shutdown/kill. Does not change after creation. */
 	private final List<nl.uu.cs.iss.ga.sim2apl.core.plan.Plan> downPlans;
 	
-	/** The sense-reason part of the deliberation cycle of the agent. */
-	private final List<DeliberationStep> senseReasonCycle;
-
-	/** The act part of the deliberation cycle of the agent. */
-	private final List<DeliberationActionStep> actCycle;
-	
 	/** Whether the agent is forced to stop, is finished, or is sleeping. */
 	private boolean forciblyStop, finished;
 	
-	/** Interface that exposes the context container of this agent. Is given to goals for checking whether they are achieved. */
-	private final AgentContextInterface contextInterface;
+	/** The tick at which the agent asked to deliberate next, or -1 if it did not ask. */
+	private int wakeTick = -1;
+	
+	/** The rate at which the agent deliberates, or null if it deliberates whenever it has something to do. */
+	private SchedulingClass schedulingClass;
+	
+	/** The tick until which the agent sleeps on the tick timer, or -1 if it does not. */
+	private volatile int sleepingUntil = -1;
+	
+	/** The plan that is currently being executed, or null if the agent is not executing a plan. */
+	private volatile nl.uu.cs.iss.ga.sim2apl.core.plan.Plan currentPlan;
+	
+	/** Interface that exposes the context container of this agent. Is given to goals for checking whether they are achieved. Created on first use. */
+	private AgentContextInterface contextInterface;
 	
 	/** Interface to the platform that allows the agent to reschedule its own deliberation runnable. */
 	private SelfRescheduler rescheduler = null;
@@ -86,29 +105,15 @@ public class Agent implements AgentInterface{
 		
 		this.AID = agentID;
 		this.contextContainer = args.createContextContainer();
+		// The lists below double as locks, so they are always present. An ArrayList does not allocate its
+		// backing array until the first element is added. Everything else is allocated on first use.
 		this.goals = new ArrayList<>();
 		this.internalTriggers = new ArrayList<>();
 		this.externalTriggers = new ArrayList<>();
-		this.internalTriggerInterceptors = new ArrayList<>();
-		this.externalTriggerInterceptors = new ArrayList<>();
-		this.messageInterceptors = new ArrayList<>();
-		this.goalInterceptors = new ArrayList<>();
-		this.planSchemeBase = args.createPlanSchemeBase();
-		this.plans = new ArrayList<>();
-		this.downPlans = new ArrayList<>();
-		this.senseReasonCycle = Collections.unmodifiableList(args.createSenseReasonCycle(this));
-		this.actCycle = Collections.unmodifiableList(args.createActCycle(this));
-		this.contextInterface = new AgentContextInterface(this);
-
-		this.messageQueue = new ConcurrentLinkedQueue<>();
-		this.deathListeners = new ArrayList<>();
-		this.planInterface = new PlanToAgentInterface(this);
-		
-		this.plans.addAll(args.getInitialPlans());
-		this.downPlans.addAll(args.getShutdownPlans());
-		
-		this.messageContext = new MessageLogContext();
-		this.contextContainer.addContext(messageContext);
+		this.archetype = args.getArchetype();
+		this.plans = args.getInitialPlans();
+		this.downPlans = args.getShutdownPlans();
+		this.schedulingClass = args.getSchedulingClass();
 		
 		p.register(this);
 	}
@@ -125,6 +130,29 @@ public class Agent implements AgentInterface{
 		AID = aID;
 	}
 
+	/**
+	 * Obtain the index of this agent on its platform. Indices are assigned in order of registration, but the index of
+	 * an agent that was deregistered is given to the next agent that registers, so indices remain dense.
+	 */
+	public final int getIndex() {
+		return this.index;
+	}
+
+	/** Set by the platform upon registration. */
+	public final void setIndex(final int index) {
+		this.index = index;
+	}
+
+	/** Obtain the number of agents that were registered on the platform before this agent, which is never reused. */
+	public final long getRegistrationNumber() {
+		return this.registrationNumber;
+	}
+
+	/** Set by the platform upon registration. */
+	public final void setRegistrationNumber(final long registrationNumber) {
+		this.registrationNumber = registrationNumber;
+	}
+
 	public URI getName() {
 		return this.AID.getName();
 	}
@@ -140,29 +168,43 @@ public class Agent implements AgentInterface{
 	//An agent receives a message using this function. 
 	//The assumption here is that if the agent is in waiting or suspended it will change states to active to receive the message
 	@Override
+	@SuppressWarnings("unchecked")
 	public synchronized void receiveMessage(MessageInterface message) {
+		if(this.State == FIPAAgentState.TRANSIT){
+			// The agent moved to another platform after the message was routed here, so it is routed again
+			try {
+				this.platform.getMessenger().deliverMessage(this.AID, message);
+			} catch(MessageReceiverNotFoundException ex){
+				Platform.getLogger().log(Agent.class, ex);
+			}
+			return;
+		}
+		if(this.messageQueue == null) this.messageQueue = new ConcurrentLinkedQueue<>();
 		this.messageQueue.add(message);
-		this.messageContext.addReceivedMessage(message);
+		getMessageLogContext().addReceivedMessage(message);
 		this.checkWhetherToReschedule();
     }
 	
 	@SuppressWarnings("unchecked")
 	public <T extends MessageInterface> MessageLog sendMessage(T message)
 			throws MessageReceiverNotFoundException, PlatformNotFoundException {
-		message.addUserDefinedParameter("X-messageID", UUID.randomUUID().toString());
-		this.getPlatform().getMessenger().deliverMessage(message);
-		return this.messageContext.addSentMessage(message);
+		Platform platform = this.getPlatform();
+		message.setMessageID(platform.getMessageIDGenerator().next());
+		platform.getMessenger().deliverMessage(message);
+		return getMessageLogContext().addSentMessage(message);
 	}
 	
 	@SuppressWarnings("unchecked")
 	public <T extends MessageInterface> MessageLog sendMessage(AgentID receiver, T message)
 			throws MessageReceiverNotFoundException, PlatformNotFoundException {
-		message.addUserDefinedParameter("X-messageID", UUID.randomUUID().toString());
-		this.getPlatform().getMessenger().deliverMessage(receiver, message);
-		return this.messageContext.addSentMessage(message);
+		Platform platform = this.getPlatform();
+		message.setMessageID(platform.getMessageIDGenerator().next());
+		platform.getMessenger().deliverMessage(receiver, message);
+		return getMessageLogContext().addSentMessage(message);
 	}
 	
 	public synchronized List<MessageInterface> getAllMessages() {
+		if(this.messageQueue == null) return Collections.emptyList();
 		List<MessageInterface> messages=new ArrayList<>();
 		while (!this.messageQueue.isEmpty()) {
 			messages.add(this.messageQueue.remove());
@@ -171,7 +213,31 @@ public class Agent implements AgentInterface{
 	}
 	
 	public List<MessageInterface> peekAllMessages() {
-		return new ArrayList<>(messageQueue);
+		Queue<MessageInterface> queue = this.messageQueue;
+		return queue == null ? new ArrayList<>() : new ArrayList<>(queue);
+	}
+
+	/** Obtain the random number stream of this agent, which is derived from the platform's seed and node ID, and this agent's registration number. */
+	public final RandomContext getRandomContext() {
+		RandomContext context = this.randomContext;
+		if(context != null) return context;
+		synchronized(this){
+			if(this.randomContext == null) {
+				if(this.platform == null) throw new IllegalStateException("Agent " + this.AID + " is not registered on a platform");
+				this.randomContext = new RandomContext(this.platform.getRandomSeed(), this.platform.getNodeID(), this.registrationNumber);
+			}
+			return this.randomContext;
+		}
+	}
+
+	/** Obtain the log of messages sent and received by this agent. */
+	public final MessageLogContext getMessageLogContext() {
+		MessageLogContext context = this.messageContext;
+		if(context != null) return context;
+		synchronized(this){
+			if(this.messageContext == null) this.messageContext = new MessageLogContext();
+			return this.messageContext;
+		}
 	}
 	
 	@Override
@@ -179,28 +245,26 @@ public class Agent implements AgentInterface{
 		xForceStop(); //TODO(rbu) <- Two different forceStops, refactor!
 		
 		// The messenger should also be a death listener 
-		synchronized(this.deathListeners){
-			if(!this.deathListeners.isEmpty()){
-				 // TODO: upon executing the following it might be the case that a listener is added whilst the agent is dying. This listener would not be notified.
-				for(AgentDeathListener listener : this.deathListeners){
-					listener.agentDied(this.getAID());
-				}
-			} 
+		List<AgentDeathListener> listeners;
+		synchronized(this){
+			if(this.deathListeners == null || this.deathListeners.isEmpty()) return;
+			listeners = new ArrayList<>(this.deathListeners);
+		}
+		// TODO: upon executing the following it might be the case that a listener is added whilst the agent is dying. This listener would not be notified.
+		for(AgentDeathListener listener : listeners){
+			listener.agentDied(this.getAID());
 		}
 	}
 	
 	/** Add a listener that listens for the death of this agent. */
-	public final void registerAgentDeathListener(final AgentDeathListener listener){
-		synchronized(this.deathListeners){ 
-			this.deathListeners.add(listener);
-		}
+	public final synchronized void registerAgentDeathListener(final AgentDeathListener listener){
+		if(this.deathListeners == null) this.deathListeners = new ArrayList<>(1);
+		this.deathListeners.add(listener);
 	}
 	
 	/** Remove a listener that listens for the death of this agent. */
-	public final void deregistredDeathListener(final AgentDeathListener listener){
-		synchronized(this.deathListeners){
-			this.deathListeners.remove(listener);
-		}
+	public final synchronized void deregistredDeathListener(final AgentDeathListener listener){
+		if(this.deathListeners != null) this.deathListeners.remove(listener);
 	}
 	
 	/**
@@ -210,12 +274,24 @@ public class Agent implements AgentInterface{
 	 * then the plan will not be executed.
 	 */
 	public final Object executePlan(final nl.uu.cs.iss.ga.sim2apl.core.plan.Plan plan) throws nl.uu.cs.iss.ga.sim2apl.core.plan.PlanExecutionError {
-		if(plan.goalIsRelevant(this.planInterface))
-			return plan.execute(this.planInterface);
+		PlanToAgentInterface planInterface = getPlanInterface();
+		if(plan.goalIsRelevant(planInterface)) {
+			this.currentPlan = plan;
+			try {
+				return plan.execute(planInterface);
+			} finally {
+				this.currentPlan = null;
+			}
+		}
 
 		return null;
 	} 
 	
+	/** Obtain the plan that is currently being executed, or null if the agent is not executing a plan. */
+	public final nl.uu.cs.iss.ga.sim2apl.core.plan.Plan getCurrentPlan(){
+		return this.currentPlan;
+	}
+	
 	// vvv vvv vvv
 	
 	/**
@@ -227,8 +303,10 @@ public class Agent implements AgentInterface{
 		if(this.rescheduler == null){
 				throw new IllegalStateException("No selfrescheduler set for AgentRuntimeData");
 		}
+		if (this.State == FIPAAgentState.TRANSIT) return; // The agent no longer deliberates on this platform
 		if (!this.State.isActive()) {
 				this.State = FIPAAgentState.ACTIVE;
+				this.sleepingUntil = -1; // Input wakes the agent before its timer does
 				this.rescheduler.wakeUp();
 				Platform.getLogger().log(Agent.class, "Agent " + getAID().getName() + " woken up");
 		}
@@ -256,6 +334,9 @@ public class Agent implements AgentInterface{
 	 * @return The context class, or <code>null</code> if not present
 	 */
 	public final <C extends Context> C getContext(final Class<C> klass) { //throws IllegalArgumentException {
+		// The message log is kept outside the container, so that it is only created for agents that use messaging
+		if(klass == MessageLogContext.class) return klass.cast(getMessageLogContext());
+		if(klass == RandomContext.class) return klass.cast(getRandomContext());
 		return this.contextContainer.getContext(klass);
 	}
 	
@@ -264,7 +345,64 @@ public class Agent implements AgentInterface{
 	}
 	
 	public final Collection<Context> getAllContexts() {
-		return contextContainer.getAllContext();
+		MessageLogContext messageContext;
+		synchronized(this){
+			messageContext = this.messageContext;
+		}
+		if(messageContext == null) return contextContainer.getAllContext();
+		List<Context> contexts = new ArrayList<>(contextContainer.getAllContext());
+		contexts.add(messageContext);
+		return contexts;
+	}
+
+	/**
+	 * Estimate the memory retained by the run time structures of this agent, excluding domain state such 
+	 * as goals, plans and contexts, and excluding the archetype that is shared with other agents.
+	 */
+	public final AgentFootprint estimateFootprint(){
+		AgentFootprint footprint = new AgentFootprint();
+		footprint.add("agent", AgentFootprint.shallowSize(this));
+		synchronized(this.goals){
+			footprint.add("goals", AgentFootprint.collectionSize(this.goals));
+		}
+		synchronized(this.internalTriggers){
+			footprint.add("triggers", AgentFootprint.collectionSize(this.internalTriggers));
+		}
+		synchronized(this.externalTriggers){
+			footprint.add("triggers", AgentFootprint.collectionSize(this.externalTriggers));
+		}
+		synchronized(this.plans){
+			footprint.add("plans", AgentFootprint.collectionSize(this.plans));
+		}
+		footprint.add("shutdownPlans", this.downPlans.isEmpty() ? 0 : AgentFootprint.collectionSize(this.downPlans));
+		footprint.add("interceptors", AgentFootprint.collectionSize(this.goalInterceptors)
+				+ AgentFootprint.collectionSize(this.externalTriggerInterceptors)
+				+ AgentFootprint.collectionSize(this.internalTriggerInterceptors)
+				+ AgentFootprint.collectionSize(this.messageInterceptors));
+		footprint.add("contexts", AgentFootprint.shallowSize(this.contextContainer)
+				+ (this.contextContainer.size() == 0 ? 0 : AgentFootprint.hashMapSize(this.contextContainer.size())));
+		footprint.add("interfaces", AgentFootprint.shallowSize(this.planInterface) + AgentFootprint.shallowSize(this.contextInterface));
+		synchronized(this){
+			footprint.add("deathListeners", AgentFootprint.collectionSize(this.deathListeners));
+			footprint.add("messageQueue", AgentFootprint.linkedCollectionSize(this.messageQueue));
+			footprint.add("messageLog", AgentFootprint.messageLogSize(this.messageContext));
+			footprint.add("random", this.randomContext == null ? 0 : 
+					AgentFootprint.shallowSize(this.randomContext) + AgentFootprint.shallowSize(this.randomContext.getRandom()));
+		}
+		return footprint;
+	}
+
+	/** Obtain the interface through which plans access this agent. */
+	private PlanToAgentInterface getPlanInterface(){
+		// Racing threads may each create an interface, which is harmless as the interface has no state of its own
+		if(this.planInterface == null) this.planInterface = new PlanToAgentInterface(this);
+		return this.planInterface;
+	}
+
+	/** Obtain the interface through which goals access the contexts of this agent. */
+	private AgentContextInterface getContextInterface(){
+		if(this.contextInterface == null) this.contextInterface = new AgentContextInterface(this);
+		return this.contextInterface;
 	}
 	
 	 // No synchronize on goals as maximally 1 thread at a time can call these methods
@@ -310,26 +448,31 @@ public class Agent implements AgentInterface{
 
 	/** Add an interceptor for goals. */
 	public final void adoptGoalInterceptor(final nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor interceptor){
-		if(interceptor.isTriggerConsuming()) this.goalInterceptors.add(interceptor);
-		else this.goalInterceptors.add(0,interceptor);
+		this.goalInterceptors = addInterceptor(this.goalInterceptors, interceptor);
 	}
 	
 	/** Add an interceptor for external triggers. */
 	public final void adoptExternalTriggerInterceptor(final nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor interceptor){
-		if(interceptor.isTriggerConsuming()) this.externalTriggerInterceptors.add(interceptor);
-		else this.externalTriggerInterceptors.add(0,interceptor);
+		this.externalTriggerInterceptors = addInterceptor(this.externalTriggerInterceptors, interceptor);
 	}
 
 	/** Add an interceptor for internal triggers. */
 	public final void adoptInternalTriggerInterceptor(final nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor interceptor){
-		if(interceptor.isTriggerConsuming()) this.internalTriggerInterceptors.add(interceptor);
-		else this.internalTriggerInterceptors.add(0,interceptor);
+		this.internalTriggerInterceptors = addInterceptor(this.internalTriggerInterceptors, interceptor);
 	}
 	
 	/** Add an interceptor for messages. */
 	public final void adoptMessageInterceptor(final nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor interceptor){
-		if(interceptor.isTriggerConsuming()) this.messageInterceptors.add(interceptor);
-		else this.messageInterceptors.add(0,interceptor);
+		this.messageInterceptors = addInterceptor(this.messageInterceptors, interceptor);
+	}
+	
+	/** Add an interceptor to a list of interceptors, which is allocated if necessary. Non-consuming 
+	 * interceptors are placed in front so that they are tried before consuming interceptors. */
+	private static List<TriggerInterceptor> addInterceptor(List<TriggerInterceptor> interceptors, final TriggerInterceptor interceptor){
+		if(interceptors == null) interceptors = new ArrayList<>(2);
+		if(interceptor.isTriggerConsuming()) interceptors.add(interceptor);
+		else interceptors.add(0,interceptor);
+		return interceptors;
 	}
 	
 	/** Add an internal trigger to the list of current internal triggers. This trigger 
@@ -350,6 +493,42 @@ public class Agent implements AgentInterface{
 		this.finished = true;
 	}
 	 
+	/**
+	 * Let the agent sleep until the given tick, after the current deliberation cycle. The agent will not
+	 * deliberate in the meantime, even if it has plans, unless it receives input such as a message or 
+	 * external trigger. Has no effect if the tick executor does not support a tick timer.
+	 * @param tick Tick in which the agent should deliberate next
+	 */
+	public final void wakeAt(final int tick){
+		this.wakeTick = tick;
+	}
+	
+	/**
+	 * Let the agent deliberate once every given number of ticks, counted from the tick of its last deliberation
+	 * cycle. In between the agent sleeps as with {@link #wakeAt(int)}. Has no effect if the tick executor does 
+	 * not support a tick timer. This is a shorthand for {@link SchedulingClass#every(int)}.
+	 * @param ticks Number of ticks between two deliberation cycles, or 0 to deliberate whenever the agent has 
+	 * something to do
+	 */
+	public final void wakeEvery(final int ticks){
+		if(ticks < 0) throw new IllegalArgumentException("Wake interval cannot be negative: " + ticks);
+		setSchedulingClass(ticks == 0 ? null : SchedulingClass.every(ticks));
+	}
+	
+	/**
+	 * Set the rate at which the agent deliberates, replacing the scheduling class of its type. Takes effect after
+	 * the current deliberation cycle.
+	 * @param schedulingClass The scheduling class, or null to deliberate whenever the agent has something to do
+	 */
+	public final void setSchedulingClass(final SchedulingClass schedulingClass){
+		this.schedulingClass = schedulingClass;
+	}
+	
+	/** Obtain the rate at which the agent deliberates, or null if it deliberates whenever it has something to do. */
+	public final SchedulingClass getSchedulingClass(){
+		return this.schedulingClass;
+	}
+	 
 	/////////////////////////////////////////
 	//// DELIBERATION STEP FUNCTIONALITY ////
 	/////////////////////////////////////////
@@ -397,7 +576,7 @@ public class Agent implements AgentInterface{
 			if (!this.goals.isEmpty()) {
 				List<Goal> snapshot = new ArrayList<>(this.goals);
 				for (Goal goal : snapshot) {
-					if (goal != null && goal.isAchieved(this.contextInterface)) {
+					if (goal != null && goal.isAchieved(getContextInterface())) {
 						this.goals.remove(goal);
 					}
 				}
@@ -405,70 +584,95 @@ public class Agent implements AgentInterface{
 		}
 	}
 	
+	/** Get the archetype of this agent, which it shares with all agents created from the same arguments. */
+	public final AgentArchetype getArchetype(){
+		return this.archetype;
+	}
+
 	/** Get the plan scheme base. */
 	public nl.uu.cs.iss.ga.sim2apl.core.plan.PlanSchemeBase getPlanSchemeBase(){
-		return this.planSchemeBase;
+		return this.archetype.getPlanSchemeBase();
 	}
 	
 	
 	/** Get the goal plan schemes of the plan scheme base. */
 	public final List<nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme> getGoalPlanSchemes(){
-		return this.planSchemeBase.getGoalPlanSchemes();
+		return this.archetype.getPlanSchemeBase().getGoalPlanSchemes();
 	}
 
 	/** Get the external trigger plan schemes of the plan scheme base. */
 	public final List<nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme> getExternalTriggerPlanSchemes(){
-		return this.planSchemeBase.getExternalTriggerPlanSchemes();
+		return this.archetype.getPlanSchemeBase().getExternalTriggerPlanSchemes();
 	}
 	
 	/** Get the internal trigger plan schemes of the plan scheme base. */
 	public final List<nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme> getInternalTriggerPlanSchemes(){
-		return this.planSchemeBase.getInternalTriggerPlanSchemes();
+		return this.archetype.getPlanSchemeBase().getInternalTriggerPlanSchemes();
 	}
 
 	/** Get the message plan schemes of the plan scheme base. */
 	public final List<nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme> getMessagePlanSchemes(){
-		return this.planSchemeBase.getMessagePlanSchemes();
+		return this.archetype.getPlanSchemeBase().getMessagePlanSchemes();
+	}
+
+	/** Get the goal plan schemes of the plan scheme base, indexed on their declared trigger class. */
+	public final nl.uu.cs.iss.ga.sim2apl.core.plan.PlanSchemeIndex getGoalPlanSchemeIndex(){
+		return this.archetype.getPlanSchemeBase().getGoalPlanSchemeIndex();
+	}
+
+	/** Get the external trigger plan schemes of the plan scheme base, indexed on their declared trigger class. */
+	public final nl.uu.cs.iss.ga.sim2apl.core.plan.PlanSchemeIndex getExternalTriggerPlanSchemeIndex(){
+		return this.archetype.getPlanSchemeBase().getExternalTriggerPlanSchemeIndex();
+	}
+
+	/** Get the internal trigger plan schemes of the plan scheme base, indexed on their declared trigger class. */
+	public final nl.uu.cs.iss.ga.sim2apl.core.plan.PlanSchemeIndex getInternalTriggerPlanSchemeIndex(){
+		return this.archetype.getPlanSchemeBase().getInternalTriggerPlanSchemeIndex();
+	}
+
+	/** Get the message plan schemes of the plan scheme base, indexed on their declared trigger class. */
+	public final nl.uu.cs.iss.ga.sim2apl.core.plan.PlanSchemeIndex getMessagePlanSchemeIndex(){
+		return this.archetype.getPlanSchemeBase().getMessagePlanSchemeIndex();
 	}
 
 	/** Get the goal interceptors. */
 	public final Iterator<nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor> getGoalInterceptors(){
-		return this.goalInterceptors.iterator();
+		return this.goalInterceptors == null ? Collections.emptyIterator() : this.goalInterceptors.iterator();
 	}
 	
 	/** Get the external trigger interceptors. */
 	public final Iterator<nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor> getExternalTriggerInterceptors(){
-		return this.externalTriggerInterceptors.iterator();
+		return this.externalTriggerInterceptors == null ? Collections.emptyIterator() : this.externalTriggerInterceptors.iterator();
 	}
 	
 	/** Get the internal trigger interceptors. */
 	public final Iterator<nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor> getInternalTriggerInterceptors(){
-		return this.internalTriggerInterceptors.iterator();
+		return this.internalTriggerInterceptors == null ? Collections.emptyIterator() : this.internalTriggerInterceptors.iterator();
 	}
 	
 	/** Get the message interceptors. */
 	public final Iterator<nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor> getMessageInterceptors(){
-		return this.messageInterceptors.iterator();
+		return this.messageInterceptors == null ? Collections.emptyIterator() : this.messageInterceptors.iterator();
 	}
 
 	/** Remove a goal interceptor. */
 	public final void removeGoalInterceptor(final nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor interceptor){
-		this.goalInterceptors.remove(interceptor);
+		if(this.goalInterceptors != null) this.goalInterceptors.remove(interceptor);
 	}
 	
 	/** Remove an external trigger interceptor. */
 	public final void removeExternalTriggerInterceptor(final nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor interceptor){
-		this.externalTriggerInterceptors.remove(interceptor);
+		if(this.externalTriggerInterceptors != null) this.externalTriggerInterceptors.remove(interceptor);
 	}
 	
 	/** Remove an internal trigger interceptor. */
 	public final void removeInternalTriggerInterceptor(final nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor interceptor){
-		this.internalTriggerInterceptors.remove(interceptor);
+		if(this.internalTriggerInterceptors != null) this.internalTriggerInterceptors.remove(interceptor);
 	}
 	
 	/** Remove a message interceptor. */
 	public final void removeMessageInterceptor(final nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor interceptor){
-		this.messageInterceptors.remove(interceptor);
+		if(this.messageInterceptors != null) this.messageInterceptors.remove(interceptor);
 	}
 	
 	/**
@@ -480,7 +684,7 @@ public class Agent implements AgentInterface{
 	 * @return True iff the plan scheme was instantiated. 
 	 */
 	public final boolean tryApplication(final Trigger trigger, final nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme planScheme){
-		nl.uu.cs.iss.ga.sim2apl.core.plan.Plan result = planScheme.instantiate(trigger, this.contextInterface);
+		nl.uu.cs.iss.ga.sim2apl.core.plan.Plan result = planScheme.instantiate(trigger, getContextInterface());
 		if(result != null && result != nl.uu.cs.iss.ga.sim2apl.core.plan.Plan.UNINSTANTIATED){
 			adoptPlan(result);
 			return true;
@@ -496,10 +700,8 @@ public class Agent implements AgentInterface{
 	}
 	
 	public final List<nl.uu.cs.iss.ga.sim2apl.core.plan.Plan> getShutdownPlans(){
-		synchronized(this.downPlans){
-			if(this.downPlans.isEmpty()) return Collections.emptyList();
-			else return new ArrayList<>(this.downPlans); 
-		}
+		if(this.downPlans.isEmpty()) return Collections.emptyList();
+		else return new ArrayList<>(this.downPlans); 
 	}
 
 	/** Remove a plan from the list of current plans. */
@@ -551,7 +753,7 @@ public class Agent implements AgentInterface{
 								this.externalTriggers.size() == 0 &&
 								this.internalTriggers.size() == 0 &&
 								this.goals.size() == 0 &&
-								this.messageQueue.peek() == null
+								(this.messageQueue == null || this.messageQueue.peek() == null)
 						) {
 							this.State = FIPAAgentState.WAITING;
 						}
@@ -563,17 +765,142 @@ public class Agent implements AgentInterface{
 	}
 	 
 	
+	/**
+	 * A check to determine whether the agent should sleep on the tick timer after the deliberation cycle in the
+	 * given tick, because it asked to deliberate at a later tick than the next, or because its scheduling class 
+	 * determines when it deliberates next. If so, the agent goes to the waiting state. The agent does not sleep 
+	 * if it has unprocessed triggers or messages.
+	 * @param currentTick The tick in which the agent just deliberated
+	 * @return The tick in which the agent should deliberate next, or -1 if it does not sleep on the timer
+	 */
+	public final int checkTimedSleep(final int currentTick){
+		synchronized (this.externalTriggers) {
+			synchronized(this.internalTriggers){
+				int next = this.wakeTick;
+				// An agent with a scheduling class always sleeps on the timer, also until the next tick, so it 
+				// deliberates when it is due even if it has nothing to do
+				boolean scheduled = this.schedulingClass != null;
+				if(scheduled){
+					int scheduledTick = Math.max(currentTick + 1, this.schedulingClass.getNextTick(currentTick, this));
+					if(next <= currentTick || scheduledTick < next)
+						next = scheduledTick;
+				}
+				if(next <= currentTick + (scheduled ? 0 : 1)){
+					if(this.wakeTick <= currentTick + 1) this.wakeTick = -1;
+					return -1;
+				}
+				Queue<MessageInterface> queue = this.messageQueue;
+				if(!this.externalTriggers.isEmpty() || !this.internalTriggers.isEmpty() || (queue != null && queue.peek() != null))
+					return -1; // Deliberate next tick, and sleep afterwards
+				if(this.wakeTick <= next) this.wakeTick = -1;
+				this.sleepingUntil = next;
+				this.State = FIPAAgentState.WAITING;
+				return next;
+			}
+		}
+	}
+	
+	/**
+	 * Called when the tick timer of this agent expires.
+	 * @param tick The tick in which the timer expired, which is later than the tick the agent sleeps until if the 
+	 * timer was only drained after a late tick
+	 * @return True iff the agent was still sleeping until the given tick or an earlier tick, in which case it is active
+	 * again. False if the agent was woken earlier by input, or sleeps until a later tick.
+	 */
+	public final boolean wakeFromTimer(final int tick){
+		synchronized (this.externalTriggers) {
+			synchronized(this.internalTriggers){
+				if(this.sleepingUntil < 0 || this.sleepingUntil > tick || this.State == FIPAAgentState.TRANSIT) return false;
+				this.sleepingUntil = -1;
+				this.State = FIPAAgentState.ACTIVE;
+				return true;
+			}
+		}
+	}
+	 
+	////////////////////////////////
+	//// MOBILITY FUNCTIONALITY ////
+	////////////////////////////////
+	
+	/**
+	 * Put the agent in the transit state, because it moves to another platform, and obtain its state. The agent no 
+	 * longer deliberates on this platform, and messages it receives afterwards are routed again through the messenger 
+	 * of the platform, which should know the new location of the agent. This should only be done between ticks.
+	 * @return The state of the agent, which is to be given to {@link #moveIn(AgentState)} of its new instance
+	 * @throws IllegalStateException If the agent is already in transit
+	 */
+	public final synchronized AgentState moveOut(){
+		synchronized (this.externalTriggers) {
+			synchronized(this.internalTriggers){
+				synchronized (this.goals) {
+					synchronized (this.plans) {
+						if(this.State == FIPAAgentState.TRANSIT) throw new IllegalStateException("Agent " + this.AID + " is already in transit");
+						this.stateBeforeTransit = this.State;
+						this.State = FIPAAgentState.TRANSIT;
+						Queue<MessageInterface> queue = this.messageQueue;
+						List<MessageInterface> messages = queue == null ? Collections.emptyList() : new ArrayList<>(queue);
+						Long randomSeed = this.randomContext == null ? null : this.randomContext.nextMigrationSeed();
+						return new AgentState(this.goals, this.plans, this.internalTriggers, this.externalTriggers, 
+								messages, this.contextContainer.getContextsByKey(), this.wakeTick, randomSeed);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Restore the state of an agent that moved here from another platform. The goals, plans, triggers, messages, 
+	 * contexts and random number stream of the new instance are replaced by those of the given state. This should be done before the agent 
+	 * deliberates for the first time.
+	 * @param state The state obtained from {@link #moveOut()} on the other platform
+	 */
+	public final synchronized void moveIn(final AgentState state){
+		synchronized (this.externalTriggers) {
+			synchronized(this.internalTriggers){
+				synchronized (this.goals) {
+					synchronized (this.plans) {
+						this.goals.clear();
+						this.goals.addAll(state.goals);
+						this.plans.clear();
+						this.plans.addAll(state.plans);
+						this.internalTriggers.clear();
+						this.internalTriggers.addAll(state.internalTriggers);
+						this.externalTriggers.clear();
+						this.externalTriggers.addAll(state.externalTriggers);
+						this.contextContainer.setContextsByKey(state.contexts);
+						this.wakeTick = state.wakeTick;
+						this.randomContext = state.randomSeed == null ? null : new RandomContext(state.randomSeed);
+						if(!state.messages.isEmpty()){
+							if(this.messageQueue == null) this.messageQueue = new ConcurrentLinkedQueue<>();
+							this.messageQueue.addAll(state.messages);
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/** Take the agent out of the transit state, because it could not move to another platform after all. */
+	public final synchronized void cancelMoveOut(){
+		if(this.State == FIPAAgentState.TRANSIT) this.State = this.stateBeforeTransit;
+	}
+	
+	/** Check whether the agent moved to another platform. */
+	public final boolean isInTransit(){
+		return this.State == FIPAAgentState.TRANSIT;
+	}
+	 
 	/** Obtain the agent's deliberation cycle. */
 	public final List<DeliberationStep> getSenseReasonCycle(){
-		return this.senseReasonCycle;
+		return this.archetype.getSenseReasonCycle();
 	}
 
 	/** Obtain the act part of the deliberation cycle. THis is the only part of the cycle that is
 	 * allowed to produce actions */
-	public final List<DeliberationActionStep> getActCycle() { return this.actCycle; }
+	public final List<DeliberationActionStep> getActCycle() { return this.archetype.getActCycle(); }
 
 	public Platform getPlatform() throws PlatformNotFoundException{
-		if(planInterface==null) {
+		if(this.platform == null) {
 			throw new PlatformNotFoundException("Platform is null");
 		}
 		return platform;
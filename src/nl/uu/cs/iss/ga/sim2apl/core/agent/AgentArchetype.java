@@ -0,0 +1,50 @@
+package nl.uu.cs.iss.ga.sim2apl.core.agent;
+
+import java.util.Collections;
+import java.util.List;
+
+import nl.uu.cs.iss.ga.sim2apl.core.deliberation.DeliberationActionStep;
+import nl.uu.cs.iss.ga.sim2apl.core.deliberation.DeliberationStep;
+import nl.uu.cs.iss.ga.sim2apl.core.plan.PlanSchemeBase;
+
+/**
+ * An agent archetype holds the parts of an agent that do not change at runtime and are
+ * identical for all agents built from the same <code>AgentArguments</code>: the plan scheme
+ * base and the deliberation cycle. Agents only keep a reference to their archetype, so a
+ * population of agents of the same type shares a single copy of these structures.
+ *
+ * Since the deliberation steps are shared, they do not store the agent they operate on.
+ * The agent is passed to each step when the step is executed.
+ */
+public final class AgentArchetype {
+	/** The plan scheme base that defines the decision making of the agents. */
+	private final PlanSchemeBase planSchemeBase;
+
+	/** The sense-reason part of the deliberation cycle. */
+	private final List<DeliberationStep> senseReasonCycle;
+
+	/** The act part of the deliberation cycle. */
+	private final List<DeliberationActionStep> actCycle;
+
+	/** Created by the agent arguments. This is intentionally package-only, so archetypes are always consistent with a set of arguments. */
+	AgentArchetype(final PlanSchemeBase planSchemeBase, final List<DeliberationStep> senseReasonCycle, final List<DeliberationActionStep> actCycle){
+		this.planSchemeBase = planSchemeBase;
+		this.senseReasonCycle = Collections.unmodifiableList(senseReasonCycle);
+		this.actCycle = Collections.unmodifiableList(actCycle);
+	}
+
+	/** Get the plan scheme base. */
+	public final PlanSchemeBase getPlanSchemeBase(){
+		return this.planSchemeBase;
+	}
+
+	/** Obtain the sense-reason part of the deliberation cycle. */
+	public final List<DeliberationStep> getSenseReasonCycle(){
+		return this.senseReasonCycle;
+	}
+
+	/** Obtain the act part of the deliberation cycle. */
+	public final List<DeliberationActionStep> getActCycle(){
+		return this.actCycle;
+	}
+}
@@ -10,31 +10,78 @@ import nl.uu.cs.iss.ga.sim2apl.core.plan.builtin.FunctionalPlanScheme;
 import nl.uu.cs.iss.ga.sim2apl.core.plan.builtin.FunctionalPlanSchemeInterface;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
 public class AgentArguments {
 
 	private final List<PlanScheme> goalPlanSchemes, internalTriggerPlanSchemes, externalTriggerPlanSchemes, messagePlanSchemes;
+	/** The trigger classes declared for the plan schemes, parallel to the plan scheme lists. Null entries are undeclared. */
+	private final List<Class<? extends Trigger>> goalTriggerClasses, internalTriggerClasses, externalTriggerClasses, messageTriggerClasses;
 	private final List<Context> contexts;
 	private final HashMap<Context, Class<? extends Context>[]> explicitKeyContexts;
 	private final List<Plan> initialPlans;
 	private final List<Plan> downPlans;
+	/** The archetype shared by all agents created from these arguments. Built on first use, and rebuilt if plan schemes are added afterwards. */
+	private AgentArchetype archetype;
+	/** Whether the archetype was provided explicitly, in which case the plan schemes of these arguments are not used. */
+	private boolean explicitArchetype;
+	/** The rate at which agents created from these arguments deliberate, or null if they deliberate whenever they have something to do. */
+	private SchedulingClass schedulingClass;
 		
 	public AgentArguments(){
 		this.goalPlanSchemes = new ArrayList<>();
 		this.internalTriggerPlanSchemes = new ArrayList<>();
 		this.externalTriggerPlanSchemes = new ArrayList<>();
 		this.messagePlanSchemes = new ArrayList<>();
+		this.goalTriggerClasses = new ArrayList<>();
+		this.internalTriggerClasses = new ArrayList<>();
+		this.externalTriggerClasses = new ArrayList<>();
+		this.messageTriggerClasses = new ArrayList<>();
 		this.contexts = new ArrayList<>();
 		this.explicitKeyContexts = new HashMap<>();
 		this.initialPlans = new ArrayList<>();
 		this.downPlans = new ArrayList<>();
 	}
 	
+	/**
+	 * Obtain the archetype of agents created from these arguments. The archetype holds the plan scheme base 
+	 * and deliberation cycle, and is shared by all agents created from these arguments (or from other 
+	 * arguments that were given this archetype through {@link #useArchetype(AgentArchetype)}).
+	 */
+	public final synchronized AgentArchetype getArchetype(){
+		if(this.archetype == null){
+			this.archetype = new AgentArchetype(createPlanSchemeBase(), createSenseReasonCycle(), createActCycle());
+		}
+		return this.archetype;
+	}
+
+	/**
+	 * Use an existing archetype for agents created from these arguments, instead of building one from the plan schemes 
+	 * added to these arguments. This allows agents that differ in their contexts or initial plans to still share their
+	 * plan scheme base and deliberation cycle. Plan schemes can no longer be added to these arguments afterwards.
+	 */
+	public final synchronized AgentArguments useArchetype(final AgentArchetype archetype){
+		this.archetype = archetype;
+		this.explicitArchetype = true;
+		return this;
+	}
+
+	/** Called when a plan scheme is added, as an archetype that was already built does not contain the new plan scheme. */
+	private synchronized void invalidateArchetype(){
+		if(this.explicitArchetype) 
+			throw new IllegalStateException("Cannot add plan schemes to arguments that use an explicit archetype.");
+		this.archetype = null;
+	}
+
 	/** Builds the plan scheme base. This is intentionally package-only so that a programmer cannot accidentally mess with the plan scheme base. */
 	final PlanSchemeBase createPlanSchemeBase(){
-		return new PlanSchemeBase(this.goalPlanSchemes, this.internalTriggerPlanSchemes, this.externalTriggerPlanSchemes, this.messagePlanSchemes);
+		// Copies, as the plan scheme base is shared and should not change if plan schemes are added to these arguments later on
+		return new PlanSchemeBase(new ArrayList<>(this.goalPlanSchemes), this.goalTriggerClasses,
+				new ArrayList<>(this.internalTriggerPlanSchemes), this.internalTriggerClasses,
+				new ArrayList<>(this.externalTriggerPlanSchemes), this.externalTriggerClasses,
+				new ArrayList<>(this.messagePlanSchemes), this.messageTriggerClasses);
 	}
 
 	/** Builds the context container. This is intentionally package-only so that a programmer cannot accidentally mess with the container. */
@@ -49,30 +96,29 @@ public class AgentArguments {
 	}
 	
 	/** Produce the sense and reason parts of the deliberation cycle of the agent.
-	 * The provided interface can be used by deliberation steps to perform their functionalities on the agent.
+	 * The steps are shared by all agents with the same archetype, and receive the agent upon execution.
 	 * The default implementation is that the 2APL deliberation cycle is used:
 	 * ApplyGoalPlanSchemes -> ApplyExternalTriggerPlanSchemes ->
 	 *  ApplyInternalTriggerPlanSchemes -> ApplyMessagePlanSchemes -> ExecutePlans.
 	 *  For Sim2APL, the ExecutePlans step is moved to the act Cycle*/
-	final List<DeliberationStep> createSenseReasonCycle(final Agent agent){
+	final List<DeliberationStep> createSenseReasonCycle(){
 		// Produces the default 2APL deliberation cycle.
 		List<DeliberationStep> senseReasonCycle = new ArrayList<>();
-		senseReasonCycle.add(new ApplyGoalPlanSchemes(agent));
-		senseReasonCycle.add(new ApplyExternalTriggerPlanSchemes(agent));
-		senseReasonCycle.add(new ApplyInternalTriggerPlanSchemes(agent));
-		senseReasonCycle.add(new ApplyMessagePlanSchemes(agent));
+		senseReasonCycle.add(new ApplyGoalPlanSchemes());
+		senseReasonCycle.add(new ApplyExternalTriggerPlanSchemes());
+		senseReasonCycle.add(new ApplyInternalTriggerPlanSchemes());
+		senseReasonCycle.add(new ApplyMessagePlanSchemes());
 		return senseReasonCycle;
 	}
 
 	/**
 	 * Produce the act parts of the deliberation cycle of the agent. This cycle produces actions, which is why
 	 * it is decoupled from the rest of the deliberation cycle
-	 * @param agent
 	 * @return
 	 */
-	final List<DeliberationActionStep> createActCycle(final Agent agent) {
+	final List<DeliberationActionStep> createActCycle() {
 		List<DeliberationActionStep> actCycle = new ArrayList<>();
-		actCycle.add(new ExecutePlans(agent));
+		actCycle.add(new ExecutePlans());
 		return actCycle;
 	}
 	
@@ -83,26 +129,50 @@ public class AgentArguments {
 	
 	/** Returns a list of plans that will be executed after the agent's last deliberation cycle. */
 	final List<Plan> getShutdownPlans(){
+		if(this.downPlans.isEmpty()) return Collections.emptyList();
 		return new ArrayList<>(this.downPlans); // Ensure that no further additions will affect the the agent after creation
 	} 
 	
 	// Filling the builder
 	/** Add a plan scheme that processes external triggers. */
-	public final AgentArguments addExternalTriggerPlanScheme(final PlanScheme planScheme){ this.externalTriggerPlanSchemes.add(planScheme); return this; }
+	public final AgentArguments addExternalTriggerPlanScheme(final PlanScheme planScheme){ return addExternalTriggerPlanSchemeFor(null, planScheme); }
 	/** Add a plan scheme that processes internal triggers. */
-	public final AgentArguments addInternalTriggerPlanScheme(final PlanScheme planScheme){ this.internalTriggerPlanSchemes.add(planScheme); return this; }
+	public final AgentArguments addInternalTriggerPlanScheme(final PlanScheme planScheme){ return addInternalTriggerPlanSchemeFor(null, planScheme); }
 	/** Add a plan scheme that processes messages. */
-	public final AgentArguments addMessagePlanScheme(final PlanScheme planScheme){ this.messagePlanSchemes.add(planScheme); return this; }
+	public final AgentArguments addMessagePlanScheme(final PlanScheme planScheme){ return addMessagePlanSchemeFor(null, planScheme); }
 	/** Add a plan scheme that try to achieve goals. */
-	public final AgentArguments addGoalPlanScheme(final PlanScheme planScheme){ this.goalPlanSchemes.add(planScheme); return this; }
+	public final AgentArguments addGoalPlanScheme(final PlanScheme planScheme){ return addGoalPlanSchemeFor(null, planScheme); }
 	/** Add a plan scheme that processes external triggers. */
-	public final AgentArguments addExternalTriggerPlanScheme(final FunctionalPlanSchemeInterface planScheme){ this.externalTriggerPlanSchemes.add(new FunctionalPlanScheme(planScheme)); return this; }
+	public final AgentArguments addExternalTriggerPlanScheme(final FunctionalPlanSchemeInterface planScheme){ return addExternalTriggerFunctionalPlanSchemeFor(null, planScheme); }
 	/** Add a plan scheme that processes internal triggers. */
-	public final AgentArguments addInternalTriggerPlanScheme(final FunctionalPlanSchemeInterface planScheme){ this.internalTriggerPlanSchemes.add(new FunctionalPlanScheme(planScheme)); return this; }
+	public final AgentArguments addInternalTriggerPlanScheme(final FunctionalPlanSchemeInterface planScheme){ return addInternalTriggerFunctionalPlanSchemeFor(null, planScheme); }
 	/** Add a plan scheme that processes messages. */
-	public final AgentArguments addMessagePlanScheme(final FunctionalPlanSchemeInterface planScheme){ this.messagePlanSchemes.add(new FunctionalPlanScheme(planScheme)); return this; }
+	public final AgentArguments addMessagePlanScheme(final FunctionalPlanSchemeInterface planScheme){ return addMessageFunctionalPlanSchemeFor(null, planScheme); }
 	/** Add a plan scheme that try to achieve goals. */
-	public final AgentArguments addGoalPlanScheme(final FunctionalPlanSchemeInterface planScheme){ this.goalPlanSchemes.add(new FunctionalPlanScheme(planScheme)); return this; }
+	public final AgentArguments addGoalPlanScheme(final FunctionalPlanSchemeInterface planScheme){ return addGoalFunctionalPlanSchemeFor(null, planScheme); }
+
+	// Plan schemes with a declared trigger class are only tried for triggers that are an instance of that class.
+	// The plan scheme must then return Plan.UNINSTANTIATED for any other trigger.
+	/** Add a plan scheme that processes external triggers of the given class. */
+	public final AgentArguments addExternalTriggerPlanSchemeFor(final Class<? extends Trigger> triggerClass, final PlanScheme planScheme){ invalidateArchetype(); this.externalTriggerPlanSchemes.add(planScheme); this.externalTriggerClasses.add(triggerClass); return this; }
+	/** Add a plan scheme that processes internal triggers of the given class. */
+	public final AgentArguments addInternalTriggerPlanSchemeFor(final Class<? extends Trigger> triggerClass, final PlanScheme planScheme){ invalidateArchetype(); this.internalTriggerPlanSchemes.add(planScheme); this.internalTriggerClasses.add(triggerClass); return this; }
+	/** Add a plan scheme that processes messages of the given class. */
+	public final AgentArguments addMessagePlanSchemeFor(final Class<? extends Trigger> triggerClass, final PlanScheme planScheme){ invalidateArchetype(); this.messagePlanSchemes.add(planScheme); this.messageTriggerClasses.add(triggerClass); return this; }
+	/** Add a plan scheme that try to achieve goals of the given class. */
+	public final AgentArguments addGoalPlanSchemeFor(final Class<? extends Trigger> triggerClass, final PlanScheme planScheme){ invalidateArchetype(); this.goalPlanSchemes.add(planScheme); this.goalTriggerClasses.add(triggerClass); return this; }
+	/** Add a plan scheme that processes external triggers of the given class. */
+	public final AgentArguments addExternalTriggerFunctionalPlanSchemeFor(final Class<? extends Trigger> triggerClass, final FunctionalPlanSchemeInterface planScheme){ return addExternalTriggerPlanSchemeFor(triggerClass, new FunctionalPlanScheme(planScheme)); }
+	/** Add a plan scheme that processes internal triggers of the given class. */
+	public final AgentArguments addInternalTriggerFunctionalPlanSchemeFor(final Class<? extends Trigger> triggerClass, final FunctionalPlanSchemeInterface planScheme){ return addInternalTriggerPlanSchemeFor(triggerClass, new FunctionalPlanScheme(planScheme)); }
+	/** Add a plan scheme that processes messages of the given class. */
+	public final AgentArguments addMessageFunctionalPlanSchemeFor(final Class<? extends Trigger> triggerClass, final FunctionalPlanSchemeInterface planScheme){ return addMessagePlanSchemeFor(triggerClass, new FunctionalPlanScheme(planScheme)); }
+	/** Add a plan scheme that try to achieve goals of the given class. */
+	public final AgentArguments addGoalFunctionalPlanSchemeFor(final Class<? extends Trigger> triggerClass, final FunctionalPlanSchemeInterface planScheme){ return addGoalPlanSchemeFor(triggerClass, new FunctionalPlanScheme(planScheme)); }
+	/** Set the rate at which agents created from these arguments deliberate. See {@link SchedulingClass}. */
+	public final AgentArguments setSchedulingClass(final SchedulingClass schedulingClass){ this.schedulingClass = schedulingClass; return this; }
+	/** Obtain the rate at which agents created from these arguments deliberate, or null if they deliberate whenever they have something to do. */
+	public final SchedulingClass getSchedulingClass(){ return this.schedulingClass; }
 	/** Add a context that is used for decision making and plan execution. */
 	public final AgentArguments addContext(final Context context){ this.contexts.add(context); return this; }
 	/** Add a context that is used for decision making and plan execution with one or more explicit lookup keys. */
@@ -117,10 +187,15 @@ public class AgentArguments {
 	 * builder that represents a premade set of plan schemes, etc, that forms a 
 	 * coherent capability. */
 	public final AgentArguments include(final AgentArguments builder){
+		invalidateArchetype();
 		this.externalTriggerPlanSchemes.addAll(builder.externalTriggerPlanSchemes);
 		this.internalTriggerPlanSchemes.addAll(builder.internalTriggerPlanSchemes);
 		this.messagePlanSchemes.addAll(builder.messagePlanSchemes);
 		this.goalPlanSchemes.addAll(builder.goalPlanSchemes);
+		this.externalTriggerClasses.addAll(builder.externalTriggerClasses);
+		this.internalTriggerClasses.addAll(builder.internalTriggerClasses);
+		this.messageTriggerClasses.addAll(builder.messageTriggerClasses);
+		this.goalTriggerClasses.addAll(builder.goalTriggerClasses);
 		this.initialPlans.addAll(builder.initialPlans);
 		this.downPlans.addAll(builder.downPlans);
 		this.contexts.addAll(builder.contexts);
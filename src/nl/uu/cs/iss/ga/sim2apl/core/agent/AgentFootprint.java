@@ -0,0 +1,145 @@
+package nl.uu.cs.iss.ga.sim2apl.core.agent;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import nl.uu.cs.iss.ga.sim2apl.core.logging.MessageLogContext;
+
+/**
+ * An estimate of the memory retained by the run time structures of a single agent, broken down
+ * per component. Obtained through {@link Agent#estimateFootprint()}.
+ *
+ * The estimate covers the structures the agent allocates itself (the agent object, its lists, queues,
+ * containers and interfaces), but not the elements stored in them such as goals, plans, contexts
+ * and messages, as those are domain state. Parts that are shared with other agents, such as the
+ * archetype, are not counted either. Sizes are computed for a 64-bit JVM with compressed references,
+ * and are lower bounds where the capacity of a collection cannot be observed.
+ */
+public final class AgentFootprint {
+	/** Size of an object header. */
+	private static final int OBJECT_HEADER = 12;
+	/** Size of an array header, including the length field. */
+	private static final int ARRAY_HEADER = 16;
+	/** Size of a (compressed) reference. */
+	private static final int REFERENCE = 4;
+	/** Objects are aligned to this number of bytes. */
+	private static final int ALIGNMENT = 8;
+
+	/** Shallow sizes per class, as these are computed through reflection. */
+	private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<>() {
+		@Override
+		protected Long computeValue(final Class<?> type) {
+			long size = OBJECT_HEADER;
+			for(Class<?> c = type; c != null; c = c.getSuperclass()){
+				for(Field field : c.getDeclaredFields()){
+					if(!Modifier.isStatic(field.getModifiers()))
+						size += fieldSize(field.getType());
+				}
+			}
+			return align(size);
+		}
+	};
+
+	/** The estimated size of each component in bytes, in order of addition. */
+	private final Map<String, Long> components;
+
+	AgentFootprint(){
+		this.components = new LinkedHashMap<>();
+	}
+
+	/** Add the size of a component to the estimate. */
+	final AgentFootprint add(final String component, final long bytes){
+		this.components.merge(component, bytes, Long::sum);
+		return this;
+	}
+
+	/** Obtain the estimated size in bytes of each component. */
+	public final Map<String, Long> getComponents(){
+		return Collections.unmodifiableMap(this.components);
+	}
+
+	/** Obtain the estimated size in bytes of a component, or 0 if the component is unknown or not allocated. */
+	public final long getComponentSize(final String component){
+		return this.components.getOrDefault(component, 0L);
+	}
+
+	/** Obtain the estimated total size in bytes. */
+	public final long getTotalSize(){
+		long total = 0;
+		for(long bytes : this.components.values())
+			total += bytes;
+		return total;
+	}
+
+	@Override
+	public String toString(){
+		StringBuilder builder = new StringBuilder("Agent footprint: ").append(getTotalSize()).append(" bytes");
+		for(Map.Entry<String, Long> component : this.components.entrySet())
+			builder.append("\n  ").append(component.getKey()).append(": ").append(component.getValue()).append(" bytes");
+		return builder.toString();
+	}
+
+	/** The shallow size of an object, i.e. its header and fields, or 0 for null. */
+	static long shallowSize(final Object object){
+		return object == null ? 0 : SHALLOW_SIZES.get(object.getClass());
+	}
+
+	/** The size of an array-backed collection and its backing array, or 0 for null. */
+	static long collectionSize(final Collection<?> collection){
+		if(collection == null) return 0;
+		long size = shallowSize(collection);
+		if(!collection.isEmpty())
+			size += align(ARRAY_HEADER + (long) REFERENCE * collection.size());
+		return size;
+	}
+
+	/** The size of a linked collection where each element is held by a node with an item and next reference, or 0 for null.
+	 * A sentinel node is counted as well. */
+	static long linkedCollectionSize(final Collection<?> collection){
+		if(collection == null) return 0;
+		return shallowSize(collection) + (collection.size() + 1) * align(OBJECT_HEADER + 2 * REFERENCE);
+	}
+
+	/** The size of a hash map with the given number of entries, excluding the keys and values. */
+	static long hashMapSize(final int entries){
+		long size = SHALLOW_SIZES.get(java.util.HashMap.class);
+		if(entries > 0){
+			int capacity = 16;
+			while(capacity * 3 / 4 < entries) capacity <<= 1;
+			size += align(ARRAY_HEADER + (long) REFERENCE * capacity);
+			// Each entry is a node with a hash, key, value and next reference
+			size += entries * align(OBJECT_HEADER + 4 + 3 * REFERENCE);
+		}
+		return size;
+	}
+
+	/** The size of a message log, which holds a sorted set and a map for both sent and received messages, or 0 for null. */
+	static long messageLogSize(final MessageLogContext messageLog){
+		if(messageLog == null) return 0;
+		int sent = messageLog.getSentMessageHistory().size();
+		int received = messageLog.getReceiveMessageHistory().size();
+		long sortedSet = SHALLOW_SIZES.get(ConcurrentSkipListSet.class) + SHALLOW_SIZES.get(ConcurrentSkipListMap.class);
+		// Each logged message is held by a skip list node (key, value, next) and, on average, half an index node (node, down, right)
+		long sortedSetEntry = align(OBJECT_HEADER + 3 * REFERENCE) + align(OBJECT_HEADER + 3 * REFERENCE) / 2;
+		return shallowSize(messageLog) + 2 * sortedSet + (sent + received) * sortedSetEntry
+				+ hashMapSize(sent) + hashMapSize(received);
+	}
+
+	private static long fieldSize(final Class<?> type){
+		if(type == long.class || type == double.class) return 8;
+		if(type == int.class || type == float.class) return 4;
+		if(type == short.class || type == char.class) return 2;
+		if(type == byte.class || type == boolean.class) return 1;
+		return REFERENCE;
+	}
+
+	private static long align(final long size){
+		return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+}
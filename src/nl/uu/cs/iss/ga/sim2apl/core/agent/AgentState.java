@@ -0,0 +1,41 @@
+package nl.uu.cs.iss.ga.sim2apl.core.agent;
+
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageInterface;
+import nl.uu.cs.iss.ga.sim2apl.core.plan.Plan;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The run time state of an agent that moves to another platform: its goals, plans, triggers, unprocessed messages,
+ * contexts and random number stream. The state is sent to the other platform through Java serialization, so all
+ * these objects need to be serializable. The decision making of the agent (its archetype) is not part of the state,
+ * as the other platform creates the agent from its own agent arguments.
+ */
+public final class AgentState implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	final List<Goal> goals;
+	final List<Plan> plans;
+	final List<Trigger> internalTriggers, externalTriggers;
+	final List<MessageInterface> messages;
+	final Map<Class<?>, Context> contexts;
+	final int wakeTick;
+	/** The seed from which the random number stream of the agent continues, or null if the agent never drew from it */
+	final Long randomSeed;
+
+	AgentState(List<Goal> goals, List<Plan> plans, List<Trigger> internalTriggers, List<Trigger> externalTriggers,
+			List<MessageInterface> messages, Map<Class<?>, Context> contexts, int wakeTick, Long randomSeed){
+		this.goals = new ArrayList<>(goals);
+		this.plans = new ArrayList<>(plans);
+		this.internalTriggers = new ArrayList<>(internalTriggers);
+		this.externalTriggers = new ArrayList<>(externalTriggers);
+		this.messages = new ArrayList<>(messages);
+		this.contexts = new LinkedHashMap<>(contexts);
+		this.wakeTick = wakeTick;
+		this.randomSeed = randomSeed;
+	}
+}
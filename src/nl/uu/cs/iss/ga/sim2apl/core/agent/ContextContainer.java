@@ -1,6 +1,7 @@
 package nl.uu.cs.iss.ga.sim2apl.core.agent;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -18,11 +19,11 @@ import java.util.Map;
  */
 public final class ContextContainer {
 	
-	/** Map to store the contexts. */
-	private final Map<Class<?>, Context> map;
+	/** Map to store the contexts. Allocated when the first context is added. */
+	private Map<Class<?>, Context> map;
 
 	public ContextContainer() {
-		this.map = new HashMap<>();
+		this.map = null;
 	}
 
 	/**
@@ -30,6 +31,7 @@ public final class ContextContainer {
 	 * previously added.
 	 */
 	public final void addContext(final Context context) {
+		if(this.map == null) this.map = new HashMap<>();
 		this.map.put(context.getClass(), context);
 	}
 
@@ -43,6 +45,7 @@ public final class ContextContainer {
 	 * @param keys 		List of keys this context should be associated with.
 	 */
 	public final void addImplementedContext(final Context context, Class<? extends Context> ... keys) {
+		if(this.map == null) this.map = new HashMap<>();
 		boolean mainClassGiven = false;
 		for (Class<? extends Context> key : keys) {
 			this.map.put(key, context);
@@ -60,10 +63,25 @@ public final class ContextContainer {
 	 */
 	@SuppressWarnings("unchecked")
 	public final <C extends Context> C getContext(final Class<C> klass) {
-		return (C) this.map.get(klass);
+		return this.map == null ? null : (C) this.map.get(klass);
+	}
+	
+	/** The number of keys under which contexts are stored. */
+	final int size() {
+		return this.map == null ? 0 : this.map.size();
+	}
+	
+	/** The contexts by the keys under which they are stored. */
+	final Map<Class<?>, Context> getContextsByKey() {
+		return this.map == null ? Collections.emptyMap() : this.map;
+	}
+
+	/** Replace all contexts by the given contexts, by the keys under which they are stored. */
+	final void setContextsByKey(final Map<Class<?>, Context> contexts) {
+		this.map = contexts.isEmpty() ? null : new HashMap<>(contexts);
 	}
 	
 	public final Collection<Context> getAllContext() {
-		return this.map.values();
+		return this.map == null ? Collections.emptyList() : this.map.values();
 	}
 }
\ No newline at end of file
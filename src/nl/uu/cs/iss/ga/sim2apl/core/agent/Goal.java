@@ -1,5 +1,7 @@
 package nl.uu.cs.iss.ga.sim2apl.core.agent;
 
+import java.io.Serializable;
+
 /**
  * Goals are a type of trigger that when adopted as goals (they can serve as non-
  * goal triggers as well) then they will remain active until they are achieved. A goal
@@ -7,9 +9,14 @@ package nl.uu.cs.iss.ga.sim2apl.core.agent;
  * triggered by the same goal, then the first scheme in the plan scheme base list will 
  * be applied.
  * 
+ * Goals are serializable, so that agents that have them can move to another 
+ * platform.
+ * 
  * @author Bas Testerink
  */
-public abstract class Goal implements Trigger {
+public abstract class Goal implements Trigger, Serializable {
+	private static final long serialVersionUID = 1L;
+
 	/** Whether a plan is active for this goal. */
 	private boolean pursued = false;
 	
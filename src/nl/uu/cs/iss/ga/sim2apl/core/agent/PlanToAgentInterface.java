@@ -63,6 +63,18 @@ public final class PlanToAgentInterface {
 	 */
 	public final void finished(){ this.agent.finished(); } // The agent is finished with its execution
 	
+	/** Obtain the agent's own random number stream. See {@link RandomContext}. */
+	public final java.util.SplittableRandom getRandom(){ return this.agent.getRandomContext().getRandom(); }
+	
+	/** Let the agent sleep until the given tick, after the current deliberation cycle. See {@link Agent#wakeAt(int)}. */
+	public final void wakeAt(final int tick){ this.agent.wakeAt(tick); }
+	
+	/** Let the agent deliberate once every given number of ticks. See {@link Agent#wakeEvery(int)}. */
+	public final void wakeEvery(final int ticks){ this.agent.wakeEvery(ticks); }
+	
+	/** Set the rate at which the agent deliberates. See {@link Agent#setSchedulingClass(SchedulingClass)}. */
+	public final void setSchedulingClass(final SchedulingClass schedulingClass){ this.agent.setSchedulingClass(schedulingClass); }
+	
 	/** Add an interceptor for goals. */
 	public final void adoptGoalInterceptor(final nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor interceptor){
 		this.agent.adoptGoalInterceptor(interceptor);
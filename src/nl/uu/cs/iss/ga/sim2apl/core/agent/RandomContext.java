@@ -0,0 +1,60 @@
+package nl.uu.cs.iss.ga.sim2apl.core.agent;
+
+import java.util.SplittableRandom;
+
+/**
+ * Gives an agent its own stream of random numbers. The stream is derived from the random seed and node ID of the
+ * platform and the registration number of the agent on that platform, so it does not depend on the order in which
+ * agents are executed or on the number of threads. Agents that only draw random numbers from their own stream
+ * therefore behave the same in each run with the same seed, also when executed in parallel. Agents with the same
+ * registration number on different platforms of a distributed simulation get different streams, as the platforms
+ * have different node IDs (see {@link nl.uu.cs.iss.ga.sim2apl.core.platform.Platform#setNodeID(long)}).
+ *
+ * When the agent moves to another platform, its stream continues from a seed that is drawn from the stream (see
+ * {@link #nextMigrationSeed()}), so moved agents are reproducible as well.
+ *
+ * The context is obtained through <code>getContext(RandomContext.class)</code> and is created on first use.
+ * It should only be used by the agent it belongs to.
+ */
+public final class RandomContext implements Context {
+	/** Increment between the seeds of consecutive agents, as used by SplittableRandom for its own streams. */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private final SplittableRandom random;
+
+	/**
+	 * @param seed Random seed of the platform
+	 * @param nodeID Node ID of the platform
+	 * @param registrationNumber Registration number of the agent on the platform
+	 */
+	RandomContext(final long seed, final long nodeID, final long registrationNumber){
+		this.random = new SplittableRandom(mix64(mix64(seed ^ nodeID) + GOLDEN_GAMMA * (registrationNumber + 1L)));
+	}
+
+	/**
+	 * @param migrationSeed Seed obtained from {@link #nextMigrationSeed()} on the platform the agent moved from
+	 */
+	RandomContext(final long migrationSeed){
+		this.random = new SplittableRandom(migrationSeed);
+	}
+
+	/**
+	 * Draw the seed from which the stream continues when the agent moves to another platform. SplittableRandom does
+	 * not expose its state, so the stream is continued from a seed drawn from it rather than resumed as is.
+	 */
+	long nextMigrationSeed(){
+		return this.random.nextLong();
+	}
+
+	/** Obtain the random number generator of the agent. */
+	public final SplittableRandom getRandom(){
+		return this.random;
+	}
+
+	/** Scramble the bits of a seed, so that seeds of consecutive agents produce unrelated streams. */
+	private static long mix64(long z){
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
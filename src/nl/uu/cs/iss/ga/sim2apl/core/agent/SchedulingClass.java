@@ -0,0 +1,55 @@
+package nl.uu.cs.iss.ga.sim2apl.core.agent;
+
+/**
+ * A scheduling class determines the rate at which an agent deliberates. After each deliberation cycle, the agent
+ * sleeps on the tick timer of the tick executor until the tick given by its scheduling class, so agents that are not
+ * due are not touched at all. An agent still deliberates earlier when it receives input such as a message or an
+ * external trigger, or when it asked to wake up earlier through {@link Agent#wakeAt(int)}.
+ *
+ * Agents without a scheduling class deliberate whenever they have something to do. A scheduling class can be set
+ * for all agents of a type through {@link AgentArguments#setSchedulingClass(SchedulingClass)}, or for a single
+ * agent through {@link Agent#setSchedulingClass(SchedulingClass)}. Scheduling classes have no effect if the tick
+ * executor does not support a tick timer.
+ */
+@FunctionalInterface
+public interface SchedulingClass {
+
+	/**
+	 * Determine the tick in which the agent should deliberate next.
+	 * @param currentTick The tick in which the agent just deliberated
+	 * @param agent The agent, which provides its own random number stream through {@link Agent#getRandomContext()}
+	 * @return The next tick in which the agent should deliberate, which should be after the current tick
+	 */
+	int getNextTick(int currentTick, Agent agent);
+
+	/** Deliberate in every tick, also when the agent has nothing to do. */
+	static SchedulingClass everyTick(){
+		return (currentTick, agent) -> currentTick + 1;
+	}
+
+	/**
+	 * Deliberate once every given number of ticks, counted from the tick of the last deliberation cycle.
+	 * @param ticks Number of ticks between two deliberation cycles
+	 */
+	static SchedulingClass every(final int ticks){
+		if(ticks < 1) throw new IllegalArgumentException("Number of ticks must be positive: " + ticks);
+		return (currentTick, agent) -> (int) Math.min(Integer.MAX_VALUE, (long) currentTick + ticks);
+	}
+
+	/**
+	 * Deliberate in each tick with the given probability, independently of other ticks. The number of ticks until
+	 * the next deliberation cycle is drawn at once from a geometric distribution, using the agent's own random number
+	 * stream, so the agent is not touched in the ticks it skips and the schedule is reproducible for a given seed.
+	 * @param probability Probability of deliberating in a tick
+	 */
+	static SchedulingClass probabilistic(final double probability){
+		if(!(probability > 0 && probability <= 1))
+			throw new IllegalArgumentException("Probability must be in (0, 1]: " + probability);
+		final double logFailure = Math.log1p(-probability);
+		return (currentTick, agent) -> {
+			if(probability == 1) return currentTick + 1;
+			double gap = 1 + Math.floor(Math.log1p(-agent.getRandomContext().getRandom().nextDouble()) / logFailure);
+			return (int) Math.min(Integer.MAX_VALUE, currentTick + gap);
+		};
+	}
+}
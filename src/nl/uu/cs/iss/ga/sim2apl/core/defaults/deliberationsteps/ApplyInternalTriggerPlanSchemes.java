@@ -5,7 +5,6 @@ import java.util.List;
 import nl.uu.cs.iss.ga.sim2apl.core.deliberation.DeliberationStepException;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.Agent;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.Trigger;
-import nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme;
 
 /**
  * Step that applies the internal trigger plan schemes to the internal triggers.
@@ -13,16 +12,11 @@ import nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme;
  */
 public final class ApplyInternalTriggerPlanSchemes extends DefaultDeliberationStep {
 	
-	public  ApplyInternalTriggerPlanSchemes(final Agent agent){
-		super(agent);
-	}
-	
 	/** Simply grab the internal triggers and relevant plan schemes and try their application. */
 	@Override
-	public final void execute() throws DeliberationStepException{
-		List<Trigger> triggers = super.agent.getAndRemoveInternalTriggers();
-		super.applyTriggerInterceptors(triggers, super.agent.getInternalTriggerInterceptors()); 
-		List<PlanScheme> planSchemes = super.agent.getInternalTriggerPlanSchemes();
-		super.applyPlanSchemes(triggers, planSchemes);
+	public final void execute(final Agent agent) throws DeliberationStepException{
+		List<Trigger> triggers = agent.getAndRemoveInternalTriggers();
+		super.applyTriggerInterceptors(agent, triggers, agent.getInternalTriggerInterceptors()); 
+		super.applyPlanSchemes(agent, triggers, agent.getInternalTriggerPlanSchemeIndex());
 	}
 }
\ No newline at end of file
@@ -5,7 +5,6 @@ import java.util.List;
 import nl.uu.cs.iss.ga.sim2apl.core.deliberation.DeliberationStepException;
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageInterface;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.Agent;
-import nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme;
 
 /**
  * Step that applies the message plan schemes to the messages.
@@ -13,16 +12,11 @@ import nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme;
  */
 public final class ApplyMessagePlanSchemes extends DefaultDeliberationStep { 
 	
-	public  ApplyMessagePlanSchemes(final Agent agent){
-		super(agent);
-	}
-	
 	/** Simply grab the messages and message plan schemes and try their application. */
 	@Override
-	public final void execute() throws DeliberationStepException{
-		List<MessageInterface> messages = super.agent.getAllMessages(); 
-		super.applyTriggerInterceptors(messages, super.agent.getMessageInterceptors());
-		List<PlanScheme> planSchemes = super.agent.getMessagePlanSchemes();
-		super.applyPlanSchemes(messages, planSchemes);
+	public final void execute(final Agent agent) throws DeliberationStepException{
+		List<MessageInterface> messages = agent.getAllMessages(); 
+		super.applyTriggerInterceptors(agent, messages, agent.getMessageInterceptors());
+		super.applyPlanSchemes(agent, messages, agent.getMessagePlanSchemeIndex());
 	}
 }
\ No newline at end of file
@@ -15,25 +15,19 @@ import java.util.List;
  * @author Bas Testerink
  */
 public final class ExecutePlans implements DeliberationActionStep {
-	private final nl.uu.cs.iss.ga.sim2apl.core.agent.Agent agent;
-
-	public  ExecutePlans(final Agent agent){
-		this.agent = agent;
-	}
-	
 	/** This steps executes by going through each of the agent's plans. If the plan is finished 
 	 * after its execution, then it is removed. If an error occurs, then a plan execution error
 	 * will be inserted as an internal trigger. */
 	@Override
-	public final List<Object> execute() throws DeliberationStepException {
+	public final List<Object> execute(final Agent agent) throws DeliberationStepException {
 		ArrayList<Object> producedActionList = new ArrayList<>();
-		for(Plan plan : this.agent.getPlans()){
+		for(Plan plan : agent.getPlans()){
 			try {
-				Object planAction = this.agent.executePlan(plan);
+				Object planAction = agent.executePlan(plan);
 				if(planAction != null)
 					producedActionList.add(planAction);
 				if(plan.isFinished())
-					this.agent.removePlan(plan);
+					agent.removePlan(plan);
 			} catch(PlanExecutionError executionError){
 				// NOTE: if a plan has an execution error, and a goal is being pursued by the plan, then the goal still is 
 				// flagged as being pursued. Therefore it is important to ALWAYS have repair plan schemes for failed goal plan schemes.
@@ -45,8 +39,8 @@ public final class ExecutePlans implements DeliberationActionStep {
 					c = getClass();
 				}
 
-				this.agent.removePlan(plan); // Remove plan from execution
-				this.agent.addInternalTrigger(executionError); // Add the error
+				agent.removePlan(plan); // Remove plan from execution
+				agent.addInternalTrigger(executionError); // Add the error
 			}
 		}
 		return producedActionList;
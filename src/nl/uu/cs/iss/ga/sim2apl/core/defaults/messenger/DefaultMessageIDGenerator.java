@@ -0,0 +1,73 @@
+package nl.uu.cs.iss.ga.sim2apl.core.defaults.messenger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageID;
+import nl.uu.cs.iss.ga.sim2apl.core.messaging.MessageIDGenerator;
+
+/**
+ * The default message ID generator combines a node ID derived from the platform address with
+ * a striped counter. Each thread increments the counter of its own stripe, and the stripe index
+ * is stored in the low bits of the sequence number, so threads do not contend on a single
+ * counter and sequence numbers never collide.
+ */
+public final class DefaultMessageIDGenerator implements MessageIDGenerator {
+
+	/** Number of bits of the sequence number used for the stripe index */
+	private static final int STRIPE_BITS = 6;
+	private static final int STRIPES = 1 << STRIPE_BITS;
+
+	/** Distance between two used slots in the counter array, to keep stripes on separate cache lines */
+	private static final int PADDING = 8;
+
+	private final long node;
+	private final AtomicLongArray counters;
+
+	/**
+	 * Create a generator for a platform with the given address. The node ID is taken from a
+	 * SHA-256 digest of the address, so different addresses practically never share a node ID.
+	 * Platforms that must be guaranteed distinct IDs can use {@link #DefaultMessageIDGenerator(long)}
+	 * with explicitly assigned node IDs instead.
+	 *
+	 * @param host	Host of the platform
+	 * @param port	Port of the platform
+	 */
+	public DefaultMessageIDGenerator(String host, int port) {
+		this(nodeID(host, port));
+	}
+
+	/**
+	 * Create a generator with an explicit node ID
+	 *
+	 * @param node	ID of the node for which message IDs will be produced
+	 */
+	public DefaultMessageIDGenerator(long node) {
+		this.node = node;
+		this.counters = new AtomicLongArray(STRIPES * PADDING);
+	}
+
+	/**
+	 * Derive a node ID from the first 64 bits of the SHA-256 digest of a platform address
+	 */
+	static long nodeID(String host, int port) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest((host + ":" + port).getBytes(StandardCharsets.UTF_8));
+			return ByteBuffer.wrap(hash).getLong();
+		} catch (NoSuchAlgorithmException ex) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	@Override
+	public MessageID next() {
+		int stripe = (int) (Thread.currentThread().getId() & (STRIPES - 1));
+		long count = this.counters.getAndIncrement(stripe * PADDING);
+		return new MessageID(this.node, (count << STRIPE_BITS) | stripe);
+	}
+}
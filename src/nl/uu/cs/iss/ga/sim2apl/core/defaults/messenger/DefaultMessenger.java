@@ -1,7 +1,8 @@
 package nl.uu.cs.iss.ga.sim2apl.core.defaults.messenger;
 
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageInterface;
 import nl.uu.cs.iss.ga.sim2apl.core.messaging.Messenger;
@@ -10,7 +11,8 @@ import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
 
 /**
  * The default messenger is a very simple implementation for communication between 
- * agents on the same JVM instance. 
+ * agents on the same JVM instance. Looking up the receiver of a message does not take 
+ * a lock, so agents that send messages from different threads do not block each other. 
  * 
  * @author Bas Testerink
  */
@@ -19,36 +21,37 @@ public final class DefaultMessenger implements Messenger<MessageInterface> {
 	private final Map<nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID, nl.uu.cs.iss.ga.sim2apl.core.agent.Agent> agents;
 
 	public DefaultMessenger(){
-		this.agents = new HashMap<nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID, nl.uu.cs.iss.ga.sim2apl.core.agent.Agent>();
+		this.agents = new ConcurrentHashMap<nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID, nl.uu.cs.iss.ga.sim2apl.core.agent.Agent>();
 	} 
 
 	/** Store the agent interface. */
 	@Override
 	public final void register(nl.uu.cs.iss.ga.sim2apl.core.agent.Agent agent){
-		synchronized(this.agents){ 
+		this.agents.put(agent.getAID(), agent);
+	}
+
+	/** Store the agent interfaces of a batch of agents. */
+	@Override
+	public final void registerAll(final Collection<? extends Agent> agents){
+		for(Agent agent : agents)
 			this.agents.put(agent.getAID(), agent);
-		}
 	}
 
 	/** Remove the agent interface from the messenger. */
 	@Override
 	public final void deregister(final nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID agentID){
-		synchronized(this.agents){ 
-			this.agents.remove(agentID); 
-		}
+		this.agents.remove(agentID); 
 	} 
 	
 	/** Grab the agent interface of the receiver and add the message in the receiving agent. */
 	public final void sendMessage(final nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID receiver, final MessageInterface message) throws nl.uu.cs.iss.ga.sim2apl.core.defaults.messenger.MessageReceiverNotFoundException {
-		synchronized(this.agents){
-			Agent agent = this.agents.get(receiver);
-			if(agent == null){
-				//TODO send message to sender that receiver is unknown instead of exception
-				throw new nl.uu.cs.iss.ga.sim2apl.core.defaults.messenger.MessageReceiverNotFoundException("Trying to send to non-existent agent "+receiver+".");
-			} else {
-				agent.receiveMessage(message);
-			}
-		} 
+		Agent agent = this.agents.get(receiver);
+		if(agent == null){
+			//TODO send message to sender that receiver is unknown instead of exception
+			throw new nl.uu.cs.iss.ga.sim2apl.core.defaults.messenger.MessageReceiverNotFoundException("Trying to send to non-existent agent "+receiver+".");
+		} else {
+			agent.receiveMessage(message);
+		}
 	}
 
 	@Override
@@ -1,5 +1,7 @@
 package nl.uu.cs.iss.ga.sim2apl.core.deliberation;
 
+import nl.uu.cs.iss.ga.sim2apl.core.agent.Agent;
+
 import java.util.List;
 
 /**
@@ -18,6 +20,8 @@ public interface DeliberationActionStep {
      * each implement a single step from the 2APL deliberation cycle. This way
      * an agent component factory can decide at runtime which deliberation steps
      * should be part of an agents' deliberation cycle.
+     * A step is shared by all agents with the same archetype, so it should not store
+     * the agent it operates on but use the agent that is passed on execution.
      **/
-    List<Object> execute() throws DeliberationStepException;
+    List<Object> execute(Agent agent) throws DeliberationStepException;
 }
@@ -3,7 +3,9 @@ package nl.uu.cs.iss.ga.sim2apl.core.deliberation;
 import nl.uu.cs.iss.ga.sim2apl.core.platform.Platform;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.Agent;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+import nl.uu.cs.iss.ga.sim2apl.core.plan.Plan;
 import nl.uu.cs.iss.ga.sim2apl.core.plan.PlanExecutionError;
+import nl.uu.cs.iss.ga.sim2apl.core.tick.TickTimer;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -25,6 +27,9 @@ public final class DeliberationRunnable implements Callable<List<Object>> {
 
 	private ArrayList<Object> intendedActions;
 
+	/** Duration of the last execution of this runnable in nanoseconds, used by executors to estimate its cost. */
+	private volatile long lastDeliberationTime;
+
 	/**
 	 * Creation of the deliberation runnable will also result in the setting of a self-rescheduler for this runnable  
 	 * through the agent interface. 
@@ -47,6 +52,18 @@ public final class DeliberationRunnable implements Callable<List<Object>> {
 	 */
 	@Override
 	public List<Object> call(){
+		long start = System.nanoTime();
+		try {
+			return deliberate();
+		} finally {
+			this.lastDeliberationTime = System.nanoTime() - start;
+		}
+	}
+
+	private List<Object> deliberate(){
+		if(this.agent.isInTransit()){ // The agent moved to another platform, where it continues its deliberation
+			return Collections.emptyList();
+		}
 		if(!this.agent.isDone()){ // Check first if agent was killed outside of this runnable
             // Clear intended actions potential previous deliberation cycle
             this.intendedActions = new ArrayList<>();
@@ -55,11 +72,11 @@ public final class DeliberationRunnable implements Callable<List<Object>> {
 				// Go through the cycle and execute each step.
 				// Note that the deliberation cycle cannot change at runtime.  
 				for(DeliberationStep step : this.agent.getSenseReasonCycle()){
-					step.execute();
+					step.execute(this.agent);
 				}
 
 				for(DeliberationActionStep step : this.agent.getActCycle()) {
-					this.intendedActions.addAll(step.execute());
+					this.intendedActions.addAll(step.execute(this.agent));
 				}
 
 				// If all deliberation steps are finished, then check whether
@@ -70,7 +87,11 @@ public final class DeliberationRunnable implements Callable<List<Object>> {
 							agent.getAID().getName()));
 					initiateShutdown(this.agent);
 				} else {
-					if (!this.agent.checkSleeping()) { // If the agents goes to sleep then it will be woken upon any external input (message, external trigger)
+					TickTimer<DeliberationRunnable> timer = this.platform.getTickExecutor().getTickTimer();
+					int wakeTick = timer == null ? -1 : this.agent.checkTimedSleep(this.platform.getTickExecutor().getCurrentTick());
+					if (wakeTick >= 0) { // The agent sleeps until the timer or input wakes it
+						timer.schedule(wakeTick, this);
+					} else if (!this.agent.checkSleeping()) { // If the agents goes to sleep then it will be woken upon any external input (message, external trigger)
 						reschedule();
 					} else {
 						Platform.getLogger().log(DeliberationRunnable.class, String.format("Agent %s going to sleep",
@@ -111,8 +132,26 @@ public final class DeliberationRunnable implements Callable<List<Object>> {
 		this.platform.killAgent(agent.getAID());
 	}
 
+	/** Returns the duration of the last execution of this runnable in nanoseconds, or 0 if it was not yet executed. */
+	public final long getLastDeliberationTime(){ return this.lastDeliberationTime; }
+
+	/** Returns the index on the platform of the agent to which this runnable belongs. */
+	public final int getAgentIndex(){ return this.agent.getIndex(); }
+
 	/** Returns the id of the agent to which this runnable belongs. */
 	public final AgentID getAgentID(){ return this.agent.getAID(); }
+
+	/** Returns the plan the agent is currently executing, or null if it is not executing a plan. */
+	public final Plan getCurrentPlan(){ return this.agent.getCurrentPlan(); }
+	
+	/**
+	 * Called by the tick executor when the tick timer on which this runnable's agent sleeps expires.
+	 * @param tick The tick in which the timer expired
+	 * @return True iff this runnable should be executed in the given tick
+	 */
+	public final boolean timerExpired(final int tick){
+		return this.agent.wakeFromTimer(tick);
+	}
 	
 	/** Reschedule this deliberation runnable so it will be executed again in the future. */
 	public final synchronized void reschedule(){
@@ -1,4 +1,7 @@
 package nl.uu.cs.iss.ga.sim2apl.core.deliberation;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.Agent;
+
 /**
  * A deliberation step furthers the state of an agent. 
  * @author Bas Testerink
@@ -8,6 +11,8 @@ public interface DeliberationStep {
 	 * designed in a modular fashion. For instance the default deliberation steps
 	 * each implement a single step from the 2APL deliberation cycle. This way
 	 * an agent component factory can decide at runtime which deliberation steps 
-	 * should be part of an agents' deliberation cycle.  */ 
-	void execute() throws DeliberationStepException;
+	 * should be part of an agents' deliberation cycle. 
+	 * A step is shared by all agents with the same archetype, so it should not store 
+	 * the agent it operates on but use the agent that is passed on execution. */ 
+	void execute(Agent agent) throws DeliberationStepException;
 }
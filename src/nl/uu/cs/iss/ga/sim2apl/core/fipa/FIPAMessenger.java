@@ -4,13 +4,18 @@ import nl.uu.cs.iss.ga.sim2apl.core.agent.Agent;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentInterface;
 import nl.uu.cs.iss.ga.sim2apl.core.defaults.messenger.MessageReceiverNotFoundException;
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.ACLCodec;
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.ACLMessage;
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.CompactACLCodec;
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec;
 import nl.uu.cs.iss.ga.sim2apl.core.logging.Loggable;
 import nl.uu.cs.iss.ga.sim2apl.core.messaging.Messenger;
 import nl.uu.cs.iss.ga.sim2apl.core.platform.Platform;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 public class FIPAMessenger implements Messenger<ACLMessage> {
 
@@ -18,11 +23,37 @@ public class FIPAMessenger implements Messenger<ACLMessage> {
 	
 	/** Stores the interfaces to agents to inject messages. */
 	private final Map<AgentID, Agent> agents;
+
+	/** Whether messages are encoded in the compact representation instead of the LEAP representation. */
+	private volatile boolean compactEncoding = false;
 	
 	public FIPAMessenger() {
 		this.agents = new HashMap<>();
 	}
 
+	/**
+	 * Choose the representation in which messages are encoded for other platforms. Messages in either representation
+	 * are decoded, so platforms that use different representations can still communicate, as long as they all know
+	 * both representations.
+	 * 
+	 * @param representation {@link LEAPACLCodec#NAME} (the default) or {@link CompactACLCodec#NAME}
+	 * @throws IllegalArgumentException If the representation is not supported
+	 */
+	public void setACLRepresentation(final String representation) {
+		if (LEAPACLCodec.NAME.equals(representation)) {
+			this.compactEncoding = false;
+		} else if (CompactACLCodec.NAME.equals(representation)) {
+			this.compactEncoding = true;
+		} else {
+			throw new IllegalArgumentException("Unsupported ACL representation " + representation);
+		}
+	}
+
+	/** The representation in which messages are encoded for other platforms. */
+	public String getACLRepresentation() {
+		return this.compactEncoding ? CompactACLCodec.NAME : LEAPACLCodec.NAME;
+	}
+
 	/** Store the agent interface. */
 	@Override
 	public final void register(final Agent agent) {
@@ -31,6 +62,15 @@ public class FIPAMessenger implements Messenger<ACLMessage> {
 		}
 	}
 
+	/** Store the agent interfaces of a batch of agents. */
+	@Override
+	public final void registerAll(final Collection<? extends Agent> agents) {
+		synchronized (this.agents) {
+			for (Agent agent : agents)
+				this.agents.put(agent.getAID(), agent);
+		}
+	}
+
 	/** Remove the agent interface from the messenger. */
 	@Override
 	public final void deregister(final AgentID agentID) {
@@ -69,42 +109,24 @@ public class FIPAMessenger implements Messenger<ACLMessage> {
 		}
 	}
 
+	/**
+	 * Deliver a message to the agents its envelope is addressed to (see {@link ACLMessage#getEnvelopeReceivers()}), 
+	 * or to all agents if the envelope has no receivers. A message that was decoded lazily is routed without decoding 
+	 * the rest of it.
+	 */
 	public void sendMessage(ACLMessage message) { // throws MessageReceiverNotFoundException {
-		if (message.getEnvelope().getCountOfIntendedReceiver() > 0) {
-			// while (message.getEnvelope().getAllIntendedReceiver().hasNext()){
-			message.getEnvelope().getAllIntendedReceiver().forEachRemaining((receiver) -> {
-				try {
-					// this.sendMessage(message.getEnvelope().getAllIntendedReceiver().next(),
-					// message);
-					this.sendMessage(receiver, message);
-				} catch (MessageReceiverNotFoundException ex) {
-					logger.log(FIPAMessenger.class, ex);
-					// TODO: re-throw?
-				}
-			});
-			// }
-		} else if (message.getEnvelope().getCountOfTo() > 0) {
-			// while (message.getEnvelope().getAllTo().hasNext()){
-			message.getEnvelope().getAllTo().forEachRemaining((receiver) -> {
-				try {
-					// this.sendMessage(message.getEnvelope().getAllTo().next(), message);
-					this.sendMessage(receiver, message);
-				} catch (MessageReceiverNotFoundException ex) {
-					logger.log(FIPAMessenger.class, ex);
-					// TODO: re-throw?
-				}
-			});
-			// }
-		} else {
-			agents.keySet().forEach((agentID) -> {
-				try {
-					this.sendMessage(agentID, message);
-				} catch (MessageReceiverNotFoundException ex) {
-					logger.log(FIPAMessenger.class, ex);
-					// TODO: re-throw?
-				}
-			});
+		Collection<AgentID> receivers = message.getEnvelopeReceivers();
+		if (receivers.isEmpty()) {
+			receivers = agents.keySet();
 		}
+		receivers.forEach((receiver) -> {
+			try {
+				this.sendMessage(receiver, message);
+			} catch (MessageReceiverNotFoundException ex) {
+				logger.log(FIPAMessenger.class, ex);
+				// TODO: re-throw?
+			}
+		});
 	}
 
 	@Override
@@ -131,11 +153,43 @@ public class FIPAMessenger implements Messenger<ACLMessage> {
 	
 	@Override
 	public byte[] encodeMessage(ACLMessage message) throws UnsupportedOperationException {
-		return message.encode();
+		return this.compactEncoding ? CompactACLCodec.encodeMessage(message) : message.encode();
 	}
 
 	@Override
 	public ACLMessage decodeMessage(byte[] asBytes) throws UnsupportedOperationException {
 		return ACLMessage.decode(asBytes);
 	}
+
+	/**
+	 * Create an encoder for the messages sent over one connection. In the compact representation, the messages of the 
+	 * connection share the dictionaries of one {@link CompactACLCodec}, so agent IDs and strings that were sent before 
+	 * are referred to by their index.
+	 */
+	@Override
+	public Function<ACLMessage, byte[]> newStreamEncoder() {
+		CompactACLCodec codec = new CompactACLCodec();
+		return message -> this.compactEncoding ? codec.encode(message, null) : message.encode();
+	}
+
+	/**
+	 * Create a decoder for the messages received over one connection, which were encoded by an encoder from 
+	 * {@link #newStreamEncoder()}. A message in the compact representation that cannot be decoded leaves the 
+	 * dictionaries of the decoder out of step with those of the encoder, so the decoder then throws an 
+	 * <code>IllegalStateException</code> and the connection should be closed.
+	 */
+	@Override
+	public Function<byte[], ACLMessage> newStreamDecoder() {
+		CompactACLCodec codec = new CompactACLCodec();
+		return data -> {
+			if (!CompactACLCodec.isCompact(data)) {
+				return ACLMessage.decode(data);
+			}
+			try {
+				return codec.decode(data, null);
+			} catch (ACLCodec.CodecException ex) {
+				throw new IllegalStateException("Compact message stream can't be decoded: " + ex.getMessage(), ex);
+			}
+		};
+	}
 }
@@ -0,0 +1,79 @@
+package nl.uu.cs.iss.ga.sim2apl.core.fipa;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Identifies a single message sent by an agent. A message ID consists of the ID of the
+ * node (platform) that produced it and a sequence number that is unique within that node.
+ *
+ * The textual representation has the same layout as a UUID, so message IDs remain
+ * readable by peers that still expect a UUID in the <code>X-messageID</code> parameter.
+ *
+ * @see nl.uu.cs.iss.ga.sim2apl.core.messaging.MessageIDGenerator
+ */
+public final class MessageID implements Comparable<MessageID>, Serializable {
+
+	private static final long serialVersionUID = -4301877513946720164L;
+
+	/** The user defined parameter key under which the message ID is exchanged in textual form */
+	public static final String PARAMETER_KEY = "X-messageID";
+
+	private final long node;
+	private final long sequence;
+
+	public MessageID(long node, long sequence) {
+		this.node = node;
+		this.sequence = sequence;
+	}
+
+	/**
+	 * Parse a message ID from its textual representation
+	 *
+	 * @param id	Textual representation, as produced by {@link #toString()}
+	 * @return		The parsed message ID
+	 * @throws IllegalArgumentException if the string is not a valid message ID
+	 */
+	public static MessageID fromString(String id) {
+		UUID uuid = UUID.fromString(id);
+		return new MessageID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/** The ID of the node that produced this message ID */
+	public long getNode() {
+		return node;
+	}
+
+	/** The sequence number of this message ID within its node */
+	public long getSequence() {
+		return sequence;
+	}
+
+	@Override
+	public int compareTo(MessageID o) {
+		int comp = Long.compare(this.node, o.node);
+		return comp != 0 ? comp : Long.compare(this.sequence, o.sequence);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof MessageID)) {
+			return false;
+		}
+		MessageID other = (MessageID) obj;
+		return this.node == other.node && this.sequence == other.sequence;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(this.node) * 31 + Long.hashCode(this.sequence);
+	}
+
+	@Override
+	public String toString() {
+		return new UUID(this.node, this.sequence).toString();
+	}
+}
@@ -16,4 +16,15 @@ public interface MessageInterface extends Trigger {
 	public String getUserDefinedParameter(String key);
 	
 	public String getContent();
+
+	/** Stamp this message with the ID under which it is logged by sender and receiver. */
+	public default void setMessageID(MessageID messageID) {
+		addUserDefinedParameter(MessageID.PARAMETER_KEY, messageID.toString());
+	}
+
+	/** Obtain the ID of this message, or <code>null</code> if the message has not been sent yet. */
+	public default MessageID getMessageID() {
+		String messageID = getUserDefinedParameter(MessageID.PARAMETER_KEY);
+		return messageID == null ? null : MessageID.fromString(messageID);
+	}
 }
@@ -1,7 +1,6 @@
 package nl.uu.cs.iss.ga.sim2apl.core.fipa;
 
 import java.time.ZonedDateTime;
-import java.util.UUID;
 
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.Performative;
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.ACLMessage;
@@ -9,7 +8,7 @@ import nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.ACLMessage;
 public class MessageLog implements Comparable<MessageLog> {
 
 	private ZonedDateTime time = ZonedDateTime.now();
-	private UUID id;
+	private MessageID id;
 	private nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageInterface message;
 	boolean received;
 
@@ -28,7 +27,7 @@ public class MessageLog implements Comparable<MessageLog> {
 		}
 	}
 	
-	public UUID getID() {
+	public MessageID getID() {
 		return id;
 	}
 
@@ -50,7 +49,7 @@ public class MessageLog implements Comparable<MessageLog> {
 
 	public MessageLog(MessageInterface message, boolean received) {
 		this.message = message;
-		this.id = UUID.fromString(message.getUserDefinedParameter("X-messageID"));
+		this.id = message.getMessageID();
 		this.time = ZonedDateTime.now();
 		this.received = received;
 	}
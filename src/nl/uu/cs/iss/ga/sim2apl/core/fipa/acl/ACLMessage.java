@@ -228,13 +228,32 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 
 	private Properties userDefProps = null;
 
+	/**
+	 * The ID with which the sending agent stamped this message. Kept outside of the
+	 * user defined parameters, so stamping a message does not create any strings.
+	 */
+	private nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageID messageID = null;
+
 	private long postTimeStamp = -1;
 
 	// #CUSTOM_EXCLUDE_BEGIN
 	private nl.uu.cs.iss.ga.sim2apl.core.fipa.mts.Envelope messageEnvelope;
+
+	/**
+	 * The encoded message of which only the performative, sender and receivers are decoded yet, or null if all slots
+	 * are decoded. See {@link #decode(byte[])}.
+	 */
+	private volatile byte[] undecoded = null;
+
+	/**
+	 * The agents to which the envelope of a message that was decoded lazily is addressed, so the message can be routed
+	 * before its envelope is decoded, or null if the envelope is decoded. See {@link #getEnvelopeReceivers()}.
+	 */
+	private Set<AgentID> envelopeReceivers = null;
 	
 	public byte[] encode()
 	{
+		decodeSlots();
 		try {
 			ByteArrayOutputStream baos = new ByteArrayOutputStream();
 			DataOutputStream dos = new DataOutputStream(baos);
@@ -254,22 +273,118 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 		return new byte[0];
 	}
     
+	/**
+	 * Decode a message that was encoded by {@link #encode()}, or by {@link CompactACLCodec#encodeMessage(ACLMessage)}.
+	 */
 	public static ACLMessage decode(byte[] data)
 	{
 		try {
+			if (CompactACLCodec.isCompact(data)) {
+				return CompactACLCodec.decodeMessage(data);
+			}
+			ACLMessage lazy = decodeLazily(data);
+			if (lazy != null) {
+				return lazy;
+			}
 			DataInputStream din = new DataInputStream(new ByteArrayInputStream(data));
 			nl.uu.cs.iss.ga.sim2apl.core.fipa.mts.Envelope envelope = nl.uu.cs.iss.ga.sim2apl.core.fipa.mts.Envelope.decode(din); //(Envelope) ois.readObject();
 			ACLMessage result = LEAPACLCodec.deserializeACL(din);
 						
 			result.messageEnvelope = envelope;
 			return result;
-		} catch (IOException | URISyntaxException ex) { //| ClassNotFoundException ex) {
+		} catch (IOException | URISyntaxException | ACLCodec.CodecException ex) { //| ClassNotFoundException ex) {
 			// TODO err handling
             logger.log(ACLMessage.class, ex);
 		}
 		
 		return new ACLMessage(nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.Performative.UNKNOWN);
 	}
+
+	/**
+	 * Decode only the performative, sender, receivers and message ID of a message that was encoded by
+	 * {@link #encode()}, which is all that is needed to route and log it. The other slots and the envelope are decoded
+	 * from the kept bytes when one of them is first accessed, so a message that is only passed on is never fully
+	 * decoded.
+	 * 
+	 * @return The partially decoded message, or null if its envelope can only be decoded eagerly
+	 */
+	private static ACLMessage decodeLazily(byte[] data) throws IOException, URISyntaxException {
+		DataInputStream din = new DataInputStream(new ByteArrayInputStream(data));
+		Set<AgentID> envelopeReceivers = new java.util.LinkedHashSet<>();
+		if (!nl.uu.cs.iss.ga.sim2apl.core.fipa.mts.Envelope.skip(din, envelopeReceivers)) {
+			return null;
+		}
+		ACLMessage msg = new ACLMessage(data, din.readByte());
+		msg.envelopeReceivers = envelopeReceivers;
+
+		byte presence1 = din.readByte();
+		byte presence2 = din.readByte();
+
+		if ((presence1 & 0x80) != 0) {
+			msg.source = LEAPACLCodec.deserializeAID(din);
+		}
+		// Language, ontology, encoding, protocol, conversation-id, in-reply-to and reply-with
+		for (int flag = 0x40; flag != 0; flag >>= 1) {
+			if ((presence1 & flag) != 0) {
+				LEAPACLCodec.skipUTF(din);
+			}
+		}
+		if ((presence2 & 0x80) != 0) {
+			din.skipBytes(8);
+		}
+		if ((presence2 & 0x40) != 0) {
+			msg.messageID = new nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageID(din.readLong(), din.readLong());
+		}
+		int propsSize = presence2 & 0x3F;
+		for (int i = 0; i < 2 * propsSize; ++i) {
+			LEAPACLCodec.skipUTF(din);
+		}
+		while (din.readBoolean()) {
+			msg.dests.add(LEAPACLCodec.deserializeAID(din));
+		}
+		return msg;
+	}
+
+	/**
+	 * Decode the slots that were left encoded by {@link #decodeLazily(byte[])}, if any. Must be called before any of
+	 * them is read or written.
+	 */
+	private void decodeSlots() {
+		if (undecoded != null) {
+			decodeSlotsNow();
+		}
+	}
+
+	private synchronized void decodeSlotsNow() {
+		byte[] data = undecoded;
+		if (data == null) {
+			return;
+		}
+		try {
+			DataInputStream din = new DataInputStream(new ByteArrayInputStream(data));
+			nl.uu.cs.iss.ga.sim2apl.core.fipa.mts.Envelope envelope = nl.uu.cs.iss.ga.sim2apl.core.fipa.mts.Envelope.decode(din);
+			ACLMessage decoded = LEAPACLCodec.deserializeACL(din);
+			reply_to = decoded.reply_to;
+			content = decoded.content;
+			byteSequenceContent = decoded.byteSequenceContent;
+			reply_with = decoded.reply_with;
+			in_reply_to = decoded.in_reply_to;
+			encoding = decoded.encoding;
+			language = decoded.language;
+			ontology = decoded.ontology;
+			reply_byInMillisec = decoded.reply_byInMillisec;
+			protocol = decoded.protocol;
+			conversation_id = decoded.conversation_id;
+			userDefProps = decoded.userDefProps;
+			messageEnvelope = envelope;
+		} catch (IOException | URISyntaxException ex) {
+			// TODO err handling
+			logger.log(getClass(), ex);
+		} finally {
+			envelopeReceivers = null;
+			undecoded = null;
+		}
+	}
 	// #CUSTOM_EXCLUDE_END
 
 	/**
@@ -304,6 +419,14 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 		this(nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.Performative.values()[perfIndex]);
 	}
 
+	/**
+	 * Used by {@link #decodeLazily(byte[])}, which leaves the conversation-id to be decoded with the other slots.
+	 */
+	private ACLMessage(byte[] undecoded, int perfIndex) {
+		setPerformative(nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.Performative.values()[perfIndex]);
+		this.undecoded = undecoded;
+	}
+
 	/**
 	 * This constructor creates an ACL message object with the specified
 	 * performative. If the passed integer does not correspond to any of the known
@@ -387,6 +510,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 *            The value to add to the slot value set.
 	 */
 	public void addReplyTo(nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID dest) {
+		decodeSlots();
 		if (dest != null) {
 			// #MIDP_EXCLUDE_BEGIN
 			reply_to = (reply_to == null ? new HashSet<nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID>(REPLYTO_EXPECTED_SIZE) : reply_to);
@@ -409,6 +533,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @return true if the AID has been found and removed, false otherwise
 	 */
 	public boolean removeReplyTo(nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID dest) {
+		decodeSlots();
 		if ((dest != null) && (reply_to != null)) {
 			// #MIDP_EXCLUDE_BEGIN
 			return reply_to.remove(dest);
@@ -426,6 +551,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * checks are made to validate the slot value.</em>
 	 */
 	public void clearAllReplyTo() {
+		decodeSlots();
 		if (reply_to != null) {
 			// #MIDP_EXCLUDE_BEGIN
 			reply_to.clear();
@@ -477,6 +603,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#setContentObject(Serializable s)
 	 */
 	public void setContent(String content) {
+		decodeSlots();
 		byteSequenceContent = null;
 		if (content != null) {
 			this.content = new StringBuffer(content);
@@ -504,6 +631,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#setContentObject(Serializable s)
 	 */
 	public void setByteSequenceContent(byte[] byteSequenceContent) {
+		decodeSlots();
 		content = null;
 		this.byteSequenceContent = byteSequenceContent;
 	}
@@ -561,6 +689,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 *                when an error occurs during the decoding.
 	 */
 	public nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.FIPASendableObject getContentObject() throws nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.UnreadableException {
+		decodeSlots();
 		
 		byte[] data = getByteSequenceContent();
 		if (data == null)
@@ -584,6 +713,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#getReplyWith()
 	 */
 	public void setReplyWith(String reply) {
+		decodeSlots();
 		reply_with = reply;
 	}
 
@@ -596,6 +726,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#getInReplyTo()
 	 */
 	public void setInReplyTo(String reply) {
+		decodeSlots();
 		in_reply_to = reply;
 	}
 
@@ -608,6 +739,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#getEncoding()
 	 */
 	public void setEncoding(String str) {
+		decodeSlots();
 		encoding = str;
 	}
 
@@ -620,6 +752,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#getLanguage()
 	 */
 	public void setLanguage(String str) {
+		decodeSlots();
 		language = str;
 	}
 
@@ -632,6 +765,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#getOntology()
 	 */
 	public void setOntology(String str) {
+		decodeSlots();
 		ontology = str;
 	}
 
@@ -644,6 +778,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#getReplyByDate()
 	 */
 	public void setReplyByDate(Date date) {
+		decodeSlots();
 		reply_byInMillisec = (date == null ? 0 : date.getTime());
 	}
 
@@ -656,6 +791,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#getProtocol()
 	 */
 	public void setProtocol(String str) {
+		decodeSlots();
 		protocol = str;
 	}
 
@@ -668,6 +804,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#getConversationId()
 	 */
 	public void setConversationId(String str) {
+		decodeSlots();
 		conversation_id = str;
 	}
 
@@ -694,6 +831,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 *         agents for this message.
 	 */
 	public Iterator<nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID> getAllReplyTo() {
+		decodeSlots();
 		if (reply_to == null) {
 			return Collections.emptyIterator();
 		} else {
@@ -750,6 +888,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @return true if it is a byteSequence, false if it is a String
 	 */
 	public boolean hasByteSequenceContent() {
+		decodeSlots();
 		return (byteSequenceContent != null);
 	}
 
@@ -770,6 +909,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#getContentObject()
 	 */
 	public String getContent() {
+		decodeSlots();
 		if (content != null)
 			return new String(content);
 		else if (byteSequenceContent != null)
@@ -794,6 +934,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#getContentObject()
 	 */
 	public byte[] getByteSequenceContent() {
+		decodeSlots();
 		if (content != null)
 			return content.toString().getBytes();
 		else if (byteSequenceContent != null)
@@ -808,6 +949,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#setReplyWith(String).
 	 */
 	public String getReplyWith() {
+		decodeSlots();
 		return reply_with;
 	}
 
@@ -818,6 +960,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#setInReplyTo(String).
 	 */
 	public String getInReplyTo() {
+		decodeSlots();
 		return in_reply_to;
 	}
 
@@ -828,6 +971,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#setEncoding(String).
 	 */
 	public String getEncoding() {
+		decodeSlots();
 		return encoding;
 	}
 
@@ -838,6 +982,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#setLanguage(String).
 	 */
 	public String getLanguage() {
+		decodeSlots();
 		return language;
 	}
 
@@ -848,6 +993,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#setOntology(String).
 	 */
 	public String getOntology() {
+		decodeSlots();
 		return ontology;
 	}
 
@@ -862,6 +1008,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 */
 	@Deprecated
 	public String getReplyBy() {
+		decodeSlots();
 		if (reply_byInMillisec != 0)
 			return ISO8601.toString(new Date(reply_byInMillisec));
 		else
@@ -877,6 +1024,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#setReplyByDate(Date).
 	 */
 	public Date getReplyByDate() {
+		decodeSlots();
 		if (reply_byInMillisec != 0)
 			return new Date(reply_byInMillisec);
 		else
@@ -890,6 +1038,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#setProtocol(String).
 	 */
 	public String getProtocol() {
+		decodeSlots();
 		return protocol;
 	}
 
@@ -900,6 +1049,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl.ACLMessage#setConversationId(String).
 	 */
 	public String getConversationId() {
+		decodeSlots();
 		return conversation_id;
 	}
 
@@ -917,6 +1067,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 */
 	@Override
 	public void addUserDefinedParameter(String key, String value) {
+		decodeSlots();
 		userDefProps = (userDefProps == null ? new Properties() : userDefProps);
 		userDefProps.setProperty(key, value);
 	}
@@ -931,10 +1082,32 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 */
 	@Override
 	public String getUserDefinedParameter(String key) {
-		if (userDefProps == null)
-			return null;
-		else
-			return userDefProps.getProperty(key);
+		decodeSlots();
+		String value = userDefProps == null ? null : userDefProps.getProperty(key);
+		if (value == null && messageID != null && nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageID.PARAMETER_KEY.equals(key))
+			return messageID.toString();
+		return value;
+	}
+
+	/**
+	 * Stamp this message with the given message ID. The ID is stored directly in the
+	 * message instead of as a user defined parameter.
+	 * 
+	 * @param messageID
+	 *            the message ID
+	 */
+	@Override
+	public void setMessageID(nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageID messageID) {
+		this.messageID = messageID;
+	}
+
+	/**
+	 * Returns the ID this message was stamped with, or <code>null</code> if the
+	 * message has not been stamped
+	 */
+	@Override
+	public nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageID getMessageID() {
+		return messageID;
 	}
 
 	/**
@@ -942,6 +1115,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * object
 	 **/
 	public Properties getAllUserDefinedParameters() {
+		decodeSlots();
 		userDefProps = (userDefProps == null ? new Properties() : userDefProps);
 		return userDefProps;
 	}
@@ -951,6 +1125,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * Properties object.
 	 **/
 	public void setAllUserDefinedParameters(Properties userDefProps) {
+		decodeSlots();
 		this.userDefProps = userDefProps;
 	}
 
@@ -963,6 +1138,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @return true if the property has been found and removed, false otherwise
 	 */
 	public boolean removeUserDefinedParameter(String key) {
+		decodeSlots();
 		return (clearUserDefinedParameter(key) != null);
 	}
 
@@ -976,6 +1152,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 *         present
 	 */
 	public Object clearUserDefinedParameter(String key) {
+		decodeSlots();
 		if (userDefProps == null)
 			return null;
 		else
@@ -1001,6 +1178,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl#setDefaultEnvelope()
 	 */
 	public void setEnvelope(nl.uu.cs.iss.ga.sim2apl.core.fipa.mts.Envelope e) {
+		decodeSlots();
 		messageEnvelope = e;
 	}
 
@@ -1012,6 +1190,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl#getEnvelope()
 	 */
 	public void setDefaultEnvelope() {
+		decodeSlots();
 		messageEnvelope = new nl.uu.cs.iss.ga.sim2apl.core.fipa.mts.Envelope();
 		messageEnvelope.setFrom(source);
 		// #MIDP_EXCLUDE_BEGIN
@@ -1040,8 +1219,33 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @see jade.lang.acl#setDefaultEnvelope()
 	 */
 	public nl.uu.cs.iss.ga.sim2apl.core.fipa.mts.Envelope getEnvelope() {
+		decodeSlots();
 		return messageEnvelope;
 	}
+
+	/**
+	 * Reads the agents to which the envelope of this message is addressed: its intended receivers, or the receivers
+	 * in its 'to' slot if it has no intended receivers. The envelope of a message that was received and not accessed
+	 * yet is not decoded for this, so a messenger can route the message without decoding it.
+	 * 
+	 * @return The receivers of the envelope, which is empty if the message has no envelope or the envelope has no
+	 *         receivers
+	 */
+	public Collection<AgentID> getEnvelopeReceivers() {
+		Set<AgentID> receivers = envelopeReceivers;
+		if (receivers != null && undecoded != null) {
+			return Collections.unmodifiableSet(receivers);
+		}
+		nl.uu.cs.iss.ga.sim2apl.core.fipa.mts.Envelope envelope = getEnvelope();
+		if (envelope == null) {
+			return Collections.emptySet();
+		}
+		Set<AgentID> result = new java.util.LinkedHashSet<>();
+		Iterator<AgentID> it = envelope.getCountOfIntendedReceiver() > 0 ? envelope.getAllIntendedReceiver()
+				: envelope.getAllTo();
+		it.forEachRemaining(result::add);
+		return result;
+	}
 	// #CUSTOM_EXCLUDE_END
 
 	// #MIDP_EXCLUDE_BEGIN
@@ -1056,6 +1260,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 */
 	@Override
 	public String toString() {
+		decodeSlots();
 		return StringACLCodec.toString(this);
 	}
 	// #MIDP_EXCLUDE_END
@@ -1069,6 +1274,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	// #MIDP_EXCLUDE_BEGIN
 	@Override
 	public synchronized Object clone() {
+		decodeSlots();
 
 		ACLMessage result;
 
@@ -1139,6 +1345,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 *         original ACLMessage object
 	 */
 	public ACLMessage shallowClone() {
+		decodeSlots();
 		ACLMessage result = new ACLMessage(getPerformative());
 		result.source = source;
 		result.dests = dests;
@@ -1158,6 +1365,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 		result.conversation_id = conversation_id;
 
 		result.userDefProps = userDefProps;
+		result.messageID = messageID;
 
 		result.messageEnvelope = messageEnvelope;
 
@@ -1168,6 +1376,8 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * Resets all the message slots.
 	 */
 	public void reset() {
+		undecoded = null;
+		envelopeReceivers = null;
 		source = null;
 		// #MIDP_EXCLUDE_BEGIN
 		dests.clear();
@@ -1192,6 +1402,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 		if (userDefProps != null) {
 			userDefProps.clear();
 		}
+		messageID = null;
 
 		postTimeStamp = -1;
 	}
@@ -1255,6 +1466,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 * @return the ACLMessage to send as a reply
 	 */
 	public ACLMessage createReply(nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID sender, Performative perf) {
+		decodeSlots();
 		ACLMessage m = new ACLMessage(perf);
 		m.setSender(sender);
 		Iterator<nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID> it = getAllReplyTo();
@@ -1298,6 +1510,7 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 	 *         ":to" second and the message ":receiver" last.
 	 */
 	public Iterator<nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID> getAllIntendedReceiver() {
+		decodeSlots();
 		Iterator<nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID> it = null;
 		// #CUSTOM_EXCLUDE_BEGIN
 		Envelope env = getEnvelope();
@@ -1347,22 +1560,26 @@ public class ACLMessage implements Cloneable, Serializable, MessageInterface {
 
 	// For persistence service
 	public void setReplyTo(Collection<nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID> al) {
+		decodeSlots();
 		reply_to.clear();
 		reply_to.addAll(al);
 	}
 
 	// For persistence service
 	public Collection<AgentID> getReplyTo() {
+		decodeSlots();
 		return reply_to;
 	}
 
 	// For persistence service
 	protected void setUserDefinedProperties(Serializable p) {
+		decodeSlots();
 		userDefProps = (Properties) p;
 	}
 
 	// For persistence service
 	protected Serializable getUserDefinedProperties() {
+		decodeSlots();
 		return userDefProps;
 	}
 
@@ -0,0 +1,629 @@
+package nl.uu.cs.iss.ga.sim2apl.core.fipa.acl;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageID;
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.mts.Envelope;
+
+/**
+ * A compact binary codec for ACLMessages and their envelopes. Agent IDs and strings that occur more than once, such as
+ * the sender and receivers that are repeated in the envelope, or the ontology, language and protocol of a conversation,
+ * are written in full once and referred to by their index in a dictionary afterwards. Common FIPA languages, protocols
+ * and representations are in the dictionary from the start. Numbers and lengths are written as variable length
+ * integers, and messages are written into a buffer that is reused for the next message.
+ * <p>
+ * An instance keeps its dictionaries across messages, so it encodes or decodes a single ordered stream of messages,
+ * such as the messages sent over one connection: the decoder of the stream needs to decode the messages in the order
+ * in which the encoder encoded them. The static {@link #encodeMessage(ACLMessage)} and
+ * {@link #decodeMessage(byte[])} use a new dictionary for each message instead, so their messages can be decoded in any
+ * order by any platform. An instance is not thread safe.
+ * <p>
+ * Encoded messages start with two bytes that never start a message encoded by {@link ACLMessage#encode()}, so
+ * {@link ACLMessage#decode(byte[])} accepts messages in both representations. Envelopes with stamps, properties or a
+ * transport behaviour are written in the LEAP representation.
+ */
+public class CompactACLCodec implements ACLCodec {
+
+	public static final String NAME = "compact.acl.rep";
+
+	/**
+	 * The first two bytes of an encoded message. The first byte of the LEAP representation holds the presence flags of
+	 * the envelope, of which only the lowest three bits of the second byte are used.
+	 */
+	private static final byte MAGIC_1 = (byte) 0xFF;
+	private static final byte MAGIC_2 = (byte) 0xAC;
+
+	/** Flags of an encoded message */
+	private static final int FRESH_DICTIONARY = 0x01;
+	private static final int COMPACT_ENVELOPE = 0x02;
+	private static final int LEAP_ENVELOPE = 0x04;
+
+	/** Dictionary references of agent IDs that are not in the dictionary */
+	private static final int NEW_AID = 0;
+	private static final int INLINE_AID = 1;
+
+	/** New entries are not added to a full dictionary, so the dictionaries of a long stream stay bounded */
+	private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+	/** Strings that are in the dictionary before the first message */
+	private static final String[] PRESET_STRINGS = {
+			"fipa-sl", "fipa-sl0", "fipa-sl1", "fipa-sl2", "fipa-kif", "fipa-rdf0",
+			"fipa-request", "fipa-query", "fipa-request-when", "fipa-contract-net", "fipa-iterated-contract-net",
+			"fipa-english-auction", "fipa-dutch-auction", "fipa-brokering", "fipa-recruiting", "fipa-subscribe",
+			"fipa-propose", "fipa-agent-management", "FIPA-Agent-Management",
+			LEAPACLCodec.NAME, StringACLCodec.NAME, NAME, "US-ASCII", "UTF-8" };
+
+	private static final ThreadLocal<CompactACLCodec> MESSAGE_CODECS = ThreadLocal.withInitial(() -> new CompactACLCodec(false));
+
+	/** Whether the dictionaries are kept across messages */
+	private final boolean keepDictionary;
+
+	/** Encoder state: dictionary indices by string and by agent URI, and the reused buffer */
+	private final Map<String, Integer> stringIndices = new HashMap<>();
+	private final Map<String, Integer> agentIndices = new HashMap<>();
+	private final Output out = new Output();
+	private boolean encoderFresh = true;
+
+	/** Decoder state: dictionary entries, and the message that is decoded */
+	private final List<String> strings = new ArrayList<>();
+	private final List<URI> agents = new ArrayList<>();
+	private byte[] in;
+	private int position;
+
+	/**
+	 * Create a codec for a single ordered stream of messages
+	 */
+	public CompactACLCodec() {
+		this(true);
+	}
+
+	private CompactACLCodec(boolean keepDictionary) {
+		this.keepDictionary = keepDictionary;
+		resetEncoder();
+		resetDecoder();
+	}
+
+	/**
+	 * Encode a message with a new dictionary, which can be decoded by {@link #decodeMessage(byte[])} or
+	 * {@link ACLMessage#decode(byte[])}.
+	 *
+	 * @param msg The ACL message to encode
+	 * @return The encoded message
+	 */
+	public static byte[] encodeMessage(ACLMessage msg) {
+		return MESSAGE_CODECS.get().encode(msg, null);
+	}
+
+	/**
+	 * Decode a message that was encoded with a new dictionary.
+	 *
+	 * @param data The encoded message
+	 * @return The decoded message
+	 * @throws CodecException If the data is not a valid message, or refers to the dictionary of a stream
+	 */
+	public static ACLMessage decodeMessage(byte[] data) throws CodecException {
+		return MESSAGE_CODECS.get().decode(data, null);
+	}
+
+	/**
+	 * Check whether the data starts like a message encoded by this codec.
+	 *
+	 * @param data The encoded message
+	 * @return True if the message should be decoded by this codec
+	 */
+	public static boolean isCompact(byte[] data) {
+		return data.length >= 3 && data[0] == MAGIC_1 && data[1] == MAGIC_2;
+	}
+
+	/**
+	 * Forget the dictionaries of the stream. The next encoded message starts a new dictionary, which the decoder of the
+	 * stream starts as well when it decodes that message.
+	 */
+	public void reset() {
+		resetEncoder();
+		resetDecoder();
+	}
+
+	/**
+	 * Encodes an <code>ACLMessage</code> object and its envelope into a byte sequence.
+	 *
+	 * @param msg
+	 *            The ACL message to encode.
+	 * @param charset
+	 *            This parameter is not taken into account
+	 * @return a byte array, containing the encoded message.
+	 */
+	@Override
+	public byte[] encode(ACLMessage msg, String charset) {
+		if (!this.keepDictionary) {
+			resetEncoder();
+		}
+		try {
+			this.out.reset();
+			Envelope envelope = msg.getEnvelope();
+			int flags = this.encoderFresh ? FRESH_DICTIONARY : 0;
+			if (envelope != null) {
+				flags |= envelope.getStamps().length > 0 || envelope.getAllProperties().hasNext() || hasTransportBehaviour(envelope)
+						? LEAP_ENVELOPE : COMPACT_ENVELOPE;
+			}
+			this.out.write(MAGIC_1);
+			this.out.write(MAGIC_2);
+			this.out.write(flags);
+			if ((flags & COMPACT_ENVELOPE) != 0) {
+				writeEnvelope(envelope);
+			} else if ((flags & LEAP_ENVELOPE) != 0) {
+				envelope.encode(new DataOutputStream(this.out));
+			}
+			writeACL(msg);
+			this.encoderFresh = false;
+			return this.out.toByteArray();
+		} catch (IOException ex) {
+			// The stream may now be out of sync with its decoder, so the next message starts a new dictionary
+			resetEncoder();
+			ex.printStackTrace();
+		}
+		return new byte[0];
+	}
+
+	/**
+	 * Recovers an <code>ACLMessage</code> object and its envelope back from raw data.
+	 *
+	 * @param data
+	 *            The byte sequence containing the encoded message.
+	 * @param charset
+	 *            This parameter is not taken into account
+	 * @return A new <code>ACLMessage</code> object, built from the raw data.
+	 * @exception CodecException
+	 *                If some kind of syntax error occurs.
+	 */
+	@Override
+	public ACLMessage decode(byte[] data, String charset) throws CodecException {
+		if (!isCompact(data)) {
+			throw new CodecException(getName() + " ACLMessage decoding exception", new IOException("Not a " + NAME + " message"));
+		}
+		int flags = data[2];
+		if ((flags & FRESH_DICTIONARY) != 0) {
+			resetDecoder();
+		} else if (!this.keepDictionary) {
+			throw new CodecException(getName() + " ACLMessage decoding exception",
+					new IOException("The message refers to the dictionary of a stream"));
+		}
+		this.in = data;
+		this.position = 3;
+		try {
+			Envelope envelope = null;
+			if ((flags & COMPACT_ENVELOPE) != 0) {
+				envelope = readEnvelope();
+			} else if ((flags & LEAP_ENVELOPE) != 0) {
+				ByteArrayInputStream bais = new ByteArrayInputStream(data, this.position, data.length - this.position);
+				envelope = Envelope.decode(new DataInputStream(bais));
+				this.position = data.length - bais.available();
+			}
+			ACLMessage msg = readACL();
+			msg.setEnvelope(envelope);
+			return msg;
+		} catch (IOException | URISyntaxException | RuntimeException ex) {
+			throw new CodecException(getName() + " ACLMessage decoding exception", ex);
+		} finally {
+			this.in = null;
+		}
+	}
+
+	/**
+	 * Query the name of the message representation handled by this
+	 * <code>Codec</code> object.
+	 *
+	 * @return The name of the handled ACL message representation.
+	 */
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	private static boolean hasTransportBehaviour(Envelope envelope) {
+		Properties transportBehaviour = envelope.getTransportBehaviour();
+		return transportBehaviour != null && !transportBehaviour.isEmpty();
+	}
+
+	private void resetEncoder() {
+		this.stringIndices.clear();
+		this.agentIndices.clear();
+		for (String preset : PRESET_STRINGS) {
+			this.stringIndices.put(preset, this.stringIndices.size());
+		}
+		this.encoderFresh = true;
+	}
+
+	private void resetDecoder() {
+		this.strings.clear();
+		this.agents.clear();
+		this.strings.addAll(Arrays.asList(PRESET_STRINGS));
+	}
+
+	private void writeACL(ACLMessage msg) throws IOException {
+		this.out.write(msg.getPerformativeIndex());
+
+		AgentID sender = msg.getSender();
+		String language = msg.getLanguage();
+		String ontology = msg.getOntology();
+		String encoding = msg.getEncoding();
+		String protocol = msg.getProtocol();
+		String conversationId = msg.getConversationId();
+		String inReplyTo = msg.getInReplyTo();
+		String replyWith = msg.getReplyWith();
+		Date replyBy = msg.getReplyByDate();
+		MessageID messageID = msg.getMessageID();
+
+		int presence = 0;
+		presence |= sender == null ? 0 : 0x001;
+		presence |= language == null ? 0 : 0x002;
+		presence |= ontology == null ? 0 : 0x004;
+		presence |= encoding == null ? 0 : 0x008;
+		presence |= protocol == null ? 0 : 0x010;
+		presence |= conversationId == null ? 0 : 0x020;
+		presence |= inReplyTo == null ? 0 : 0x040;
+		presence |= replyWith == null ? 0 : 0x080;
+		presence |= replyBy == null ? 0 : 0x100;
+		presence |= messageID == null ? 0 : 0x200;
+		this.out.writeVarInt(presence);
+
+		if (sender != null) writeAID(sender);
+		if (language != null) writeString(language);
+		if (ontology != null) writeString(ontology);
+		if (encoding != null) writeString(encoding);
+		if (protocol != null) writeString(protocol);
+		if (conversationId != null) writeString(conversationId);
+		if (inReplyTo != null) writeString(inReplyTo);
+		if (replyWith != null) writeString(replyWith);
+		if (replyBy != null) this.out.writeLong(replyBy.getTime());
+		if (messageID != null) {
+			this.out.writeLong(messageID.getNode());
+			this.out.writeLong(messageID.getSequence());
+		}
+
+		writeProperties(msg.getAllUserDefinedParameters());
+		writeAIDs(msg.getReceiver());
+		List<AgentID> replyTo = new ArrayList<>();
+		msg.getAllReplyTo().forEachRemaining(replyTo::add);
+		writeAIDs(replyTo);
+
+		// Content
+		if (msg.hasByteSequenceContent()) {
+			this.out.write(2);
+			byte[] content = msg.getByteSequenceContent();
+			this.out.writeVarInt(content.length);
+			this.out.write(content, 0, content.length);
+		} else if (msg.getContent() != null) {
+			this.out.write(1);
+			this.out.writeUTF8(msg.getContent());
+		} else {
+			this.out.write(0);
+		}
+	}
+
+	private ACLMessage readACL() throws IOException, URISyntaxException {
+		ACLMessage msg = new ACLMessage(readByte());
+
+		int presence = readVarInt();
+		if ((presence & 0x001) != 0) msg.setSender(readAID());
+		if ((presence & 0x002) != 0) msg.setLanguage(readString());
+		if ((presence & 0x004) != 0) msg.setOntology(readString());
+		if ((presence & 0x008) != 0) msg.setEncoding(readString());
+		if ((presence & 0x010) != 0) msg.setProtocol(readString());
+		if ((presence & 0x020) != 0) msg.setConversationId(readString());
+		if ((presence & 0x040) != 0) msg.setInReplyTo(readString());
+		if ((presence & 0x080) != 0) msg.setReplyWith(readString());
+		if ((presence & 0x100) != 0) msg.setReplyByDate(new Date(readLong()));
+		if ((presence & 0x200) != 0) msg.setMessageID(new MessageID(readLong(), readLong()));
+
+		for (int i = readVarInt(); i > 0; i--) {
+			String key = readString();
+			msg.addUserDefinedParameter(key, readString());
+		}
+		for (int i = readVarInt(); i > 0; i--) {
+			msg.addReceiver(readAID());
+		}
+		for (int i = readVarInt(); i > 0; i--) {
+			msg.addReplyTo(readAID());
+		}
+
+		// Content
+		byte type = readByte();
+		if (type == 2) {
+			int length = readVarInt();
+			checkAvailable(length);
+			msg.setByteSequenceContent(Arrays.copyOfRange(this.in, this.position, this.position + length));
+			this.position += length;
+		} else if (type == 1) {
+			msg.setContent(readUTF8());
+		}
+		return msg;
+	}
+
+	private void writeEnvelope(Envelope envelope) throws IOException {
+		AgentID from = envelope.getFrom();
+		String comments = envelope.getComments();
+		String aclRepresentation = envelope.getAclRepresentation();
+		Long payloadLength = envelope.getPayloadLength();
+		String payloadEncoding = envelope.getPayloadEncoding();
+		Date date = envelope.getDate();
+
+		int presence = 0;
+		presence |= from == null ? 0 : 0x01;
+		presence |= comments == null ? 0 : 0x02;
+		presence |= aclRepresentation == null ? 0 : 0x04;
+		presence |= payloadLength == null ? 0 : 0x08;
+		presence |= payloadEncoding == null ? 0 : 0x10;
+		presence |= date == null ? 0 : 0x20;
+		this.out.write(presence);
+
+		writeAIDs(envelope.getAllTo(), envelope.getCountOfTo());
+		if (from != null) writeAID(from);
+		if (comments != null) writeString(comments);
+		if (aclRepresentation != null) writeString(aclRepresentation);
+		if (payloadLength != null) this.out.writeLong(payloadLength);
+		if (payloadEncoding != null) writeString(payloadEncoding);
+		if (date != null) this.out.writeLong(date.getTime());
+		writeAIDs(envelope.getAllIntendedReceiver(), envelope.getCountOfIntendedReceiver());
+	}
+
+	private Envelope readEnvelope() throws IOException, URISyntaxException {
+		Envelope envelope = new Envelope();
+		int presence = readByte();
+
+		for (int i = readVarInt(); i > 0; i--) {
+			envelope.addTo(readAID());
+		}
+		if ((presence & 0x01) != 0) envelope.setFrom(readAID());
+		if ((presence & 0x02) != 0) envelope.setComments(readString());
+		if ((presence & 0x04) != 0) envelope.setAclRepresentation(readString());
+		if ((presence & 0x08) != 0) envelope.setPayloadLength(readLong());
+		if ((presence & 0x10) != 0) envelope.setPayloadEncoding(readString());
+		if ((presence & 0x20) != 0) envelope.setDate(new Date(readLong()));
+		for (int i = readVarInt(); i > 0; i--) {
+			envelope.addIntendedReceiver(readAID());
+		}
+		return envelope;
+	}
+
+	private void writeAIDs(Collection<AgentID> ids) throws IOException {
+		writeAIDs(ids.iterator(), ids.size());
+	}
+
+	private void writeAIDs(Iterator<AgentID> ids, int count) throws IOException {
+		this.out.writeVarInt(count);
+		while (ids.hasNext()) {
+			writeAID(ids.next());
+		}
+	}
+
+	/**
+	 * Agent IDs with only a name are kept in the dictionary by their name. Agent IDs with addresses, resolvers or user
+	 * defined slots are written in full every time, as agent IDs are equal when only their names are.
+	 */
+	private void writeAID(AgentID id) throws IOException {
+		URI name = id.getName();
+		if (name == null || !id.getAddresses().isEmpty() || !id.getResolvers().isEmpty() || !id.getUserDefSlots().isEmpty()) {
+			this.out.writeVarInt(INLINE_AID);
+			writeInlineAID(id);
+			return;
+		}
+		String uri = name.toString();
+		Integer index = this.agentIndices.get(uri);
+		if (index != null) {
+			this.out.writeVarInt(index + 2);
+		} else {
+			this.out.writeVarInt(NEW_AID);
+			this.out.writeUTF8(uri);
+			if (this.agentIndices.size() < MAX_DICTIONARY_SIZE) {
+				this.agentIndices.put(uri, this.agentIndices.size());
+			}
+		}
+	}
+
+	private AgentID readAID() throws IOException, URISyntaxException {
+		int reference = readVarInt();
+		if (reference == INLINE_AID) {
+			return readInlineAID();
+		}
+		URI name;
+		if (reference == NEW_AID) {
+			name = new URI(readUTF8());
+			if (this.agents.size() < MAX_DICTIONARY_SIZE) {
+				this.agents.add(name);
+			}
+		} else if (reference - 2 < this.agents.size()) {
+			name = this.agents.get(reference - 2);
+		} else {
+			throw new IOException("Unknown agent ID reference " + reference);
+		}
+		// Agent IDs are mutable, so every message gets its own instances
+		return new AgentID(name);
+	}
+
+	private void writeInlineAID(AgentID id) throws IOException {
+		this.out.write(id.getName() == null ? 0 : 1);
+		if (id.getName() != null) {
+			this.out.writeUTF8(id.getName().toString());
+		}
+		this.out.writeVarInt(id.getAddresses().size());
+		for (URL address : id.getAddresses()) {
+			writeString(address.toString());
+		}
+		writeAIDs(id.getResolvers());
+		writeProperties(id.getUserDefSlots());
+	}
+
+	private AgentID readInlineAID() throws IOException, URISyntaxException {
+		AgentID id = readByte() != 0 ? new AgentID(new URI(readUTF8())) : AgentID.createEmpty();
+		for (int i = readVarInt(); i > 0; i--) {
+			id.addAddress(readString());
+		}
+		for (int i = readVarInt(); i > 0; i--) {
+			id.addResolver(readAID());
+		}
+		for (int i = readVarInt(); i > 0; i--) {
+			String key = readString();
+			id.addUserDefinedSlot(key, readString());
+		}
+		return id;
+	}
+
+	private void writeProperties(Properties props) throws IOException {
+		this.out.writeVarInt(props.size());
+		Enumeration<Object> keys = props.keys();
+		while (keys.hasMoreElements()) {
+			String key = (String) keys.nextElement();
+			writeString(key);
+			writeString(props.getProperty(key));
+		}
+	}
+
+	/** A string is written as 0 followed by the string, or as its index in the dictionary plus one */
+	private void writeString(String s) throws IOException {
+		Integer index = this.stringIndices.get(s);
+		if (index != null) {
+			this.out.writeVarInt(index + 1);
+		} else {
+			this.out.writeVarInt(0);
+			this.out.writeUTF8(s);
+			if (this.stringIndices.size() < MAX_DICTIONARY_SIZE) {
+				this.stringIndices.put(s, this.stringIndices.size());
+			}
+		}
+	}
+
+	private String readString() throws IOException {
+		int reference = readVarInt();
+		if (reference == 0) {
+			String s = readUTF8();
+			if (this.strings.size() < MAX_DICTIONARY_SIZE) {
+				this.strings.add(s);
+			}
+			return s;
+		} else if (reference - 1 < this.strings.size()) {
+			return this.strings.get(reference - 1);
+		}
+		throw new IOException("Unknown string reference " + reference);
+	}
+
+	private byte readByte() throws IOException {
+		checkAvailable(1);
+		return this.in[this.position++];
+	}
+
+	private int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			byte b = readByte();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+
+	private long readLong() throws IOException {
+		checkAvailable(8);
+		long value = 0;
+		for (int i = 0; i < 8; i++) {
+			value = (value << 8) | (this.in[this.position++] & 0xFF);
+		}
+		return value;
+	}
+
+	private String readUTF8() throws IOException {
+		int length = readVarInt();
+		checkAvailable(length);
+		String s = new String(this.in, this.position, length, StandardCharsets.UTF_8);
+		this.position += length;
+		return s;
+	}
+
+	private void checkAvailable(int length) throws IOException {
+		if (length < 0 || length > this.in.length - this.position) {
+			throw new IOException("Unexpected end of message");
+		}
+	}
+
+	/** A growable buffer that is reused for every message of its codec */
+	private static final class Output extends OutputStream {
+		/** Buffers that grew beyond this size are not kept for the next message */
+		private static final int MAX_RETAINED_SIZE = 1 << 20;
+
+		private byte[] buffer = new byte[512];
+		private int size;
+
+		void reset() {
+			if (this.buffer.length > MAX_RETAINED_SIZE) {
+				this.buffer = new byte[512];
+			}
+			this.size = 0;
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(this.buffer, this.size);
+		}
+
+		private void ensureCapacity(int extra) {
+			if (this.size + extra > this.buffer.length) {
+				this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + extra));
+			}
+		}
+
+		@Override
+		public void write(int b) {
+			ensureCapacity(1);
+			this.buffer[this.size++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			ensureCapacity(len);
+			System.arraycopy(b, off, this.buffer, this.size, len);
+			this.size += len;
+		}
+
+		void writeVarInt(int value) {
+			ensureCapacity(5);
+			while ((value & ~0x7F) != 0) {
+				this.buffer[this.size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			this.buffer[this.size++] = (byte) value;
+		}
+
+		void writeLong(long value) {
+			ensureCapacity(8);
+			for (int shift = 56; shift >= 0; shift -= 8) {
+				this.buffer[this.size++] = (byte) (value >>> shift);
+			}
+		}
+
+		void writeUTF8(String s) {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(bytes.length);
+			write(bytes, 0, bytes.length);
+		}
+	}
+}
@@ -0,0 +1,471 @@
+package nl.uu.cs.iss.ga.sim2apl.core.fipa.acl;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+
+/**
+ * A hand-written parser for the common subset of the FIPA string representation of ACL messages, used by
+ * {@link StringACLCodec} before it falls back to the generated {@link ACLParser}. The message is parsed in a single pass
+ * over the encoded bytes, and only the values of the message are turned into objects.
+ * <p>
+ * The parser accepts messages in a charset in which every ASCII character is a single byte, with the slots that
+ * {@link ACLParser} accepts, except for resolvers of agent identifiers. Values are words, string literals, integers and
+ * nested expressions of these. Whenever the input is outside this subset, including input that is not a valid message
+ * at all, {@link #parse(byte[], String)} returns null and the message is parsed by {@link ACLParser}, which also
+ * reports syntax errors. A message that is accepted results in the same message as {@link ACLParser} would produce,
+ * including the way {@link ACLParser} unescapes quotes in string literals.
+ */
+final class FastACLParser {
+
+	/**
+	 * Thrown when the input is outside the subset of this parser. A single instance without stack trace is used, as it
+	 * only signals that {@link ACLParser} should parse the message instead.
+	 */
+	private static final class Unsupported extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		private Unsupported() {
+			super(null, null, false, false);
+		}
+	}
+
+	private static final Unsupported UNSUPPORTED = new Unsupported();
+
+	/** The host of an empty agent ID, which {@link AgentID#setName(String)} keeps when it sets the name */
+	private static final String EMPTY_AID_HOST = emptyAIDHost();
+
+	private final byte[] data;
+	private final Charset charset;
+	private int position;
+
+	private FastACLParser(byte[] data, Charset charset) {
+		this.data = data;
+		this.charset = charset;
+	}
+
+	/**
+	 * Parse a message in the string representation.
+	 *
+	 * @param data
+	 *            The encoded message
+	 * @param charsetName
+	 *            The charset of the encoded message
+	 * @return The message, or null if the message should be parsed by {@link ACLParser}
+	 */
+	static ACLMessage parse(byte[] data, String charsetName) {
+		Charset charset = asciiCompatible(charsetName);
+		if (charset == null || EMPTY_AID_HOST == null) {
+			return null;
+		}
+		try {
+			return new FastACLParser(data, charset).message();
+		} catch (Unsupported | URISyntaxException | MalformedURLException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static Charset asciiCompatible(String charsetName) {
+		if (charsetName == null) {
+			return null;
+		}
+		try {
+			Charset charset = Charset.forName(charsetName);
+			if (charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1)
+					|| charset.equals(StandardCharsets.UTF_8)) {
+				return charset;
+			}
+		} catch (IllegalArgumentException e) {
+			// Unknown charsets are reported by the fallback
+		}
+		return null;
+	}
+
+	private static String emptyAIDHost() {
+		try {
+			return AgentID.createEmpty().getHost();
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+
+	private ACLMessage message() throws Unsupported, URISyntaxException, MalformedURLException {
+		skipWhitespace();
+		expect('(');
+		int start = this.position;
+		while (this.position < this.data.length && isLetter(this.data[this.position])) {
+			this.position++;
+		}
+		if (this.position == start || this.position == this.data.length) {
+			throw UNSUPPORTED;
+		}
+		byte next = this.data[this.position];
+		if (!isWhitespace(next) && next != ':' && next != ')') {
+			throw UNSUPPORTED;
+		}
+		Performative performative = Performative.valueOf(ascii(start, this.position));
+
+		ACLMessage msg = new ACLMessage(Performative.NOT_UNDERSTOOD);
+		msg.reset();
+		msg.setPerformative(performative);
+
+		while (true) {
+			skipWhitespace();
+			if (peek() == ')') {
+				this.position++;
+				return msg;
+			}
+			expect(':');
+			String slot = slotName();
+			if (isUserDefined(slot)) {
+				msg.addUserDefinedParameter(slot.substring(2), expression());
+			} else if (slot.equalsIgnoreCase("sender")) {
+				msg.setSender(agentIdentifier());
+			} else if (slot.equalsIgnoreCase("receiver")) {
+				msg.clearAllReceiver();
+				set(msg::addReceiver);
+			} else if (slot.equalsIgnoreCase("reply-to")) {
+				msg.clearAllReplyTo();
+				set(msg::addReplyTo);
+			} else if (slot.equalsIgnoreCase("content")) {
+				msg.setContent(content());
+			} else if (slot.equalsIgnoreCase("reply-with")) {
+				msg.setReplyWith(expression());
+			} else if (slot.equalsIgnoreCase("in-reply-to")) {
+				msg.setInReplyTo(expression());
+			} else if (slot.equalsIgnoreCase("encoding")) {
+				msg.setEncoding(expression());
+			} else if (slot.equalsIgnoreCase("language")) {
+				msg.setLanguage(expression());
+			} else if (slot.equalsIgnoreCase("ontology")) {
+				msg.setOntology(expression());
+			} else if (slot.equalsIgnoreCase("protocol")) {
+				msg.setProtocol(word());
+			} else if (slot.equalsIgnoreCase("conversation-id")) {
+				msg.setConversationId(expression());
+			} else if (slot.equalsIgnoreCase("reply-by")) {
+				String dateTime = dateTime();
+				try {
+					msg.setReplyByDate(ISO8601.toDate(dateTime));
+				} catch (Exception e) {
+					// Ignored, like ACLParser does
+				}
+			} else {
+				throw UNSUPPORTED;
+			}
+			expectDelimiter();
+		}
+	}
+
+	private void set(Consumer<AgentID> receivers) throws Unsupported, URISyntaxException, MalformedURLException {
+		skipWhitespace();
+		expect('(');
+		if (!keyword("set")) {
+			throw UNSUPPORTED;
+		}
+		while (true) {
+			skipWhitespace();
+			byte next = peek();
+			if (next == ')') {
+				this.position++;
+				return;
+			} else if (next != '(') {
+				throw UNSUPPORTED;
+			}
+			receivers.accept(agentIdentifier());
+		}
+	}
+
+	private AgentID agentIdentifier() throws Unsupported, URISyntaxException, MalformedURLException {
+		skipWhitespace();
+		expect('(');
+		if (!keyword("agent-identifier") || !isWhitespace(peek())) {
+			throw UNSUPPORTED;
+		}
+		String name = null;
+		List<String> addresses = null;
+		List<String> slots = null;
+		boolean empty = true;
+		while (true) {
+			skipWhitespace();
+			if (peek() == ')') {
+				if (empty) {
+					throw UNSUPPORTED;
+				}
+				this.position++;
+				break;
+			}
+			expect(':');
+			String slot = slotName();
+			if (isUserDefined(slot)) {
+				if (slots == null) {
+					slots = new ArrayList<>();
+				}
+				slots.add(slot.substring(2));
+				slots.add(expression());
+			} else if (slot.equalsIgnoreCase("name") && name == null) {
+				name = content();
+			} else if (slot.equalsIgnoreCase("addresses")) {
+				if (addresses == null) {
+					addresses = new ArrayList<>();
+				}
+				sequence(addresses);
+			} else {
+				// Resolvers, and names that are set more than once
+				throw UNSUPPORTED;
+			}
+			expectDelimiter();
+			empty = false;
+		}
+
+		// The same agent ID as AgentID.createEmpty() followed by setName(name), without generating a random name first
+		AgentID aid = name == null ? AgentID.createEmpty()
+				: new AgentID(new URI(null, name, EMPTY_AID_HOST, -1, null, null, null));
+		if (addresses != null) {
+			for (String address : addresses) {
+				aid.addAddress(address);
+			}
+		}
+		if (slots != null) {
+			for (int i = 0; i < slots.size(); i += 2) {
+				aid.addUserDefinedSlot(slots.get(i), slots.get(i + 1));
+			}
+		}
+		return aid;
+	}
+
+	private void sequence(List<String> words) throws Unsupported {
+		skipWhitespace();
+		expect('(');
+		if (!keyword("sequence")) {
+			throw UNSUPPORTED;
+		}
+		while (true) {
+			skipWhitespace();
+			if (peek() == ')') {
+				this.position++;
+				return;
+			}
+			words.add(word());
+			expectDelimiter();
+		}
+	}
+
+	/** The value of a slot that accepts words, string literals, integers and nested expressions */
+	private String expression() throws Unsupported {
+		skipWhitespace();
+		byte next = peek();
+		if (next == '"') {
+			return stringLiteral();
+		} else if (next == '(') {
+			this.position++;
+			StringBuilder expression = new StringBuilder("(");
+			while (true) {
+				skipWhitespace();
+				if (peek() == ')') {
+					this.position++;
+					return expression.append(')').toString();
+				}
+				expression.append(expression()).append(' ');
+				expectDelimiter();
+			}
+		} else if (isDigit(next) || ((next == '-' || next == '+') && this.position + 1 < this.data.length
+				&& isDigit(this.data[this.position + 1]))) {
+			int start = this.position++;
+			while (this.position < this.data.length && isDigit(this.data[this.position])) {
+				this.position++;
+			}
+			expectDelimiter();
+			return ascii(start, this.position);
+		}
+		return word();
+	}
+
+	/** The value of the content and name slots, which is a word or a string literal */
+	private String content() throws Unsupported {
+		skipWhitespace();
+		return peek() == '"' ? stringLiteral() : word();
+	}
+
+	/**
+	 * A word as defined by FIPA, except for words that {@link ACLParser} might read as a number, or that contain quotes
+	 * or backslashes, which it unescapes
+	 */
+	private String word() throws Unsupported {
+		skipWhitespace();
+		int start = this.position;
+		if (!isWordStart(peek())) {
+			throw UNSUPPORTED;
+		}
+		while (this.position < this.data.length && isWordPart(this.data[this.position])) {
+			this.position++;
+		}
+		return ascii(start, this.position);
+	}
+
+	/**
+	 * A string literal. {@link ACLParser} reads a string literal up to the first quote that does not follow a
+	 * backslash, or up to the last quote that follows a backslash when there is no such quote. Only the first case is
+	 * supported here. Within the string literal, only quotes that follow a backslash are unescaped.
+	 */
+	private String stringLiteral() throws Unsupported {
+		int start = ++this.position;
+		int end = start;
+		boolean escaped = false;
+		while (true) {
+			if (end == this.data.length) {
+				throw UNSUPPORTED;
+			}
+			byte b = this.data[end];
+			if (b == '"') {
+				if (this.data[end - 1] != '\\') {
+					break;
+				}
+				escaped = true;
+			}
+			end++;
+		}
+		this.position = end + 1;
+		if (!escaped) {
+			return new String(this.data, start, end - start, this.charset);
+		}
+
+		// The same unescaping as ACLParser, on bytes instead of characters, as quotes and backslashes are single bytes
+		byte[] unescaped = new byte[end - start];
+		int length = 0;
+		int i;
+		for (i = start; i < end - 1; i++) {
+			if (this.data[i] == '\\' && this.data[i + 1] == '"') {
+				unescaped[length++] = '"';
+				i++;
+			} else {
+				unescaped[length++] = this.data[i];
+			}
+		}
+		if (i < end) {
+			unescaped[length++] = this.data[end - 1];
+		}
+		return new String(unescaped, 0, length, this.charset);
+	}
+
+	/** A date and time as written by {@link ISO8601}, with an optional type designator */
+	private String dateTime() throws Unsupported {
+		skipWhitespace();
+		int start = this.position;
+		for (int i = 0; i < 18; i++) {
+			byte b = peek();
+			if (i == 8 ? b != 'T' : !isDigit(b)) {
+				throw UNSUPPORTED;
+			}
+			this.position++;
+		}
+		if (this.position < this.data.length && isLetter(this.data[this.position])) {
+			this.position++;
+		}
+		return ascii(start, this.position);
+	}
+
+	/** The name of a slot, after its colon */
+	private String slotName() throws Unsupported {
+		int start = this.position;
+		while (this.position < this.data.length && isSlotNamePart(this.data[this.position])) {
+			this.position++;
+		}
+		if (this.position == start || !isWhitespace(peek())) {
+			throw UNSUPPORTED;
+		}
+		return ascii(start, this.position);
+	}
+
+	private static boolean isUserDefined(String slot) {
+		return slot.length() > 2 && (slot.charAt(0) == 'X' || slot.charAt(0) == 'x') && slot.charAt(1) == '-';
+	}
+
+	/** Read a keyword, ignoring case, which ends before whitespace or a parenthesis */
+	private boolean keyword(String keyword) {
+		int length = keyword.length();
+		if (this.position + length > this.data.length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			int b = this.data[this.position + i];
+			if (b >= 'A' && b <= 'Z') {
+				b += 'a' - 'A';
+			}
+			if (b != keyword.charAt(i)) {
+				return false;
+			}
+		}
+		if (this.position + length < this.data.length) {
+			byte next = this.data[this.position + length];
+			if (!isWhitespace(next) && next != '(' && next != ')') {
+				return false;
+			}
+		}
+		this.position += length;
+		return true;
+	}
+
+	/** Values need to be followed by whitespace or a closing parenthesis */
+	private void expectDelimiter() throws Unsupported {
+		byte next = peek();
+		if (!isWhitespace(next) && next != ')') {
+			throw UNSUPPORTED;
+		}
+	}
+
+	private void expect(char c) throws Unsupported {
+		if (peek() != c) {
+			throw UNSUPPORTED;
+		}
+		this.position++;
+	}
+
+	private byte peek() throws Unsupported {
+		if (this.position >= this.data.length) {
+			throw UNSUPPORTED;
+		}
+		return this.data[this.position];
+	}
+
+	private void skipWhitespace() {
+		while (this.position < this.data.length && isWhitespace(this.data[this.position])) {
+			this.position++;
+		}
+	}
+
+	private String ascii(int start, int end) {
+		return new String(this.data, start, end - start, StandardCharsets.ISO_8859_1);
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+
+	private static boolean isLetter(byte b) {
+		return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	private static boolean isSlotNamePart(byte b) {
+		return isLetter(b) || isDigit(b) || b == '-' || b == '_' || b == '.';
+	}
+
+	private static boolean isWordStart(byte b) {
+		return isWordPart(b) && !isDigit(b) && b != '#' && b != '-' && b != '+' && b != '.';
+	}
+
+	private static boolean isWordPart(byte b) {
+		return b > 0x20 && b < 0x7F && b != '(' && b != ')' && b != '"' && b != '\\';
+	}
+}
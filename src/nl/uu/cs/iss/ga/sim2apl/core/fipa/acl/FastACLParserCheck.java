@@ -0,0 +1,191 @@
+package nl.uu.cs.iss.ga.sim2apl.core.fipa.acl;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+
+/**
+ * Checks that {@link FastACLParser} produces the same messages as {@link ACLParser}, and compares their speed.
+ * Messages are generated from random slots and values, and a third of them is mutated by deleting, inserting or
+ * replacing a few characters. Each message is parsed by both parsers in each supported charset. Every message that
+ * {@link FastACLParser} accepts must equal the message that {@link ACLParser} produces from the same input.
+ * <p>
+ * Run with <code>java nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.FastACLParserCheck [messages] [seed]</code>. The process
+ * exits with status 1 if the parsers differ.
+ */
+final class FastACLParserCheck {
+
+	private static final String[] CHARSETS = { "US-ASCII", "ISO-8859-1", "UTF-8" };
+	private static final String[] PERFORMATIVES = { "INFORM", "REQUEST", "CFP", "inform", "AGREE", "QUERY_IF" };
+	private static final String[] SLOTS = { ":language", ":ontology", ":encoding", ":conversation-id", ":reply-with",
+			":in-reply-to", ":protocol", ":content", ":X-k", ":x-Key.2", ":reply-by", ":X-foo" };
+	private static final String[] VALUES = { "a", "fipa-sl", "x@h", "\"str\"", "\"a b\"", "\"q\\\"x\"", "\"a\\\\\"",
+			"12", "-3", "+4", "1.5", "(a b)", "(a (b \"c\") 7)", "()", "@x", ":x", "\u00e9", "\"\u00e9\"",
+			"http://h:1/acc", "#3\"abc", "a\"b", "20201019T101010000Z", "\"\"", "x.y" };
+	private static final String[] NAMES = { "a", "b@h", "\"c d\"", "x" };
+	private static final String[] WHITESPACE = { " ", "  ", "\n", "\t", " \r\n" };
+	private static final String MUTATIONS = "()\" \\:#-+09aZ.@\u00e9\t";
+
+	/** A typical request, used to compare the speed of the parsers */
+	private static final String REQUEST = "(REQUEST :sender (agent-identifier :name buyer@platform :addresses "
+			+ "(sequence http://host:7778/acc)) :receiver (set (agent-identifier :name seller@platform)) :content "
+			+ "\"((action (agent-identifier :name seller@platform) (sell book)))\" :language fipa-sl :ontology "
+			+ "book-trading :protocol fipa-request :conversation-id c-42 :reply-with r17 :X-trace abc)";
+
+	private final Random random;
+
+	private FastACLParserCheck(long seed) {
+		this.random = new Random(seed);
+	}
+
+	public static void main(String[] args) throws Exception {
+		int nMessages = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+		// ACLParser reports every message it rejects
+		Logger.getLogger("").setLevel(Level.OFF);
+
+		boolean identical = true;
+		for (String charset : CHARSETS) {
+			identical &= new FastACLParserCheck(seed).compare(nMessages, charset);
+		}
+		time(REQUEST.getBytes(StandardCharsets.UTF_8), "UTF-8");
+		if (!identical) System.exit(1);
+	}
+
+	/** Parse generated messages with both parsers, and report the messages for which they differ */
+	private boolean compare(int nMessages, String charset) throws Exception {
+		int accepted = 0, differences = 0;
+		for (int i = 0; i < nMessages; i++) {
+			String message = this.random.nextInt(3) == 0 ? mutate(message()) : message();
+			byte[] data = message.getBytes(charset);
+			ACLMessage fast = FastACLParser.parse(data, charset);
+			if (fast == null) continue;
+			accepted++;
+			String expected;
+			try {
+				expected = describe(ACLParser.create().parse(new InputStreamReader(new ByteArrayInputStream(data), charset)));
+			} catch (Exception | TokenMgrError e) {
+				expected = "rejected: " + e;
+			}
+			String actual = describe(fast);
+			if (!actual.equals(expected)) {
+				if (differences++ < 10) {
+					System.out.println("DIFFERENT " + message.replace("\n", "\\n") + "\n  FastACLParser: " + actual
+							+ "\n  ACLParser:     " + expected);
+				}
+			}
+		}
+		System.out.println(String.format("%s: %d messages, %d accepted by FastACLParser, %d different", charset,
+				nMessages, accepted, differences));
+		return differences == 0;
+	}
+
+	/** Compare the time it takes both parsers to parse the same message */
+	private static void time(byte[] data, String charset) throws Exception {
+		int n = 50_000;
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < n; i++) FastACLParser.parse(data, charset);
+			long fast = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int i = 0; i < n; i++) ACLParser.create().parse(new InputStreamReader(new ByteArrayInputStream(data), charset));
+			long generated = System.nanoTime() - start;
+			System.out.println(String.format("FastACLParser %6d ns/message, ACLParser %6d ns/message", fast / n, generated / n));
+		}
+	}
+
+	private String message() {
+		StringBuilder b = new StringBuilder();
+		if (this.random.nextBoolean()) b.append(pick(WHITESPACE));
+		b.append('(').append(pick(PERFORMATIVES));
+		for (int i = this.random.nextInt(8); i > 0; i--) {
+			b.append(pick(WHITESPACE));
+			int slot = this.random.nextInt(10);
+			if (slot == 0) {
+				b.append(":sender ").append(agentIdentifier());
+			} else if (slot == 1) {
+				b.append(":receiver (set");
+				for (int j = this.random.nextInt(3); j > 0; j--) b.append(' ').append(agentIdentifier());
+				b.append(')');
+			} else if (slot == 2) {
+				b.append(":reply-to (set ").append(agentIdentifier()).append(')');
+			} else {
+				b.append(pick(SLOTS)).append(pick(WHITESPACE)).append(pick(VALUES));
+			}
+		}
+		if (this.random.nextInt(5) > 0) b.append(pick(WHITESPACE));
+		return b.append(')').toString();
+	}
+
+	private String agentIdentifier() {
+		StringBuilder b = new StringBuilder("(agent-identifier");
+		for (int i = this.random.nextInt(4); i >= 0; i--) {
+			int slot = this.random.nextInt(5);
+			if (slot < 2) {
+				b.append(" :name ").append(pick(NAMES));
+			} else if (slot == 2) {
+				b.append(" :addresses (sequence http://h:1/acc http://x:2/a)");
+			} else if (slot == 3) {
+				b.append(" :X-s ").append(pick(VALUES));
+			} else {
+				b.append(" :resolvers (sequence (agent-identifier :name r))");
+			}
+		}
+		return b.append(')').toString();
+	}
+
+	private String mutate(String message) {
+		StringBuilder b = new StringBuilder(message);
+		for (int i = 1 + this.random.nextInt(3); i > 0 && b.length() > 0; i--) {
+			int position = this.random.nextInt(b.length());
+			char c = MUTATIONS.charAt(this.random.nextInt(MUTATIONS.length()));
+			switch (this.random.nextInt(3)) {
+			case 0:
+				b.deleteCharAt(position);
+				break;
+			case 1:
+				b.insert(position, c);
+				break;
+			default:
+				b.setCharAt(position, c);
+			}
+		}
+		return b.toString();
+	}
+
+	private String pick(String[] options) {
+		return options[this.random.nextInt(options.length)];
+	}
+
+	/** Describe all slots of a message, with its agent identifiers and parameters in a fixed order */
+	private static String describe(ACLMessage message) {
+		List<String> receivers = new ArrayList<>();
+		for (AgentID id : message.getReceiver()) receivers.add(describe(id));
+		Collections.sort(receivers);
+		List<String> replyTo = new ArrayList<>();
+		message.getAllReplyTo().forEachRemaining(id -> replyTo.add(describe(id)));
+		Collections.sort(replyTo);
+		return message.getPerformative() + "|" + (message.getSender() == null ? null : describe(message.getSender()))
+				+ "|" + receivers + "|" + replyTo + "|" + message.getContent() + "|" + message.getLanguage() + "|"
+				+ message.getOntology() + "|" + message.getEncoding() + "|" + message.getProtocol() + "|"
+				+ message.getConversationId() + "|" + message.getReplyWith() + "|" + message.getInReplyTo() + "|"
+				+ message.getReplyByDate() + "|" + new TreeMap<>(message.getAllUserDefinedParameters()) + "|"
+				+ message.getMessageID() + "|" + message.getPostTimeStamp();
+	}
+
+	/** Agent identifiers without a name get a random name, which is left out */
+	private static String describe(AgentID id) {
+		String fragment = id.getName().getFragment();
+		String name = fragment != null && fragment.startsWith("Agent-") ? "<no name>" : id.getName().toString();
+		return name + id.getAddresses() + new TreeMap<>(id.getUserDefSlots()) + id.getResolvers().size();
+	}
+}
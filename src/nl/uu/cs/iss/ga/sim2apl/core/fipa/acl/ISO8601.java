@@ -23,6 +23,9 @@ Boston, MA  02111-1307, USA.
 
 package nl.uu.cs.iss.ga.sim2apl.core.fipa.acl;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Date;
 import java.util.Calendar;
 import java.util.TimeZone;
@@ -54,6 +57,13 @@ import nl.uu.cs.iss.ga.sim2apl.core.platform.Platform;
  * <code>toString(false)</code> is called).
  * </UL>
  * </UL>
+ * <p>
+ * Dates between the years 1583 and 9999 are formatted and parsed with
+ * <code>java.time</code> without locking, and the date and time up to the
+ * second of the last formatted and parsed date are cached, as the dates in the
+ * headers of consecutive messages are mostly in the same second. Other dates,
+ * and dates in local time that are parsed, are handled by a shared
+ * <code>Calendar</code>, which is slower but gives the same results as before.
  *
  * @author Fabio Bellifemine - CSELT
  * @version $Date: 2003-11-20 11:55:37 +0100 (Thu, 20 Nov 2003) $ $Revision:
@@ -66,10 +76,36 @@ public class ISO8601 {
 	private static Calendar localCal = Calendar.getInstance();
 	private static Calendar utcCal = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
 
+	/** The time zone of <code>localCal</code>, of which the offsets can differ from those of <code>java.time</code> */
+	private static final TimeZone localZone = localCal.getTimeZone();
+	/** Before this year the Gregorian calendar of <code>Calendar</code> differs from <code>java.time</code> */
+	private static final int MIN_YEAR = 1583;
+	private static final int MAX_YEAR = 9999;
+	/** Length of the date and time up to the second, e.g. "19640625T073000" */
+	private static final int SECOND_LENGTH = 15;
+
+	/**
+	 * A second since the epoch and its date and time up to the second. Instances are
+	 * immutable, so they can be shared between threads without locking.
+	 */
+	private static final class CachedSecond {
+		private final long epochSecond;
+		private final String text;
+
+		private CachedSecond(long epochSecond, String text) {
+			this.epochSecond = epochSecond;
+			this.text = text;
+		}
+	}
+
+	private static volatile CachedSecond lastUtcFormatted = new CachedSecond(Long.MIN_VALUE, null);
+	private static volatile CachedSecond lastLocalFormatted = new CachedSecond(Long.MIN_VALUE, null);
+	private static volatile CachedSecond lastUtcParsed = new CachedSecond(Long.MIN_VALUE, null);
+
 	/**
 	 * parse a date time token in UTC format (i.e. ending with a Z)
 	 **/
-	private static Date parseutcDateFormat(String dateTimeToken) throws Exception {
+	private synchronized static Date parseutcDateFormat(String dateTimeToken) throws Exception {
 		subparse(utcCal, dateTimeToken);
 		return utcCal.getTime();
 	}
@@ -77,12 +113,13 @@ public class ISO8601 {
 	/**
 	 * parse a date time token in local format (i.e. ending with a Z)
 	 **/
-	private static Date parselocalDateFormat(String dateTimeToken) throws Exception {
+	private synchronized static Date parselocalDateFormat(String dateTimeToken) throws Exception {
 		subparse(localCal, dateTimeToken);
 		return localCal.getTime();
 	}
 
 	private static void subparse(Calendar cal, String dateTimeToken) {
+		cal.clear(); // Fields such as the era would otherwise be left from the previous date
 		cal.set(Calendar.YEAR, Integer.parseInt(dateTimeToken.substring(0, 4)));
 		cal.set(Calendar.MONTH, Integer.parseInt(dateTimeToken.substring(4, 6)) - 1);
 		cal.set(Calendar.DATE, Integer.parseInt(dateTimeToken.substring(6, 8)));
@@ -92,17 +129,116 @@ public class ISO8601 {
 		cal.set(Calendar.MILLISECOND, Integer.parseInt(dateTimeToken.substring(15, 18)));
 	}
 
-	private static String formatlocalDate(Date d) {
+	private synchronized static String formatlocalDate(Date d) {
 		// Initialize time
 		localCal.setTime(d);
 		return subFormatDate(localCal);
 	}
 
-	private static String formatutcDate(Date d) {
+	private synchronized static String formatutcDate(Date d) {
 		utcCal.setTime(d);
 		return subFormatDate(utcCal) + z;
 	}
 
+	/**
+	 * Format a date with the cached second, or by computing the second in UTC or in
+	 * the time zone of <code>localCal</code> if it is not cached.
+	 * 
+	 * @return The formatted date, or null if its year cannot be formatted without a
+	 *         <code>Calendar</code>
+	 */
+	private static String formatDate(long millis, boolean utc) {
+		long epochSecond = Math.floorDiv(millis, 1000L);
+		CachedSecond cached = utc ? lastUtcFormatted : lastLocalFormatted;
+		if (cached.epochSecond != epochSecond) {
+			long localSecond = utc ? epochSecond : epochSecond + localZone.getOffset(epochSecond * 1000L) / 1000;
+			LocalDateTime time = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+			if (time.getYear() < MIN_YEAR || time.getYear() > MAX_YEAR) {
+				return null;
+			}
+			char[] text = new char[SECOND_LENGTH];
+			putDigits(text, 0, time.getYear(), 4);
+			putDigits(text, 4, time.getMonthValue(), 2);
+			putDigits(text, 6, time.getDayOfMonth(), 2);
+			text[8] = t;
+			putDigits(text, 9, time.getHour(), 2);
+			putDigits(text, 11, time.getMinute(), 2);
+			putDigits(text, 13, time.getSecond(), 2);
+			cached = new CachedSecond(epochSecond, new String(text));
+			if (utc) {
+				lastUtcFormatted = cached;
+			} else {
+				lastLocalFormatted = cached;
+			}
+		}
+		char[] result = new char[utc ? SECOND_LENGTH + 4 : SECOND_LENGTH + 3];
+		cached.text.getChars(0, SECOND_LENGTH, result, 0);
+		putDigits(result, SECOND_LENGTH, (int) Math.floorMod(millis, 1000L), 3);
+		if (utc) {
+			result[SECOND_LENGTH + 3] = z.charAt(0);
+		}
+		return new String(result);
+	}
+
+	private static void putDigits(char[] text, int offset, int value, int digits) {
+		for (int i = offset + digits - 1; i >= offset; i--) {
+			text[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+	}
+
+	/**
+	 * Parse a date time token in UTC format with the cached second, or by computing
+	 * the second if it is not cached.
+	 * 
+	 * @return The parsed date, or null if the token is not a plain UTC date time
+	 *         of which the fields are in range, which is left to the more lenient
+	 *         <code>Calendar</code>
+	 */
+	private static Date parseDate(String dateTimeToken) {
+		if (dateTimeToken.length() != SECOND_LENGTH + 4) {
+			return null;
+		}
+		int millis = parseDigits(dateTimeToken, SECOND_LENGTH, 3);
+		if (millis < 0) {
+			return null;
+		}
+		CachedSecond cached = lastUtcParsed;
+		if (cached.text == null || !dateTimeToken.regionMatches(0, cached.text, 0, SECOND_LENGTH)) {
+			// Like the Calendar, the character between the date and time is not checked
+			int year = parseDigits(dateTimeToken, 0, 4);
+			int month = parseDigits(dateTimeToken, 4, 2);
+			int day = parseDigits(dateTimeToken, 6, 2);
+			int hour = parseDigits(dateTimeToken, 9, 2);
+			int minute = parseDigits(dateTimeToken, 11, 2);
+			int second = parseDigits(dateTimeToken, 13, 2);
+			if (year < MIN_YEAR || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0
+					|| minute > 59 || second < 0 || second > 59
+					|| day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+				return null;
+			}
+			long epochSecond = LocalDate.of(year, month, day).toEpochDay() * 86400L + hour * 3600 + minute * 60 + second;
+			cached = new CachedSecond(epochSecond, dateTimeToken.substring(0, SECOND_LENGTH));
+			lastUtcParsed = cached;
+		}
+		return new Date(cached.epochSecond * 1000L + millis);
+	}
+
+	/**
+	 * @return The value of the decimal digits, or -1 if there is another character
+	 */
+	private static int parseDigits(String text, int offset, int digits) {
+		int value = 0;
+		for (int i = offset; i < offset + digits; i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
 	private static String subFormatDate(Calendar cal) {
 		// Format time
 		StringBuffer formatedDate = new StringBuffer();
@@ -145,7 +281,7 @@ public class ISO8601 {
 	 *             Exception if the String is not a valid dateTime
 	 * @return an absolute value of DateTime
 	 */
-	public synchronized static Date toDate(String dateTimeToken) throws Exception {
+	public static Date toDate(String dateTimeToken) throws Exception {
 		if (dateTimeToken == null)
 			return new Date();
 		char sign = dateTimeToken.charAt(0);
@@ -164,7 +300,8 @@ public class ISO8601 {
 			return (new Date(millisec));
 		} else if (dateTimeToken.endsWith(z)) {
 			// Preferred format is to pass UTC times, indicated by trailing 'Z'
-			return parseutcDateFormat(dateTimeToken);
+			Date date = parseDate(dateTimeToken);
+			return date != null ? date : parseutcDateFormat(dateTimeToken);
 		} else {
 			// Alternate format is to use local times - no trailing 'Z'
 			return parselocalDateFormat(dateTimeToken);
@@ -186,7 +323,11 @@ public class ISO8601 {
 	 * @return a String, e.g. "19640625T073000000Z" to represent 7:30AM on the 25th
 	 *         of June of 1964, UTC time.
 	 */
-	public synchronized static String toString(Date d, boolean useUTCtime) {
+	public static String toString(Date d, boolean useUTCtime) {
+		String formatted = formatDate(d.getTime(), useUTCtime);
+		if (formatted != null) {
+			return formatted;
+		}
 		if (useUTCtime) {
 			// perferred style is to generate UTC times, indicated by trailing 'Z'
 			return formatutcDate(d);
@@ -0,0 +1,171 @@
+package nl.uu.cs.iss.ga.sim2apl.core.fipa.acl;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Checks that {@link ISO8601} formats and parses dates the same as the former implementation, which used a shared
+ * <code>Calendar</code> for every date, and compares their speed. Dates are drawn around the current time, across
+ * the whole range of years, around the change to the Gregorian calendar in 1582 and around a change to daylight
+ * saving time. Each date is formatted in UTC and in local time, and the token is parsed back, after a random
+ * character of a third of the tokens is replaced. Tokens of relative times are not compared, as they depend on the
+ * current time.
+ * <p>
+ * Run with <code>java nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.ISO8601Check [dates] [seed]</code>, in different
+ * default time zones (<code>-Duser.timezone</code>). The process exits with status 1 if the implementations differ.
+ */
+final class ISO8601Check {
+
+	private static final String MUTATIONS = "0123456789TZx";
+	/** Tokens that the <code>Calendar</code> accepts leniently or rejects */
+	private static final String[] TOKENS = { "20201301T000000000Z", "20200230T246099999Z", "20200101X000000000Z",
+			"2020-1-1T000000000Z", "20200101T000000000", "99999999T999999999Z", "00000101T000000000Z",
+			"20200101T000000000ZZ", "2020010T000000000Z", "20200101T00000000aZ" };
+
+	private ISO8601Check() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		int nDates = args.length > 0 ? Integer.parseInt(args[0]) : 400_000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+		Random random = new Random(seed);
+		long now = System.currentTimeMillis();
+		int differences = 0;
+		for (int i = 0; i < nDates; i++) {
+			Date date = new Date(millis(random, now));
+			for (boolean utc : new boolean[] { true, false }) {
+				String expected = CalendarISO8601.toString(date, utc);
+				String actual = ISO8601.toString(date, utc);
+				if (!actual.equals(expected)) {
+					if (differences++ < 10) {
+						System.out.println("DIFFERENT toString(" + date.getTime() + ", " + utc + "): " + actual
+								+ ", expected " + expected);
+					}
+				}
+				differences += compareParsed(random.nextInt(3) == 0 ? mutate(random, expected) : expected, differences);
+			}
+		}
+		for (String token : TOKENS) {
+			differences += compareParsed(token, differences);
+		}
+		System.out.println(String.format("%s: %d dates, %d different", TimeZone.getDefault().getID(), nDates,
+				differences));
+
+		time(now);
+		if (differences > 0) System.exit(1);
+	}
+
+	/** Draw the time of a date in milliseconds since the epoch */
+	private static long millis(Random random, long now) {
+		if (random.nextInt(50) == 0) {
+			return 1711846800000L + (random.nextInt(7200) - 3600) * 1000L; // Around the start of summer time in 2024
+		}
+		switch (random.nextInt(4)) {
+		case 0:
+			return now + random.nextInt(100_000);
+		case 1:
+			return (long) ((random.nextDouble() * 2 - 1) * 400_000_000_000_000L); // About 12700 years from 1970
+		case 2:
+			return (long) (random.nextDouble() * 4_102_444_800_000L); // Between 1970 and 2100
+		default:
+			return -12_219_292_800_000L + random.nextInt(2_000_000_000); // Around 15 October 1582
+		}
+	}
+
+	private static String mutate(Random random, String token) {
+		char[] text = token.toCharArray();
+		text[random.nextInt(text.length)] = MUTATIONS.charAt(random.nextInt(MUTATIONS.length()));
+		return new String(text);
+	}
+
+	/** Parse a token with both implementations, and report whether they differ */
+	private static int compareParsed(String token, int differences) {
+		if (token.charAt(0) == '+' || token.charAt(0) == '-') return 0;
+		Object expected, actual;
+		try {
+			expected = CalendarISO8601.toDate(token).getTime();
+		} catch (Exception e) {
+			expected = e.getClass().getName();
+		}
+		try {
+			actual = ISO8601.toDate(token).getTime();
+		} catch (Exception e) {
+			actual = e.getClass().getName();
+		}
+		if (Objects.equals(actual, expected)) return 0;
+		if (differences < 10) {
+			System.out.println("DIFFERENT toDate(" + token + "): " + actual + ", expected " + expected);
+		}
+		return 1;
+	}
+
+	/** Compare the time it takes both implementations to format and parse the dates of consecutive messages */
+	private static void time(long now) throws Exception {
+		int n = 2_000_000;
+		String token = ISO8601.toString(new Date(now));
+		long sink = 0;
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < n; i++) sink += CalendarISO8601.toString(new Date(now + i % 500), true).length();
+			long calendarFormat = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int i = 0; i < n; i++) sink += ISO8601.toString(new Date(now + i % 500)).length();
+			long format = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int i = 0; i < n; i++) sink += CalendarISO8601.toDate(token).getTime();
+			long calendarParse = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int i = 0; i < n; i++) sink += ISO8601.toDate(token).getTime();
+			long parse = System.nanoTime() - start;
+			System.out.println(String.format("toString: Calendar %4d ns, ISO8601 %4d ns; toDate: Calendar %4d ns, "
+					+ "ISO8601 %4d ns", calendarFormat / n, format / n, calendarParse / n, parse / n));
+		}
+		if (sink == 42) System.out.println(); // Keeps the results from being optimized away
+	}
+
+	/** The former implementation, which formats and parses every absolute date with a shared <code>Calendar</code> */
+	private static final class CalendarISO8601 {
+		private static final Calendar localCal = Calendar.getInstance();
+		private static final Calendar utcCal = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+
+		static synchronized Date toDate(String dateTimeToken) {
+			Calendar cal = dateTimeToken.endsWith("Z") ? utcCal : localCal;
+			cal.clear();
+			cal.set(Calendar.YEAR, Integer.parseInt(dateTimeToken.substring(0, 4)));
+			cal.set(Calendar.MONTH, Integer.parseInt(dateTimeToken.substring(4, 6)) - 1);
+			cal.set(Calendar.DATE, Integer.parseInt(dateTimeToken.substring(6, 8)));
+			cal.set(Calendar.HOUR_OF_DAY, Integer.parseInt(dateTimeToken.substring(9, 11)));
+			cal.set(Calendar.MINUTE, Integer.parseInt(dateTimeToken.substring(11, 13)));
+			cal.set(Calendar.SECOND, Integer.parseInt(dateTimeToken.substring(13, 15)));
+			cal.set(Calendar.MILLISECOND, Integer.parseInt(dateTimeToken.substring(15, 18)));
+			return cal.getTime();
+		}
+
+		static synchronized String toString(Date d, boolean useUTCtime) {
+			Calendar cal = useUTCtime ? utcCal : localCal;
+			cal.setTime(d);
+			StringBuilder formatted = new StringBuilder();
+			formatted.append(zeroPaddingNumber(cal.get(Calendar.YEAR), 4));
+			formatted.append(zeroPaddingNumber(cal.get(Calendar.MONTH) + 1, 2));
+			formatted.append(zeroPaddingNumber(cal.get(Calendar.DATE), 2));
+			formatted.append('T');
+			formatted.append(zeroPaddingNumber(cal.get(Calendar.HOUR_OF_DAY), 2));
+			formatted.append(zeroPaddingNumber(cal.get(Calendar.MINUTE), 2));
+			formatted.append(zeroPaddingNumber(cal.get(Calendar.SECOND), 2));
+			formatted.append(zeroPaddingNumber(cal.get(Calendar.MILLISECOND), 3));
+			return useUTCtime ? formatted.append('Z').toString() : formatted.toString();
+		}
+
+		private static String zeroPaddingNumber(long value, int digits) {
+			String s = Long.toString(value);
+			int n = digits - s.length();
+			for (int i = 0; i < n; i++)
+				s = "0" + s;
+			return s;
+		}
+	}
+}
@@ -23,6 +23,7 @@ Boston, MA  02111-1307, USA.
 
 package nl.uu.cs.iss.ga.sim2apl.core.fipa.acl;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -36,6 +37,7 @@ import java.util.Date;
 import java.util.Properties;
 
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageID;
 
 import java.util.Iterator;
 
@@ -126,6 +128,7 @@ public class LEAPACLCodec implements ACLCodec {
 		String inReplyTo = msg.getInReplyTo();
 		String replyWith = msg.getReplyWith();
 		Date replyBy = msg.getReplyByDate();
+		MessageID messageID = msg.getMessageID();
 		Properties props = msg.getAllUserDefinedParameters();
 		if (props.size() > 63) {
 			throw new IOException("Cannot serialize more than 63 params");
@@ -158,6 +161,9 @@ public class LEAPACLCodec implements ACLCodec {
 		if (replyBy != null) {
 			presence2 |= 0x80;
 		}
+		if (messageID != null) {
+			presence2 |= 0x40;
+		}
 		presence2 |= (props.size() & 0x3F);
 		dos.writeByte(presence1);
 		dos.writeByte(presence2);
@@ -189,6 +195,10 @@ public class LEAPACLCodec implements ACLCodec {
 		if (replyBy != null) {
 			dos.writeLong(replyBy.getTime());
 		}
+		if (messageID != null) {
+			dos.writeLong(messageID.getNode());
+			dos.writeLong(messageID.getSequence());
+		}
 
 		// User defined parameters
 		serializeProperties(props, dos);
@@ -267,6 +277,9 @@ public class LEAPACLCodec implements ACLCodec {
 		if ((presence2 & 0x80) != 0) {
 			msg.setReplyByDate(new Date(dis.readLong()));
 		}
+		if ((presence2 & 0x40) != 0) {
+			msg.setMessageID(new MessageID(dis.readLong(), dis.readLong()));
+		}
 		// User defined properties
 		int propsSize = presence2 & 0x3F;
 		for (int i = 0; i < propsSize; ++i) {
@@ -367,6 +380,41 @@ public class LEAPACLCodec implements ACLCodec {
 		return id;
 	}
 
+	/**
+	 * Skip an agent ID that was written by {@link #serializeAID(AgentID, DataOutputStream)}, without creating it.
+	 */
+	public final static void skipAID(DataInputStream dis) throws IOException {
+		byte presence = dis.readByte();
+		if ((presence & 0x80) != 0) {
+			skipUTF(dis);
+		}
+		if ((presence & 0x40) != 0) {
+			do {
+				skipUTF(dis);
+			} while (dis.readBoolean());
+		}
+		if ((presence & 0x20) != 0) {
+			do {
+				skipAID(dis);
+			} while (dis.readBoolean());
+		}
+		int propsSize = presence & 0x1F;
+		for (int i = 0; i < propsSize; ++i) {
+			skipUTF(dis);
+			skipUTF(dis);
+		}
+	}
+
+	/**
+	 * Skip a string that was written by {@link DataOutputStream#writeUTF(String)}, without decoding it.
+	 */
+	public final static void skipUTF(DataInputStream dis) throws IOException {
+		int length = dis.readUnsignedShort();
+		if (dis.skipBytes(length) != length) {
+			throw new EOFException();
+		}
+	}
+
 	private static final void serializeProperties(Properties props, DataOutputStream dos) throws IOException {
 		Enumeration<Object> e = props.keys();
 		while (e.hasMoreElements()) {
@@ -31,6 +31,7 @@ import java.util.logging.Level;
 
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.FIPANames;
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageID;
 import nl.uu.cs.iss.ga.sim2apl.core.logging.Loggable;
 import nl.uu.cs.iss.ga.sim2apl.core.platform.Platform;
 
@@ -145,6 +146,23 @@ public class StringACLCodec implements ACLCodec {
 		} // end of if CaseInsensitiveString
 	}
 
+	/**
+	 * The parser stores the message ID as a user defined parameter. Move it back to
+	 * the message ID slot of the message.
+	 **/
+	private void checkMessageID(ACLMessage msg) {
+		String key = MessageID.PARAMETER_KEY.substring(2);
+		String messageID = msg.getUserDefinedParameter(key);
+		if (messageID != null) {
+			try {
+				msg.setMessageID(MessageID.fromString(messageID));
+				msg.removeUserDefinedParameter(key);
+			} catch (IllegalArgumentException e) {
+				logger.log(getClass(), Level.WARNING, "Could not parse message ID " + messageID);
+			}
+		}
+	}
+
 	/**
 	 * decode and parses the next message from the Reader passed in the constructor.
 	 * 
@@ -156,6 +174,7 @@ public class StringACLCodec implements ACLCodec {
 		try {
 			ACLMessage msg = parser.Message();
 			checkBase64Encoding(msg);
+			checkMessageID(msg);
 			return msg;
 		} catch (TokenMgrError e1) {
 			throw new ACLCodec.CodecException(getName() + " ACLMessage decoding token exception", e1);
@@ -292,6 +311,10 @@ public class StringACLCodec implements ACLCodec {
 
 		appendACLExpression(str, CONVERSATION_ID, msg.getConversationId());
 
+		MessageID messageID = msg.getMessageID();
+		if (messageID != null)
+			appendACLExpression(str, ":" + MessageID.PARAMETER_KEY, messageID.toString());
+
 		Properties userDefProps = msg.getAllUserDefinedParameters();
 		if (userDefProps != null) {
 			Enumeration<?> e = userDefProps.propertyNames();
@@ -330,13 +353,20 @@ public class StringACLCodec implements ACLCodec {
 	}
 
 	/**
+	 * Messages in the common subset of the representation are parsed by a
+	 * hand-written parser, other messages by the generated <code>ACLParser</code>.
+	 * 
 	 * @see ACLCodec#decode(byte[] data)
 	 */
 	@Override
 	public ACLMessage decode(byte[] data, String charset) throws ACLCodec.CodecException {
 		try {
-			ACLMessage msg = ACLParser.create().parse(new InputStreamReader(new ByteArrayInputStream(data), charset));
+			ACLMessage msg = FastACLParser.parse(data, charset);
+			if (msg == null) {
+				msg = ACLParser.create().parse(new InputStreamReader(new ByteArrayInputStream(data), charset));
+			}
 			checkBase64Encoding(msg);
+			checkMessageID(msg);
 			return msg;
 		} catch (TokenMgrError e1) {
 			throw new ACLCodec.CodecException(getName() + " ACLMessage decoding token exception", e1);
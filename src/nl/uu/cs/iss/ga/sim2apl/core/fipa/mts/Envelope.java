@@ -148,6 +148,7 @@ public class Envelope implements Serializable {
 						
 			//Properties transportBehaviour
 			if ((flagsB & 0x01) != 0) {
+				env.transportBehaviour = new Properties();
 				while (din.readBoolean()) {
 					// NOTE!/TODO?: Seems like 'Strings' are enforced for both key and value, but the set itself is 'Object/Object', not completely sure this is right.
 					String key = din.readUTF();
@@ -206,6 +207,70 @@ public class Envelope implements Serializable {
 		return env;
 	}
 	
+	/**
+	 * Skip an envelope that was written by {@link #encode(DataOutputStream)}, without creating it, except for the
+	 * agents it is addressed to. Envelopes with properties cannot be skipped, as their encoding does not match their
+	 * decoding.
+	 * 
+	 * @param receivers Collects the intended receivers of the envelope, or the receivers in its 'to' slot if it has no
+	 *            intended receivers (see {@link ACLMessage#getEnvelopeReceivers()})
+	 * @return False if the envelope has properties, in which case nothing but its flags was read
+	 */
+	public static boolean skip(DataInputStream din, Set<AgentID> receivers) throws IOException, URISyntaxException {
+		final int flagsA = din.readByte();
+		final int flagsB = din.readByte();
+		if ((flagsB & 0x04) != 0) {
+			return false;
+		}
+		if ((flagsA & 0x01) != 0) {
+			while (din.readBoolean()) {
+				receivers.add(nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.deserializeAID(din));
+			}
+		}
+		if ((flagsA & 0x02) != 0) {
+			nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.skipAID(din);
+		}
+		if ((flagsA & 0x04) != 0) {
+			nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.skipUTF(din);
+		}
+		if ((flagsA & 0x08) != 0) {
+			nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.skipUTF(din);
+		}
+		if ((flagsA & 0x10) != 0) {
+			din.skipBytes(8);
+		}
+		if ((flagsA & 0x20) != 0) {
+			nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.skipUTF(din);
+		}
+		if ((flagsA & 0x40) != 0) {
+			din.skipBytes(8);
+		}
+		if ((flagsA & 0x80) != 0 && din.readBoolean()) {
+			// The intended receivers take the place of the receivers in the 'to' slot
+			receivers.clear();
+			do {
+				receivers.add(nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.deserializeAID(din));
+			} while (din.readBoolean());
+		}
+		if ((flagsB & 0x01) != 0) {
+			while (din.readBoolean()) {
+				nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.skipUTF(din);
+				nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.skipUTF(din);
+			}
+		}
+		if ((flagsB & 0X02) != 0) {
+			while (din.readBoolean()) {
+				// Received: by, from, date, id, via
+				nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.skipUTF(din);
+				nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.skipUTF(din);
+				din.skipBytes(8);
+				nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.skipUTF(din);
+				nl.uu.cs.iss.ga.sim2apl.core.fipa.acl.LEAPACLCodec.skipUTF(din);
+			}
+		}
+		return true;
+	}
+	
 	// TODO?: Move to LEAPACLCodec?
 	public void encode(DataOutputStream dos)
 	{		
@@ -662,6 +727,16 @@ public class Envelope implements Serializable {
 		return properties.iterator();
 	}
 
+	/**
+	 * Access the transport behaviour of this envelope, which is only set when the
+	 * envelope was decoded from its LEAP representation.
+	 * 
+	 * @return The transport behaviour, or null if it was not set.
+	 */
+	public Properties getTransportBehaviour() {
+		return transportBehaviour;
+	}
+
 	// #MIDP_EXCLUDE_BEGIN
 	/**
 	 * Retrieve a string representation for this platform description.
@@ -3,10 +3,10 @@ package nl.uu.cs.iss.ga.sim2apl.core.logging;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedSet;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.SubmissionPublisher;
 
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageID;
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageInterface;
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageLog;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.Context;
@@ -15,13 +15,13 @@ public class MessageLogContext extends SubmissionPublisher<MessageLog> implement
 
 	/** The sendMessageHistory contains the history of messages sent by the Agent */
 	private final SortedSet<MessageLog> sendMessageHistory = new ConcurrentSkipListSet<>();
-	private final Map<UUID, MessageLog> sendMessageMap = new HashMap<>();
+	private final Map<MessageID, MessageLog> sendMessageMap = new HashMap<>();
 
 	/**
 	 * The sendMessageHistory contains the history of messages received by the Agent
 	 */
 	private final SortedSet<MessageLog> receiveMessageHistory = new ConcurrentSkipListSet<>();
-	private final Map<UUID, MessageLog> receiveMessageMap = new HashMap<>();
+	private final Map<MessageID, MessageLog> receiveMessageMap = new HashMap<>();
 
 	public MessageLog addSentMessage(MessageInterface message) {
 		final MessageLog log = new MessageLog(message, false);
@@ -39,11 +39,11 @@ public class MessageLogContext extends SubmissionPublisher<MessageLog> implement
 		return log;
 	}
 
-	public MessageLog getReceivedMessageLog(UUID messageID) {
+	public MessageLog getReceivedMessageLog(MessageID messageID) {
 		return this.receiveMessageMap.get(messageID);
 	}
 	
-	public MessageLog getSentMessageLog(UUID messageID) {
+	public MessageLog getSentMessageLog(MessageID messageID) {
 		return this.sendMessageMap.get(messageID);
 	}
 	
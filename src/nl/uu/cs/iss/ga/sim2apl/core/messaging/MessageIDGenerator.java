@@ -0,0 +1,18 @@
+package nl.uu.cs.iss.ga.sim2apl.core.messaging;
+
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageID;
+
+/**
+ * Produces the IDs with which agents stamp outgoing messages. Implementations are shared by
+ * all agents of a platform, and should therefore be safe to call from multiple deliberation
+ * threads at once.
+ */
+public interface MessageIDGenerator {
+
+	/**
+	 * Produce a new message ID. No two calls on the same generator may return equal IDs.
+	 *
+	 * @return A new, unique message ID
+	 */
+	MessageID next();
+}
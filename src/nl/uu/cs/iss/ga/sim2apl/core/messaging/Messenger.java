@@ -1,5 +1,8 @@
 package nl.uu.cs.iss.ga.sim2apl.core.messaging;
  
+import java.util.Collection;
+import java.util.function.Function;
+
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageInterface;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.Agent;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentDeathListener;
@@ -16,6 +19,13 @@ public interface Messenger<T extends MessageInterface> extends AgentDeathListene
 	/** Intended to make the messenger aware of the agents' existence. Registering is required for the agent to send and receive messages. */
 	public void register(final Agent agent);
 	
+	/** Register a batch of agents at once. By default each agent is registered separately. Messengers that guard their 
+	 * registry with a lock can override this to take the lock once for the whole batch. */
+	public default void registerAll(final Collection<? extends Agent> agents){
+		for(Agent agent : agents)
+			register(agent);
+	}
+	
 	/** Deregister to announce that this agent will no longer listen to messages that are received (will also disable the possiblity for sending messages). */
 	public void deregister(final nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID agentID);
 	
@@ -35,4 +45,19 @@ public interface Messenger<T extends MessageInterface> extends AgentDeathListene
 	public byte[] encodeMessage(final T message) throws UnsupportedOperationException;
 	
 	public T decodeMessage(byte[] asBytes) throws UnsupportedOperationException;
+	
+	/** Create an encoder for a single ordered stream of messages, such as the messages sent over one connection. The 
+	 * encoding of a message may refer back to earlier messages of the stream, so the messages have to be decoded in the 
+	 * same order by a decoder from {@link #newStreamDecoder()}. By default, each message is encoded by itself. */
+	public default Function<T, byte[]> newStreamEncoder(){
+		return this::encodeMessage;
+	}
+	
+	/** Create a decoder for a single ordered stream of messages that were encoded by an encoder from 
+	 * {@link #newStreamEncoder()}. By default, each message is decoded by itself. A decoder that can no longer decode 
+	 * the stream, e.g. because a message it depends on could not be decoded, throws an 
+	 * <code>IllegalStateException</code>, after which the stream is ended. */
+	public default Function<byte[], T> newStreamDecoder(){
+		return this::decodeMessage;
+	}
 }
@@ -3,15 +3,22 @@ package nl.uu.cs.iss.ga.sim2apl.core.plan;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.Goal;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.PlanToAgentInterface;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.Trigger;
+
+import java.io.Serializable;
 /**
  * Plans implement the decision making business logic of agents. Each plan is
  * created by a plan scheme. The plan scheme determines when a plan is to be applied.
  * If the plan was created to achieve a specific goal, then it will be canceled once 
  * the goal is achieved.
  * 
+ * Plans are serializable, so that agents that are executing them can move to 
+ * another platform. This requires the fields of a plan to be serializable as well.
+ * 
  * @author Bas Testerink
  */
-public abstract class Plan {
+public abstract class Plan implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	/** Whether the plan is finished executing. */
 	private boolean finished;
 	/** Optionally the goal that will be achieved by executing this plan. */
@@ -1,7 +1,10 @@
 package nl.uu.cs.iss.ga.sim2apl.core.plan;
   
 import java.util.Collections;
-import java.util.List; 
+import java.util.List;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.Trigger;
+
 /**
  * The plan scheme base of an agent stores its plan schemes. Currently it is assumed that 
  * the plan scheme base does not change over time. This might be a future expansion to allow 
@@ -15,6 +18,9 @@ public final class PlanSchemeBase {
 								   internalTriggerPlanSchemes, 	// Equivalent of PR rules and also PC rules which have no external trigger as head
 								   externalTriggerPlanSchemes,	// Equivalent of PC rules that have an external trigger as head
 								   messagePlanSchemes;			// Equivalent of PC rules that have a message as head
+
+	/** Indices on the declared trigger classes of the plan schemes, used to select candidate plan schemes per trigger. */
+	private final PlanSchemeIndex goalPlanSchemeIndex, internalTriggerPlanSchemeIndex, externalTriggerPlanSchemeIndex, messagePlanSchemeIndex;
 	
 	/**
 	 * Creates a plan scheme base with the provided plans. Note that adding/removing a plan scheme from
@@ -29,10 +35,28 @@ public final class PlanSchemeBase {
 						  final List<nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme> internalTriggerPlanSchemes,
 						  final List<nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme> externalTriggerPlanSchemes,
 						  final List<nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme> messagePlanSchemes){
+		this(goalPlanSchemes, null, internalTriggerPlanSchemes, null, externalTriggerPlanSchemes, null, messagePlanSchemes, null);
+	}
+
+	/**
+	 * Creates a plan scheme base with the provided plans, where each plan scheme can declare the class of 
+	 * trigger it handles. Each list of trigger classes runs parallel to its list of plan schemes. A null 
+	 * entry (or a null list) means the plan scheme did not declare a trigger class, and will be tried for 
+	 * every trigger. A plan scheme that declared a trigger class is only tried for triggers of that class 
+	 * or its subclasses.
+	 */
+	public PlanSchemeBase(final List<PlanScheme> goalPlanSchemes, final List<Class<? extends Trigger>> goalTriggerClasses,
+						  final List<PlanScheme> internalTriggerPlanSchemes, final List<Class<? extends Trigger>> internalTriggerClasses,
+						  final List<PlanScheme> externalTriggerPlanSchemes, final List<Class<? extends Trigger>> externalTriggerClasses,
+						  final List<PlanScheme> messagePlanSchemes, final List<Class<? extends Trigger>> messageTriggerClasses){
 		this.goalPlanSchemes = goalPlanSchemes.isEmpty()? Collections.emptyList() : Collections.unmodifiableList(goalPlanSchemes);
 		this.internalTriggerPlanSchemes = internalTriggerPlanSchemes.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(internalTriggerPlanSchemes);
 		this.externalTriggerPlanSchemes = externalTriggerPlanSchemes.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(externalTriggerPlanSchemes);
 		this.messagePlanSchemes = messagePlanSchemes.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(messagePlanSchemes);
+		this.goalPlanSchemeIndex = new PlanSchemeIndex(this.goalPlanSchemes, goalTriggerClasses);
+		this.internalTriggerPlanSchemeIndex = new PlanSchemeIndex(this.internalTriggerPlanSchemes, internalTriggerClasses);
+		this.externalTriggerPlanSchemeIndex = new PlanSchemeIndex(this.externalTriggerPlanSchemes, externalTriggerClasses);
+		this.messagePlanSchemeIndex = new PlanSchemeIndex(this.messagePlanSchemes, messageTriggerClasses);
 	}
 
 	// Return new lists so that deliberation cannot accidentally change the plan scheme lists
@@ -41,4 +65,9 @@ public final class PlanSchemeBase {
 	public final List<nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme> getInternalTriggerPlanSchemes(){ return this.internalTriggerPlanSchemes; }
 	public final List<nl.uu.cs.iss.ga.sim2apl.core.plan.PlanScheme> getExternalTriggerPlanSchemes(){ return this.externalTriggerPlanSchemes; }
 	public final List<PlanScheme> getMessagePlanSchemes(){ return this.messagePlanSchemes; }
+
+	public final PlanSchemeIndex getGoalPlanSchemeIndex(){ return this.goalPlanSchemeIndex; }
+	public final PlanSchemeIndex getInternalTriggerPlanSchemeIndex(){ return this.internalTriggerPlanSchemeIndex; }
+	public final PlanSchemeIndex getExternalTriggerPlanSchemeIndex(){ return this.externalTriggerPlanSchemeIndex; }
+	public final PlanSchemeIndex getMessagePlanSchemeIndex(){ return this.messagePlanSchemeIndex; }
 } 
\ No newline at end of file
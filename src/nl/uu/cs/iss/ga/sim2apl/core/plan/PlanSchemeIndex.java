@@ -0,0 +1,73 @@
+package nl.uu.cs.iss.ga.sim2apl.core.plan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.Trigger;
+
+/**
+ * Indexes a list of plan schemes on the class of trigger they respond to. A plan scheme
+ * can optionally declare the trigger class it handles. For a given trigger, only the
+ * plan schemes that declared a super type of the trigger's class, or that declared
+ * nothing at all, are candidates. The candidates keep the order of the original list,
+ * so the first applicable plan scheme is the same as when trying all plan schemes.
+ *
+ * The candidate list for a trigger class is computed on first use and cached.
+ */
+public final class PlanSchemeIndex {
+	/** All plan schemes, in order of the plan scheme base. */
+	private final List<PlanScheme> planSchemes;
+	/** For each plan scheme the declared trigger class, or null if it did not declare one. */
+	private final List<Class<? extends Trigger>> triggerClasses;
+	/** Whether any of the plan schemes declared a trigger class. If not, the index is bypassed. */
+	private final boolean indexed;
+	/** Cached candidate lists per concrete trigger class. */
+	private final Map<Class<?>, List<PlanScheme>> candidates;
+
+	/**
+	 * @param planSchemes The plan schemes to index
+	 * @param triggerClasses For each plan scheme the trigger class it handles, or null if undeclared.
+	 * 			If this list is null, no plan scheme declares a trigger class.
+	 */
+	PlanSchemeIndex(final List<PlanScheme> planSchemes, final List<Class<? extends Trigger>> triggerClasses){
+		this.planSchemes = planSchemes;
+		if(triggerClasses == null || triggerClasses.stream().allMatch(c -> c == null)){
+			this.triggerClasses = Collections.emptyList();
+			this.indexed = false;
+		} else {
+			if(triggerClasses.size() != planSchemes.size())
+				throw new IllegalArgumentException("Expected one trigger class per plan scheme.");
+			this.triggerClasses = new ArrayList<>(triggerClasses);
+			this.indexed = true;
+		}
+		this.candidates = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Obtain the plan schemes that may instantiate a plan for the given trigger.
+	 * @param trigger Trigger for which plan schemes are requested
+	 * @return Candidate plan schemes in plan scheme base order. The returned list must not be modified.
+	 */
+	public final List<PlanScheme> getPlanSchemes(final Trigger trigger){
+		if(!this.indexed || trigger == null) return this.planSchemes;
+		return this.candidates.computeIfAbsent(trigger.getClass(), this::selectCandidates);
+	}
+
+	/** All plan schemes in this index, regardless of declared trigger class. */
+	public final List<PlanScheme> getAllPlanSchemes(){
+		return this.planSchemes;
+	}
+
+	private List<PlanScheme> selectCandidates(final Class<?> triggerClass){
+		List<PlanScheme> selected = new ArrayList<>();
+		for(int i = 0; i < this.planSchemes.size(); i++){
+			Class<? extends Trigger> declared = this.triggerClasses.get(i);
+			if(declared == null || declared.isAssignableFrom(triggerClass))
+				selected.add(this.planSchemes.get(i));
+		}
+		return selected.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(selected);
+	}
+}
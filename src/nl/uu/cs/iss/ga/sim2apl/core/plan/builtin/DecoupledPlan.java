@@ -12,6 +12,8 @@ import nl.uu.cs.iss.ga.sim2apl.core.plan.PlanExecutionError;
  * @author Bas Testerink
  */
 public abstract class DecoupledPlan extends Plan {
+	private static final long serialVersionUID = 1L;
+
 	/** {@inheritDoc} */
 	@Override
 	public final Object execute(final PlanToAgentInterface planInterface) throws nl.uu.cs.iss.ga.sim2apl.core.plan.PlanExecutionError {return null;}
@@ -76,6 +76,8 @@ public final class EnhancedTriggerInterceptor extends nl.uu.cs.iss.ga.sim2apl.co
 	}
 	
 	private final class ExtendedInterceptorPlan extends Plan {
+		private static final long serialVersionUID = 1L;
+
 		public final List<nl.uu.cs.iss.ga.sim2apl.core.plan.TriggerInterceptor> goalInterceptorsToRemove,
 											  externalTriggerInterceptorsToRemove,
 											  internalTriggerInterceptorsToRemove,
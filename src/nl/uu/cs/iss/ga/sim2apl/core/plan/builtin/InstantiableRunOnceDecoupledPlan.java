@@ -12,6 +12,8 @@ import nl.uu.cs.iss.ga.sim2apl.core.plan.PlanExecutionError;
  * @param <T>
  */
 public final class InstantiableRunOnceDecoupledPlan<T extends Trigger> extends DecoupledPlan {
+	private static final long serialVersionUID = 1L;
+
 	private final DecoupledPlanBodyInterface<T> body;
 	
 	public InstantiableRunOnceDecoupledPlan(final DecoupledPlanBodyInterface<T> body){
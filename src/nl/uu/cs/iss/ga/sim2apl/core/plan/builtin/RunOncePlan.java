@@ -10,6 +10,7 @@ import nl.uu.cs.iss.ga.sim2apl.core.plan.PlanExecutionError;
  * @author Bas Testerink
  */
 public abstract class RunOncePlan extends Plan {
+	private static final long serialVersionUID = 1L;
  
 	@Override
 	public final Object execute(final PlanToAgentInterface planInterface) throws nl.uu.cs.iss.ga.sim2apl.core.plan.PlanExecutionError {
@@ -0,0 +1,215 @@
+package nl.uu.cs.iss.ga.sim2apl.core.platform;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A pool of long-lived connections to the remote NetNodes of other platforms. Messages are sent as frames of a length
+ * followed by the payload over these connections, so the cost of setting up a connection is paid once per peer instead
+ * of once per message. Each peer, identified by its host and port, gets a fixed number of connections, and a connection
+ * is only used by one thread at a time. Frames with the same affinity key, such as the messages of one sender, always
+ * use the same connection, so they arrive in the order in which they were sent. A connection that fails is closed and
+ * reopened on its next use. The address of a peer is resolved when its first connection is opened, and only resolved 
+ * again after a connection to the peer failed.
+ * 
+ * Messages can also be encoded by an encoder of the connection they are sent over (see 
+ * {@link #send(Peer, int, Object, Supplier)}), so their encoding can refer back to the earlier messages of that 
+ * connection. Encoding and sending then happen under the lock of the connection, so messages are encoded in the order 
+ * in which they are sent, and a connection that is reopened starts with a new encoder.
+ */
+class ConnectionPool {
+	/** The connections to each peer, by host and port. */
+	private final Map<String, Peer> peers;
+	private final int connectionsPerPeer;
+
+	/**
+	 * @param connectionsPerPeer Number of connections that are opened to each peer
+	 */
+	ConnectionPool(final int connectionsPerPeer){
+		if(connectionsPerPeer < 1) throw new IllegalArgumentException("Need at least one connection per peer");
+		this.peers = new ConcurrentHashMap<>();
+		this.connectionsPerPeer = connectionsPerPeer;
+	}
+
+	/**
+	 * Send a frame to a peer. If the connection fails while writing, the frame is sent once more over a new connection.
+	 * @param host Host of the peer
+	 * @param port Port of the peer
+	 * @param affinity Key that determines the connection to use
+	 * @param frame Payload of the frame
+	 * @throws IOException If the frame could not be sent
+	 */
+	void send(final String host, final int port, final int affinity, final byte[] frame) throws IOException {
+		send(host, port, affinity, 0, frame);
+	}
+
+	/**
+	 * Send a frame to a peer, preceded by a control code that tells the peer how to read the frame.
+	 * @param code Negative code of the frame, or 0 to send a plain frame without a code
+	 * @see #send(String, int, int, byte[])
+	 */
+	void send(final String host, final int port, final int affinity, final int code, final byte[] frame) throws IOException {
+		send(peer(host, port), affinity, code, frame);
+	}
+
+	/**
+	 * Obtain the peer at the given host and port, which can be kept to send frames to it without looking it up again.
+	 */
+	Peer peer(final String host, final int port){
+		return this.peers.computeIfAbsent(host + ":" + port, key -> new Peer(host, port));
+	}
+
+	/**
+	 * Send a frame to a peer that was obtained through {@link #peer(String, int)}.
+	 * @see #send(String, int, int, int, byte[])
+	 */
+	void send(final Peer peer, final int affinity, final int code, final byte[] frame) throws IOException {
+		Connection connection = peer.get(affinity);
+		synchronized(connection){
+			try {
+				connection.write(code, frame);
+			} catch(IOException ex){
+				connection.close();
+				connection.write(code, frame);
+			}
+		}
+	}
+
+	/**
+	 * Encode a message with the encoder of a connection to a peer, and send it as a plain frame. If the connection 
+	 * fails while writing, the message is encoded once more by the encoder of a new connection and sent over it.
+	 * @param peer Peer obtained through {@link #peer(String, int)}
+	 * @param affinity Key that determines the connection to use
+	 * @param message Message to send
+	 * @param encoders Creates the encoder of a connection when the connection is opened. All messages sent over the 
+	 * connections of this pool with an encoder should use encoders of the same type
+	 * @throws IOException If the message could not be sent
+	 */
+	<T> void send(final Peer peer, final int affinity, final T message, final Supplier<Function<T, byte[]>> encoders) throws IOException {
+		Connection connection = peer.get(affinity);
+		synchronized(connection){
+			try {
+				connection.open();
+				connection.write(0, connection.encoder(encoders).apply(message));
+			} catch(IOException ex){
+				connection.close();
+				connection.open();
+				connection.write(0, connection.encoder(encoders).apply(message));
+			}
+		}
+	}
+
+	/** The number of connections to each peer. Frames with the affinity keys 0 up to this number each use another connection. */
+	int getConnectionsPerPeer(){
+		return this.connectionsPerPeer;
+	}
+
+	/** The peers to which frames were sent, by their unresolved host and port. */
+	List<InetSocketAddress> getPeers(){
+		List<InetSocketAddress> addresses = new ArrayList<>(this.peers.size());
+		for(Peer peer : this.peers.values())
+			addresses.add(peer.address);
+		return addresses;
+	}
+
+	/** Close all connections. Connections are reopened if frames are sent afterwards. */
+	void close(){
+		for(Peer peer : this.peers.values())
+			for(Connection connection : peer.connections)
+				synchronized(connection){ connection.close(); }
+	}
+
+	/** The connections to a single peer. */
+	final class Peer {
+		private final InetSocketAddress address;
+		private final Connection[] connections;
+		/** The resolved address of the peer, or null if it is resolved when the next connection is opened. */
+		private volatile InetAddress resolved;
+
+		private Peer(final String host, final int port){
+			this.address = InetSocketAddress.createUnresolved(host, port);
+			this.connections = new Connection[connectionsPerPeer];
+			for(int i = 0; i < this.connections.length; i++)
+				this.connections[i] = new Connection(this);
+		}
+
+		private InetAddress resolve() throws IOException {
+			InetAddress resolved = this.resolved;
+			if(resolved == null){
+				resolved = InetAddress.getByName(this.address.getHostString());
+				this.resolved = resolved;
+			}
+			return resolved;
+		}
+
+		private Connection get(final int affinity){
+			return this.connections[Math.floorMod(affinity, this.connections.length)];
+		}
+	}
+
+	/** A single connection, which is opened on first use. Access is guarded by the connection itself. */
+	private static final class Connection {
+		private final Peer peer;
+		private Socket socket;
+		private DataOutputStream out;
+		/** The encoder of the messages sent since the connection was opened, or null if none were encoded yet. */
+		private Function<?, byte[]> encoder;
+
+		private Connection(final Peer peer){
+			this.peer = peer;
+		}
+
+		private void write(final int code, final byte[] frame) throws IOException {
+			open();
+			if(code != 0) this.out.writeInt(code);
+			this.out.writeInt(frame.length);
+			this.out.write(frame);
+			this.out.flush();
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> Function<T, byte[]> encoder(final Supplier<Function<T, byte[]>> encoders){
+			if(this.encoder == null) this.encoder = encoders.get();
+			return (Function<T, byte[]>) this.encoder;
+		}
+
+		private void open() throws IOException {
+			if(this.socket == null){
+				try {
+					this.socket = new Socket(this.peer.resolve(), this.peer.address.getPort());
+				} catch(IOException ex){
+					this.peer.resolved = null; // The peer may have moved to another address
+					throw ex;
+				}
+				this.socket.setTcpNoDelay(true);
+				this.socket.setKeepAlive(true);
+				this.out = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+				// The receiver reads the new connection from scratch
+				this.encoder = null;
+			}
+		}
+
+		private void close(){
+			this.encoder = null;
+			if(this.socket == null) return;
+			this.peer.resolved = null;
+			try {
+				this.socket.close();
+			} catch(IOException ex){
+				// Nothing left to do with a connection that cannot be closed
+			}
+			this.socket = null;
+			this.out = null;
+		}
+	}
+}
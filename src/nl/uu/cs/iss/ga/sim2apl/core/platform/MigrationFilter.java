@@ -0,0 +1,80 @@
+package nl.uu.cs.iss.ga.sim2apl.core.platform;
+
+import java.io.ObjectInputFilter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentState;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.Context;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.Trigger;
+import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageInterface;
+import nl.uu.cs.iss.ga.sim2apl.core.plan.Plan;
+
+/**
+ * Restricts the classes that may be deserialized from the state of an agent that moves to this platform, so another
+ * platform, or anything else that can connect to the NetNode, cannot have arbitrary classes instantiated here.
+ * Allowed are the agent state itself, the plans, goals, triggers, contexts and messages of agents, the classes of
+ * this framework, enums, and the value and collection classes of the Java platform that such state commonly holds.
+ * Other classes that are referenced by the state of agents, e.g. the fields of plans, have to be allowed explicitly
+ * (see {@link NetNode#allowMigratedClasses(Class...)}).
+ */
+final class MigrationFilter implements ObjectInputFilter {
+	/** The package of this framework, whose serializable classes are trusted. */
+	private static final String FRAMEWORK_PACKAGE = "nl.uu.cs.iss.ga.sim2apl.core.";
+	/** The classes of the Java platform that hold values or collections of them, without any behaviour of their own. */
+	private static final Set<String> PLATFORM_CLASSES = new HashSet<>(Arrays.asList(
+			"java.lang.Object", "java.lang.Enum", "java.lang.Boolean", "java.lang.Byte", "java.lang.Character",
+			"java.lang.Short", "java.lang.Integer", "java.lang.Long", "java.lang.Float", "java.lang.Double",
+			"java.lang.Number", "java.lang.String", "java.lang.StringBuffer", "java.lang.StringBuilder",
+			"java.math.BigInteger", "java.math.BigDecimal", "java.net.URI", "java.util.UUID", "java.util.Date",
+			"java.time.Ser",
+			"java.util.ArrayList", "java.util.LinkedList", "java.util.ArrayDeque", "java.util.HashMap",
+			"java.util.LinkedHashMap", "java.util.TreeMap", "java.util.HashSet", "java.util.LinkedHashSet",
+			"java.util.TreeSet", "java.util.Hashtable", "java.util.Properties", "java.util.Arrays$ArrayList",
+			"java.util.ImmutableCollections$ListN", "java.util.ImmutableCollections$List12",
+			"java.util.ImmutableCollections$SetN", "java.util.ImmutableCollections$Set12",
+			"java.util.ImmutableCollections$MapN", "java.util.ImmutableCollections$Map1", "java.util.CollSer",
+			"java.util.concurrent.ConcurrentHashMap", "java.util.concurrent.ConcurrentHashMap$Segment",
+			"java.util.concurrent.ConcurrentLinkedQueue", "java.util.concurrent.CopyOnWriteArrayList"));
+	/** The framework types whose implementations make up the state of an agent. */
+	private static final Class<?>[] STATE_TYPES = {AgentState.class, Plan.class, Trigger.class, Context.class,
+			MessageInterface.class};
+
+	/** The classes that were allowed explicitly. */
+	private final Set<Class<?>> allowed = ConcurrentHashMap.newKeySet();
+	/** The maximal length of an array, which is bounded by the size of the frame that holds the state. */
+	private final long maxArrayLength;
+
+	MigrationFilter(long maxArrayLength) {
+		this.maxArrayLength = maxArrayLength;
+	}
+
+	void allow(Class<?> type) {
+		this.allowed.add(type);
+	}
+
+	@Override
+	public Status checkInput(FilterInfo info) {
+		if (info.arrayLength() > this.maxArrayLength) return Status.REJECTED;
+		Class<?> type = info.serialClass();
+		if (type == null) return Status.UNDECIDED;
+		if (type.isArray()) {
+			while (type.isArray()) type = type.getComponentType();
+			// Only the array is created, and its elements are checked by themselves, so its type may be an interface
+			if (type.isInterface()) return Status.ALLOWED;
+		}
+		return isAllowed(type) ? Status.ALLOWED : Status.REJECTED;
+	}
+
+	private boolean isAllowed(Class<?> type) {
+		if (type.isPrimitive() || type.isEnum() || this.allowed.contains(type)) return true;
+		if (type.getName().startsWith(FRAMEWORK_PACKAGE) || PLATFORM_CLASSES.contains(type.getName())) return true;
+		if (type.getName().startsWith("java.util.Collections$")) return true; // Empty, singleton and unmodifiable views
+		for (Class<?> stateType : STATE_TYPES) {
+			if (stateType.isAssignableFrom(type)) return true;
+		}
+		return false;
+	}
+}
@@ -1,45 +1,206 @@
 package nl.uu.cs.iss.ga.sim2apl.core.platform;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.net.ServerSocket;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
 
 import nl.uu.cs.iss.ga.sim2apl.core.defaults.messenger.MessageReceiverNotFoundException;
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.MessageInterface;
 import nl.uu.cs.iss.ga.sim2apl.core.messaging.Messenger;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.Agent;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentState;
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.ams.DirectoryFacilitator;
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.ams.ReceiveRemoteAddress;
 import nl.uu.cs.iss.ga.sim2apl.core.logging.Loggable;
+import nl.uu.cs.iss.ga.sim2apl.core.tick.TickExecutor;
+import nl.uu.cs.iss.ga.sim2apl.core.tick.TickHookProcessor;
 
 /**
  * Prototype/Ad-Hoc/Hack solution for multiple platforms, in preparation for a
  * robust system.
+ * 
+ * Messages to agents on other platforms are sent over a pool of long-lived 
+ * connections per remote host and port. Each connection carries a stream of 
+ * frames, which consist of the length of the encoded message followed by the 
+ * message itself. Messages are encoded by an encoder of the connection they are 
+ * sent over and decoded by a decoder of the connection they arrive on (see 
+ * {@link Messenger#newStreamEncoder()}), so an encoding can refer back to the 
+ * earlier messages of the connection. 
+ * 
+ * The server reads all incoming connections on a single thread using a 
+ * selector, and hands complete frames to a pool of workers that decode and 
+ * deliver them. The frames of one connection are handled in order, while the 
+ * frames of different connections are handled in parallel, so a slow delivery 
+ * does not stall other inbound traffic. Frames larger than the maximum frame 
+ * size close their connection. When too many frames wait to be handled, the 
+ * server stops reading until the workers have caught up, so that the senders 
+ * are slowed down by TCP flow control instead of filling up memory.
+ * 
+ * Optionally, messages to other platforms are not sent right away, but are 
+ * collected per remote platform during a tick (see 
+ * {@link #setBatchRemoteMessages(boolean)}). At the end of the tick, the 
+ * messages for each remote platform are sent as a single compressed frame, 
+ * which the remote platform unpacks and delivers at once. This requires the 
+ * NetNode to be registered as a tick hook processor with the simulation 
+ * engine. 
+ * 
+ * A NetNode can also take part in distributed tick execution, in which a 
+ * coordinator drives the ticks of several platforms that each execute their 
+ * own agents. A worker platform executes a tick when the coordinator requests 
+ * it (see {@link #serveTicks(TickExecutor)}), and replies with the actions 
+ * its agents produced (see {@link #requestTick(String, int, int, long)}). 
+ * 
+ * Agents can move between platforms (see {@link Platform#migrate(AgentID, String, int)}), 
+ * and keep their AgentID when they do. Each NetNode keeps the locations of 
+ * the agents that moved that it knows of, and routes messages for these agents 
+ * to their new location instead of to the host and port in their AgentID. A 
+ * NetNode that moves an agent away tells all platforms it has sent frames to 
+ * about the new location, and forwards messages that still arrive for the 
+ * agent. 
+ * 
+ * The route to each receiver, which is either the local messenger or a remote 
+ * platform, is cached by AgentID, so routing a message takes a single lookup. 
+ * The route of an agent is forgotten when it moves, dies or is deregistered. 
  */
-public class NetNode<T extends MessageInterface> implements Messenger<T>, Runnable {
+public class NetNode<T extends MessageInterface> implements Messenger<T>, Runnable, TickHookProcessor {
 
 	protected final Loggable logger = Platform.getLogger();
 	protected final static ExecutorService THREAD_SERVICE = Executors.newCachedThreadPool();
+	/** The default number of connections that are opened to each remote platform. */
+	public final static int DEFAULT_CONNECTIONS_PER_PEER = 2;
+	/** The default maximal size in bytes of an incoming frame. */
+	public final static int DEFAULT_MAX_FRAME_SIZE = 16 * 1024 * 1024;
+	/** The default number of incoming frames that may wait to be handled before the server stops reading. */
+	public final static int DEFAULT_MAX_PENDING_FRAMES = 10_000;
+	/** The number of bytes of messages for one remote platform after which they are sent before the end of the tick. */
+	private final static int MAX_BATCH_SIZE = 1024 * 1024;
+	/** The code of a frame that holds a batch of messages. */
+	private final static int BATCH_FRAME = -3;
+	/** The code of a frame that requests the execution of a tick. */
+	private final static int TICK_FRAME = -4;
+	/** The code of a frame that holds the actions produced during a requested tick. */
+	private final static int TICK_DONE_FRAME = -5;
+	/** The code of a frame that holds the new location of an agent. */
+	private final static int LOCATION_FRAME = -6;
+	/** The code of a frame that holds the state of an agent that moves to the receiving platform. */
+	private final static int MIGRATE_FRAME = -7;
+	/** The code of a frame that requests the receiving platform to move some of its agents to another platform. */
+	private final static int MIGRATION_REQUEST_FRAME = -8;
+	/** The number of cached routes after which all routes are forgotten, so routes to agents that died elsewhere do not pile up. */
+	private final static int MAX_ROUTES = 1 << 20;
+	/** The initial size of the read buffer of a connection. */
+	private final static int READ_BUFFER_SIZE = 64 * 1024;
 
 	protected String host;
 	protected int port;
 	protected Messenger<T> innerMessenger;
-	protected boolean listening = true;
+	protected volatile boolean listening = true;
+	protected volatile Selector selector;
+	/** Decodes and delivers incoming frames. */
+	protected final ExecutorService workers;
+	protected final int maxFrameSize;
+	protected final int maxPendingFrames;
+	/** Incoming frames that were read but not yet handled. */
+	protected final AtomicInteger pendingFrames = new AtomicInteger();
+	/** Long-lived connections to the NetNodes of remote platforms. */
+	protected final ConnectionPool connections;
+	/** Whether messages to other platforms are collected until the end of the tick. */
+	protected volatile boolean batchRemoteMessages = false;
+	/** The messages to other platforms that were not sent yet, by host and port. */
+	protected final Map<String, Batch> batches = new ConcurrentHashMap<>();
+	/** The tick executor that executes the ticks requested by a coordinator, or null if this is not a worker. */
+	protected volatile TickExecutor tickWorker;
+	/** Executes the requested ticks one at a time, in the order in which they were requested. */
+	protected final ExecutorService tickService = Executors.newSingleThreadExecutor();
+	/** The ticks requested from workers that did not finish yet, by request number. */
+	protected final Map<Long, PendingTick> pendingTicks = new ConcurrentHashMap<>();
+	protected final AtomicLong tickRequests = new AtomicLong();
+	/** Whether a tick request was received for another node ID than the node ID of the platform. Only used by the tick service. */
+	private boolean nodeIDMismatchReported = false;
+	/** The platform of this NetNode, which receives the agents that move here. */
+	protected volatile Platform platform;
+	/** The locations of agents that moved, if they are not at the host and port of their AgentID. */
+	protected final Map<AgentID, InetSocketAddress> locations = new ConcurrentHashMap<>();
+	/** The cached routes to receivers of messages. */
+	private final Map<AgentID, Route> routes = new ConcurrentHashMap<>();
+	/** Creates the encoders of the messages that are sent over each connection. */
+	private final Supplier<Function<T, byte[]>> streamEncoders = this::newStreamEncoder;
+	/** The classes that may be deserialized from the state of agents that move here. */
+	private final MigrationFilter migrationFilter;
 
 	protected nl.uu.cs.iss.ga.sim2apl.core.fipa.ams.DirectoryFacilitator yellowPages;
 	
 	public NetNode(Messenger<T> localMessenger, String host, int port) {
+		this(localMessenger, host, port, DEFAULT_CONNECTIONS_PER_PEER);
+	}
+
+	/**
+	 * @param connectionsPerPeer Number of connections that are opened to each remote platform
+	 */
+	public NetNode(Messenger<T> localMessenger, String host, int port, int connectionsPerPeer) {
+		this(localMessenger, host, port, connectionsPerPeer, DEFAULT_MAX_FRAME_SIZE, DEFAULT_MAX_PENDING_FRAMES,
+				Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param connectionsPerPeer Number of connections that are opened to each remote platform
+	 * @param maxFrameSize Maximal size in bytes of an incoming frame. Connections that send larger frames are closed
+	 * @param maxPendingFrames Number of incoming frames that may wait to be handled before the server stops reading
+	 * @param nWorkers Number of threads that decode and deliver incoming frames
+	 */
+	public NetNode(Messenger<T> localMessenger, String host, int port, int connectionsPerPeer, int maxFrameSize,
+			int maxPendingFrames, int nWorkers) {
+		if (maxFrameSize < 1 || maxPendingFrames < 1) {
+			throw new IllegalArgumentException("Maximal frame size and number of pending frames must be positive");
+		}
 		this.host = host;
 		this.port = port;
 		this.innerMessenger = localMessenger;
+		this.connections = new ConnectionPool(connectionsPerPeer);
+		this.maxFrameSize = maxFrameSize;
+		this.maxPendingFrames = maxPendingFrames;
+		this.workers = Executors.newFixedThreadPool(nWorkers);
+		this.migrationFilter = new MigrationFilter(maxFrameSize);
 
 		if (!innerMessenger.implementsEncoding()) {
 			throw new IllegalArgumentException("Messenger must support encoding/decoding.");
@@ -52,72 +213,677 @@ public class NetNode<T extends MessageInterface> implements Messenger<T>, Runnab
 
 	@Override
 	public void run() {
-		try (ServerSocket serverSocket = new ServerSocket(port)) {
+		try (Selector selector = Selector.open(); ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+			this.selector = selector;
+			serverChannel.bind(new InetSocketAddress(port));
+			serverChannel.configureBlocking(false);
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
 			
-			logger.log(getClass(), Level.INFO, "Started server on port " + port + " | " + serverSocket.getInetAddress().getHostAddress());
+			logger.log(getClass(), Level.INFO, "Started server on port " + port + " | " + serverChannel.socket().getInetAddress().getHostAddress());
 
+			boolean paused = false;
 			while (listening) {
-				
-				try(Socket servSocket = serverSocket.accept()) {
-					
-					try (DataInputStream dis = new DataInputStream(servSocket.getInputStream())){						
-						int numBytes = dis.readInt();
-						switch(numBytes) {
-						case -1: // Got a request (from another Platform) for DF ('Yellow Pages') ID, with the remote Yellow Pages ID embedded into the request.
-							if (yellowPages == null) {
-								// TODO: Give back some error(code) or start waiting until there _is_ a DF.
-								break;
-							}
-							
-							String remoteHost = dis.readUTF();
-							int remotePort = dis.readInt();
-							
-							try (Socket clientSocket = new Socket(remoteHost, remotePort)) { //InetAddress.getByAddress(remoteHost), remotePort)) {
-								try(DataOutputStream dos = new DataOutputStream(clientSocket.getOutputStream())) {
-									dos.writeInt(-2); // See 'case -2' below.
-									dos.writeUTF(yellowPages.getAID().toString());
-								}
-
-							} catch (UnknownHostException ex) {
-								logger.log(getClass(), Level.WARNING, "NET2APL NetNode can't read remote Yellow Pages address error: " + ex.getMessage());
-							} catch (IOException ex) {
-								logger.log(getClass(), Level.WARNING, "NET2APL NetNode can't send to remote Yellow Pages error: " + ex.getMessage());
-							}
-							//NOTE: Intentional fallthrough!
-							
-						case -2: // Got a reply with the ID of a DF on another Platform. 
-							try {
-								nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID remoteYellowPages = new nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID(dis.readUTF());
-								yellowPages.addExternalTrigger(new ReceiveRemoteAddress(remoteYellowPages));
-							} catch (URISyntaxException ex) {
-								logger.log(getClass(), Level.WARNING, "NET2APL NetNode can't read remote Yellow Pages AgentID error: " + ex.getMessage());
-							}							
-							break;
-							
-						default: // Got a 'normal' message.
-							byte[] data = new byte[numBytes];
-							dis.readNBytes(data, 0, numBytes);
-													
-							this.deliverMessage(this.decodeMessage(data));
-							break;
-						}
+				selector.select();
+
+				// Backpressure: stop reading while too many frames wait to be handled, resume once half of them are
+				int pending = this.pendingFrames.get();
+				if (!paused && pending >= this.maxPendingFrames) {
+					paused = true;
+					setReadInterest(selector, false);
+				} else if (paused && pending <= this.maxPendingFrames / 2) {
+					paused = false;
+					setReadInterest(selector, true);
+				}
+
+				for (SelectionKey key : selector.selectedKeys()) {
+					if (!key.isValid()) continue;
+					if (key.isAcceptable()) {
+						SocketChannel channel = serverChannel.accept();
+						if (channel == null) continue;
+						channel.configureBlocking(false);
+						channel.register(selector, paused ? 0 : SelectionKey.OP_READ, new Inbound(channel));
+					} else if (key.isReadable()) {
+						inbound(key).read(key);
 					}
 				}
+				selector.selectedKeys().clear();
+			}
+
+			for (SelectionKey key : selector.keys()) {
+				Inbound inbound = inbound(key);
+				if (inbound != null) inbound.close(key);
 			}
 			
 			logger.log(getClass(), Level.INFO, "NET2APL Netnode server stopped");
 			
-		} catch (IOException ex) {
-			// TODO: logging/ error-handling
-			logger.log(getClass(), Level.SEVERE, "NET2APL NetNode server error: " + ex.getMessage());
-		} catch (MessageReceiverNotFoundException ex) {
+		} catch (IOException | ClosedSelectorException ex) {
+			if (listening) {
+				// TODO: logging/ error-handling
+				logger.log(getClass(), Level.SEVERE, "NET2APL NetNode server error: " + ex.getMessage());
+			} else {
+				logger.log(getClass(), Level.INFO, "NET2APL Netnode server stopped");
+			}
+		}
+	}
+
+	/**
+	 * Obtain the state of the incoming connection of a key.
+	 * @return The state of the connection, or null for the key of the server channel
+	 */
+	@SuppressWarnings("unchecked")
+	private Inbound inbound(SelectionKey key) {
+		return key.attachment() instanceof NetNode.Inbound ? (Inbound) key.attachment() : null;
+	}
+
+	private static void setReadInterest(Selector selector, boolean read) {
+		for (SelectionKey key : selector.keys()) {
+			if (key.isValid() && key.attachment() instanceof NetNode.Inbound) {
+				key.interestOps(read ? SelectionKey.OP_READ : 0);
+			}
+		}
+	}
+
+	/**
+	 * The state of an incoming connection. Bytes are read into a direct buffer until a frame is complete, after which 
+	 * the frame is copied out of the buffer and queued for the workers. The queue of a connection is drained by at 
+	 * most one worker at a time, so its frames are handled in the order in which they were received.
+	 */
+	private final class Inbound {
+		private final SocketChannel channel;
+		private ByteBuffer buffer;
+		private final Queue<Runnable> frames;
+		private final AtomicBoolean draining;
+		/** Decodes the messages of the connection, which are decoded one at a time in the order in which they arrive. */
+		private final Function<byte[], T> decoder;
+
+		private Inbound(SocketChannel channel) {
+			this.channel = channel;
+			this.buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+			this.frames = new ConcurrentLinkedQueue<>();
+			this.draining = new AtomicBoolean();
+			this.decoder = newStreamDecoder();
+		}
+
+		private void read(SelectionKey key) {
+			try {
+				if (this.channel.read(this.buffer) < 0) {
+					close(key);
+					return;
+				}
+				this.buffer.flip();
+				while (nextFrame()) {
+					// Take all complete frames from the buffer
+				}
+				this.buffer.compact();
+			} catch (IOException ex) {
+				logger.log(NetNode.class, Level.WARNING, "NET2APL NetNode connection error: " + ex.getMessage());
+				close(key);
+			}
+		}
+
+		/**
+		 * Take the next frame from the buffer if it is complete.
+		 * @return True if a frame was taken, false if more bytes are needed
+		 */
+		private boolean nextFrame() throws IOException {
+			if (this.buffer.remaining() < Integer.BYTES) return false;
+			int start = this.buffer.position();
+			int code = this.buffer.getInt(start);
+			int length = code >= 0 ? code : controlFrameLength(code, start + Integer.BYTES);
+			if (length > maxFrameSize || length < -1) {
+				throw new IOException("Frame of " + length + " bytes exceeds the maximal frame size of " + maxFrameSize);
+			}
+			if (length < 0 || this.buffer.remaining() < Integer.BYTES + length) {
+				if (length >= 0 && this.buffer.capacity() < Integer.BYTES + length) grow(Integer.BYTES + length);
+				return false;
+			}
+			byte[] data = new byte[length];
+			this.buffer.position(start + Integer.BYTES);
+			this.buffer.get(data);
+			submit(code >= 0 ? () -> handleStreamMessage(data) : () -> handleControlFrame(code, data));
+			return true;
+		}
+
+		/**
+		 * Determine the length of a control frame, which consists of strings and integers.
+		 * @return The length of the frame after its code, or -1 if the length is not known yet
+		 */
+		private int controlFrameLength(int code, int offset) throws IOException {
+			int length = 0;
+			switch (code) {
+			case -1: // A host, port and the ID of the remote Yellow Pages
+				for (int field = 0; field < 3; field++) {
+					if (field == 1) {
+						length += Integer.BYTES;
+						continue;
+					}
+					if (this.buffer.limit() < offset + length + Short.BYTES) return -1;
+					length += Short.BYTES + Short.toUnsignedInt(this.buffer.getShort(offset + length));
+				}
+				return length;
+			case -2: // The ID of the remote Yellow Pages
+				if (this.buffer.limit() < offset + Short.BYTES) return -1;
+				return Short.BYTES + Short.toUnsignedInt(this.buffer.getShort(offset));
+			case BATCH_FRAME: // The length of the batch, followed by the batch itself
+			case TICK_FRAME:
+			case TICK_DONE_FRAME:
+			case LOCATION_FRAME:
+			case MIGRATE_FRAME:
+			case MIGRATION_REQUEST_FRAME:
+				if (this.buffer.limit() < offset + Integer.BYTES) return -1;
+				int batchLength = this.buffer.getInt(offset);
+				if (batchLength < 0) throw new IOException("Negative batch length " + batchLength);
+				return (int) Math.min(Integer.MAX_VALUE, (long) Integer.BYTES + batchLength);
+			// NOTE: Any further frames should also start with their length, so they can be read before they are understood.
+			default:
+				throw new IOException("Unknown frame code " + code);
+			}
+		}
+
+		/** Replace the buffer by a larger one, which can hold at least the given number of bytes. */
+		private void grow(int size) {
+			ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(size, this.buffer.capacity() * 2));
+			grown.put(this.buffer);
+			grown.flip();
+			this.buffer = grown;
+		}
+
+		private void submit(Runnable frame) {
+			pendingFrames.incrementAndGet();
+			this.frames.add(frame);
+			if (this.draining.compareAndSet(false, true)) workers.execute(this::drain);
+		}
+
+		private void drain() {
+			do {
+				Runnable frame;
+				while ((frame = this.frames.poll()) != null) {
+					try {
+						frame.run();
+					} finally {
+						// Wake up the server if it stopped reading and enough frames have been handled
+						if (pendingFrames.decrementAndGet() == maxPendingFrames / 2) {
+							Selector selector = NetNode.this.selector;
+							if (selector != null) selector.wakeup();
+						}
+					}
+				}
+				this.draining.set(false);
+			} while (!this.frames.isEmpty() && this.draining.compareAndSet(false, true));
+		}
+
+		/**
+		 * Decode and deliver a message of this connection. A message that cannot be decoded closes the connection, as 
+		 * the later messages may refer to it, and the later frames that were already read are dropped. The sender 
+		 * then reconnects with a new encoder.
+		 */
+		private void handleStreamMessage(byte[] data) {
+			if (!this.channel.isOpen()) return;
+			try {
+				handleMessage(data, this.decoder);
+			} catch (RuntimeException ex) {
+				logger.log(NetNode.class, Level.WARNING, "NET2APL NetNode closes connection that can't be decoded: " + ex.getMessage());
+				try {
+					// Closing the channel also cancels its key
+					this.channel.close();
+				} catch (IOException closeEx) {
+					// Nothing left to do with a connection that cannot be closed
+				}
+			}
+		}
+
+		private void close(SelectionKey key) {
+			key.cancel();
+			try {
+				this.channel.close();
+			} catch (IOException ex) {
+				// Nothing left to do with a connection that cannot be closed
+			}
+		}
+	}
+
+	/**
+	 * Decode and deliver a message that was received from another platform.
+	 */
+	protected void handleMessage(byte[] data) {
+		try {
+			handleMessage(data, this::decodeMessage);
+		} catch (RuntimeException ex) {
+			logger.log(getClass(), Level.SEVERE, "NET2APL NetNode can't decode message: " + ex);
+		}
+	}
+
+	/**
+	 * Decode a message with the given decoder, such as the decoder of the connection it was received over, and 
+	 * deliver it. A message that cannot be delivered is reported.
+	 * @throws RuntimeException If the decoder cannot decode the message
+	 */
+	protected void handleMessage(byte[] data, Function<byte[], T> decoder) {
+		T message = decoder.apply(data);
+		try {
+			this.deliverMessage(message);
+		} catch (MessageReceiverNotFoundException | RuntimeException ex) {
 			// TODO: logging/ error-handling
-			logger.log(getClass(), Level.SEVERE, "NET2APL NetNode internal error: " + ex.getMessage());
+			// The connection carries further messages, so a message that cannot be delivered does not end it
+			logger.log(getClass(), Level.SEVERE, "NET2APL NetNode internal error: " + ex);
+		}
+	}
+
+	/**
+	 * Handle a control frame that was received from another platform.
+	 * @param code The code of the frame, which determines its contents
+	 * @param data The contents of the frame after its code
+	 */
+	@SuppressWarnings("fallthrough")
+	protected void handleControlFrame(int code, byte[] data) {
+		try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data))) {
+			switch(code) {
+			case -1: // Got a request (from another Platform) for DF ('Yellow Pages') ID, with the remote Yellow Pages ID embedded into the request.
+				if (yellowPages == null) {
+					// TODO: Give back some error(code) or start waiting until there _is_ a DF.
+					break;
+				}
+				
+				String remoteHost = dis.readUTF();
+				int remotePort = dis.readInt();
+				
+				try (Socket clientSocket = new Socket(remoteHost, remotePort)) { //InetAddress.getByAddress(remoteHost), remotePort)) {
+					try(DataOutputStream dos = new DataOutputStream(clientSocket.getOutputStream())) {
+						dos.writeInt(-2); // See 'case -2' below.
+						dos.writeUTF(yellowPages.getAID().toString());
+					}
+
+				} catch (UnknownHostException ex) {
+					logger.log(getClass(), Level.WARNING, "NET2APL NetNode can't read remote Yellow Pages address error: " + ex.getMessage());
+				} catch (IOException ex) {
+					logger.log(getClass(), Level.WARNING, "NET2APL NetNode can't send to remote Yellow Pages error: " + ex.getMessage());
+				}
+				//NOTE: Intentional fallthrough!
+				
+			case -2: // Got a reply with the ID of a DF on another Platform. 
+				try {
+					nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID remoteYellowPages = new nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID(dis.readUTF());
+					if (yellowPages != null) {
+						yellowPages.addExternalTrigger(new ReceiveRemoteAddress(remoteYellowPages));
+					}
+				} catch (URISyntaxException ex) {
+					logger.log(getClass(), Level.WARNING, "NET2APL NetNode can't read remote Yellow Pages AgentID error: " + ex.getMessage());
+				}							
+				break;
+
+			case BATCH_FRAME: // Got a batch of messages that were sent during a tick on another Platform.
+				dis.readInt();
+				handleBatch(dis);
+				break;
+
+			case TICK_FRAME: // Got a request from a coordinator to execute a tick.
+				dis.readInt();
+				handleTickRequest(dis.readLong(), dis.readInt(), dis.readLong(), dis.readUTF(), dis.readInt());
+				break;
+
+			case TICK_DONE_FRAME: // Got the actions of a tick that was requested from a worker.
+				dis.readInt();
+				long request = dis.readLong();
+				int parts = dis.readInt();
+				HashMap<AgentID, List<String>> actions = readActions(dis);
+				PendingTick pending = this.pendingTicks.get(request);
+				if (pending != null) {
+					pending.arrive(parts, actions);
+				}
+				break;
+
+			case LOCATION_FRAME: // Got the new location of an agent that moved between other Platforms.
+				dis.readInt();
+				try {
+					AgentID moved = new AgentID(dis.readUTF());
+					setLocation(moved, dis.readUTF(), dis.readInt());
+				} catch (URISyntaxException ex) {
+					logger.log(getClass(), Level.WARNING, "NET2APL NetNode can't read AgentID of moved agent error: " + ex.getMessage());
+				}
+				break;
+
+			case MIGRATE_FRAME: // Got an agent that moves to this Platform.
+				dis.readInt();
+				handleMigration(dis);
+				break;
+
+			case MIGRATION_REQUEST_FRAME: // Got a request from a coordinator to move some agents to another Platform.
+				dis.readInt();
+				double fraction = dis.readDouble();
+				String destinationHost = dis.readUTF();
+				int destinationPort = dis.readInt();
+				Platform local = this.platform;
+				if (local != null) {
+					local.migrateAgents(fraction, destinationHost, destinationPort);
+				}
+				break;
+			}
+		} catch (IOException ex) {
+			logger.log(getClass(), Level.WARNING, "NET2APL NetNode can't read control frame error: " + ex.getMessage());
 		}
 	}
 	
+	/**
+	 * Unpack a compressed batch of messages, and deliver them in the order in which they were sent.
+	 * The batch consists of its uncompressed length, followed by the compressed messages, each preceded by its length.
+	 */
+	protected void handleBatch(DataInputStream dis) throws IOException {
+		int rawLength = dis.readInt();
+		if (rawLength < 0 || rawLength > this.maxFrameSize) {
+			logger.log(getClass(), Level.WARNING, "NET2APL NetNode discarded batch of " + rawLength + " bytes");
+			return;
+		}
+		byte[] raw = new byte[rawLength];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(dis.readAllBytes());
+			int inflated = 0;
+			while (inflated < rawLength && !inflater.finished()) {
+				int n = inflater.inflate(raw, inflated, rawLength - inflated);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+				inflated += n;
+			}
+			if (inflated < rawLength) throw new IOException("Batch is shorter than its length of " + rawLength + " bytes");
+		} catch (DataFormatException ex) {
+			throw new IOException("Batch is not compressed correctly: " + ex.getMessage());
+		} finally {
+			inflater.end();
+		}
+
+		// Decode all messages before delivering any of them
+		DataInputStream messages = new DataInputStream(new ByteArrayInputStream(raw));
+		List<byte[]> encoded = new ArrayList<>();
+		while (messages.available() > 0) {
+			byte[] message = new byte[messages.readInt()];
+			messages.readFully(message);
+			encoded.add(message);
+		}
+		for (byte[] message : encoded) {
+			handleMessage(message);
+		}
+	}
+
+	/**
+	 * Execute the ticks requested by a coordinator with the given tick executor, which then serves as a worker for 
+	 * the coordinator. The executor skips ahead if the coordinator requests a later tick than its current tick. 
+	 * @param executor The tick executor of the platform of this NetNode, or null to stop serving ticks
+	 */
+	public void serveTicks(TickExecutor executor) {
+		this.tickWorker = executor;
+	}
+
+	/**
+	 * Request a worker platform to execute a tick. The worker replies to the host and port of this NetNode, so this 
+	 * NetNode should be reachable by the worker at the address it was created with.
+	 * @param host Host of the NetNode of the worker
+	 * @param port Port of the NetNode of the worker
+	 * @param tick The tick to execute
+	 * @param nodeID The node ID that the coordinator assigned to the worker (see {@link Platform#setNodeID(long)})
+	 * @return A future that completes with the actions that were produced by the agents of the worker
+	 */
+	public CompletableFuture<HashMap<AgentID, List<String>>> requestTick(String host, int port, int tick, long nodeID) {
+		long request = this.tickRequests.incrementAndGet();
+		CompletableFuture<HashMap<AgentID, List<String>>> result = new CompletableFuture<>();
+		this.pendingTicks.put(request, new PendingTick(result));
+		result.whenComplete((actions, ex) -> this.pendingTicks.remove(request));
+		try {
+			ByteArrayOutputStream frame = new ByteArrayOutputStream();
+			DataOutputStream dos = new DataOutputStream(frame);
+			dos.writeLong(request);
+			dos.writeInt(tick);
+			dos.writeLong(nodeID);
+			dos.writeUTF(this.host);
+			dos.writeInt(this.port);
+			this.connections.send(host, port, 0, TICK_FRAME, frame.toByteArray());
+		} catch (IOException ex) {
+			result.completeExceptionally(ex);
+		}
+		return result;
+	}
+
+	/**
+	 * Execute a tick that was requested by a coordinator, and reply with the produced actions. The tick is executed
+	 * on a thread of its own, so messages keep being delivered while the tick runs. A tick that is requested while an 
+	 * earlier tick still runs, e.g. because the coordinator stopped waiting for it, is queued until that tick is done,
+	 * as the tick executor executes one tick at a time. A worker of which the node ID differs from the node ID that the
+	 * coordinator assigned to it still executes the tick, but its agents do not draw the same random numbers in every
+	 * run, so this is reported.
+	 */
+	protected void handleTickRequest(long request, int tick, long nodeID, String coordinatorHost, int coordinatorPort) {
+		TickExecutor executor = this.tickWorker;
+		if (executor == null) {
+			logger.log(getClass(), Level.WARNING, "NET2APL NetNode got a tick request, but does not serve ticks");
+			return;
+		}
+		this.tickService.submit(() -> {
+			Platform local = this.platform;
+			if (local != null && local.getNodeID() != nodeID && !this.nodeIDMismatchReported) {
+				this.nodeIDMismatchReported = true;
+				logger.log(getClass(), Level.WARNING, "NET2APL NetNode has node ID " + local.getNodeID()
+						+ ", but the coordinator assigned node ID " + nodeID + " to it (see Platform.setNodeID)");
+			}
+			HashMap<AgentID, List<String>> actions;
+			try {
+				if (tick > executor.getCurrentTick()) {
+					executor.skipToTick(tick);
+				}
+				actions = executor.doTick();
+			} catch (RuntimeException ex) {
+				// The coordinator waits for every worker, so it still gets a reply
+				logger.log(getClass(), Level.SEVERE, "NET2APL NetNode tick " + tick + " failed: " + ex);
+				actions = new HashMap<>();
+			}
+			// Messages sent during the tick leave before the coordinator learns that the tick is done. The frames of a
+			// connection are handled in order, so the reply is sent over each connection to the coordinator, and the
+			// coordinator only finishes the tick when the reply arrived over all of them. The first part holds the actions.
+			flush();
+			try {
+				int parts = this.connections.getConnectionsPerPeer();
+				for (int part = 0; part < parts; part++) {
+					ByteArrayOutputStream frame = new ByteArrayOutputStream();
+					DataOutputStream dos = new DataOutputStream(frame);
+					dos.writeLong(request);
+					dos.writeInt(parts);
+					writeActions(dos, part == 0 ? actions : Collections.emptyMap());
+					this.connections.send(coordinatorHost, coordinatorPort, part, TICK_DONE_FRAME, frame.toByteArray());
+				}
+			} catch (IOException ex) {
+				logger.log(getClass(), Level.SEVERE, "NET2APL NetNode can't reply to coordinator error: " + ex.getMessage());
+			}
+		});
+	}
+
+	/** A tick that was requested from a worker, which is done when the reply of the worker arrived in all its parts. */
+	protected static final class PendingTick {
+		private final CompletableFuture<HashMap<AgentID, List<String>>> result;
+		private final HashMap<AgentID, List<String>> actions = new LinkedHashMap<>();
+		private int arrived = 0;
+
+		private PendingTick(CompletableFuture<HashMap<AgentID, List<String>>> result) {
+			this.result = result;
+		}
+
+		private synchronized void arrive(int parts, HashMap<AgentID, List<String>> actions) {
+			this.actions.putAll(actions);
+			if (++this.arrived == parts) {
+				this.result.complete(this.actions);
+			}
+		}
+	}
+
+	private static void writeActions(DataOutputStream dos, Map<AgentID, List<String>> actions) throws IOException {
+		dos.writeInt(actions.size());
+		for (Map.Entry<AgentID, List<String>> entry : actions.entrySet()) {
+			dos.writeUTF(entry.getKey().toString());
+			List<String> agentActions = entry.getValue();
+			dos.writeInt(agentActions == null ? 0 : agentActions.size());
+			if (agentActions == null) continue;
+			for (String action : agentActions) {
+				// Actions are not limited to the 64KB of writeUTF
+				byte[] bytes = action.getBytes(StandardCharsets.UTF_8);
+				dos.writeInt(bytes.length);
+				dos.write(bytes);
+			}
+		}
+	}
+
+	private HashMap<AgentID, List<String>> readActions(DataInputStream dis) throws IOException {
+		int nAgents = dis.readInt();
+		HashMap<AgentID, List<String>> actions = new LinkedHashMap<>();
+		for (int i = 0; i < nAgents; i++) {
+			String agent = dis.readUTF();
+			int nActions = dis.readInt();
+			List<String> agentActions = new ArrayList<>(nActions);
+			for (int j = 0; j < nActions; j++) {
+				byte[] bytes = new byte[dis.readInt()];
+				dis.readFully(bytes);
+				agentActions.add(new String(bytes, StandardCharsets.UTF_8));
+			}
+			try {
+				actions.put(new AgentID(agent), agentActions);
+			} catch (URISyntaxException ex) {
+				logger.log(getClass(), Level.WARNING, "NET2APL NetNode can't read AgentID of worker error: " + ex.getMessage());
+			}
+		}
+		return actions;
+	}
+
+	/** Called by the platform of this NetNode when it is created. */
+	void setPlatform(Platform platform) {
+		this.platform = platform;
+	}
+
+	/**
+	 * Set the location of an agent that moved, so messages for the agent are routed to that location.
+	 */
+	protected void setLocation(AgentID agentID, String host, int port) {
+		if (host.equals(agentID.getHost()) && port == agentID.getPort()) {
+			this.locations.remove(agentID);
+		} else {
+			this.locations.put(agentID, InetSocketAddress.createUnresolved(host, port));
+		}
+		this.routes.remove(agentID);
+	}
+
+	/**
+	 * Move an agent of this platform to another platform, which creates the agent from the agent arguments it has for 
+	 * the given type. The agent is put in the transit state, and its state is sent to the other platform. Messages for 
+	 * the agent are routed to the other platform from now on, and all platforms this NetNode has sent frames to are 
+	 * told about its new location.
+	 * @param agent The agent to move
+	 * @param type The type of the agent, under which the other platform knows its agent arguments
+	 * @return True if the agent was sent to the other platform
+	 */
+	boolean migrate(Agent agent, String type, String host, int port) {
+		AgentID agentID = agent.getAID();
+		// Messages that reach the agent while it moves are routed again, and wait until the location is known
+		synchronized (agent) {
+			AgentState state = agent.moveOut();
+			try {
+				ByteArrayOutputStream frame = new ByteArrayOutputStream();
+				DataOutputStream dos = new DataOutputStream(frame);
+				dos.writeUTF(type);
+				dos.writeUTF(agentID.toString());
+				try (ObjectOutputStream oos = new ObjectOutputStream(dos)) {
+					oos.writeObject(state);
+				}
+				// Messages for the agent use the same connection, so they arrive after the agent itself
+				this.connections.send(host, port, agentID.hashCode(), MIGRATE_FRAME, frame.toByteArray());
+			} catch (IOException ex) {
+				agent.cancelMoveOut();
+				logger.log(getClass(), Level.SEVERE, "NET2APL NetNode can't move agent " + agentID + " error: " + ex);
+				return false;
+			}
+			setLocation(agentID, host, port);
+		}
+
+		try {
+			ByteArrayOutputStream frame = new ByteArrayOutputStream();
+			DataOutputStream dos = new DataOutputStream(frame);
+			dos.writeUTF(agentID.toString());
+			dos.writeUTF(host);
+			dos.writeInt(port);
+			byte[] location = frame.toByteArray();
+			for (InetSocketAddress peer : this.connections.getPeers()) {
+				if (peer.getHostString().equals(host) && peer.getPort() == port) continue;
+				this.connections.send(peer.getHostString(), peer.getPort(), 0, LOCATION_FRAME, location);
+			}
+		} catch (IOException ex) {
+			// Platforms that were not told route the messages for the agent through this NetNode
+			logger.log(getClass(), Level.WARNING, "NET2APL NetNode can't send location of agent " + agentID + " error: " + ex.getMessage());
+		}
+		return true;
+	}
+
+	/**
+	 * Allow the given classes to be deserialized from the state of agents that move to this platform. The plans, 
+	 * goals, triggers, contexts and messages of agents are allowed already, as are the classes of this framework, 
+	 * enums, and common value and collection classes of Java. Other classes that are referenced by the state of 
+	 * agents, such as the types of the fields of plans, have to be allowed on each platform that agents move to.
+	 * @param classes The classes to allow
+	 */
+	public void allowMigratedClasses(Class<?>... classes) {
+		for (Class<?> type : classes) {
+			this.migrationFilter.allow(type);
+		}
+	}
+
+	/**
+	 * Create an agent that moves to this platform from another platform. Only the classes that are allowed by the 
+	 * migration filter are deserialized (see {@link #allowMigratedClasses(Class...)}).
+	 */
+	protected void handleMigration(DataInputStream dis) throws IOException {
+		String type = dis.readUTF();
+		String agent = dis.readUTF();
+		Platform local = this.platform;
+		try (ObjectInputStream ois = new ObjectInputStream(dis)) {
+			ois.setObjectInputFilter(this.migrationFilter);
+			AgentID agentID = new AgentID(agent);
+			AgentState state = (AgentState) ois.readObject();
+			if (local == null || !local.moveIn(type, agentID, state)) {
+				logger.log(getClass(), Level.SEVERE, "NET2APL NetNode can't create moved agent " + agent + " of type " + type);
+				return;
+			}
+			this.locations.put(agentID, InetSocketAddress.createUnresolved(this.host, this.port));
+			this.routes.remove(agentID);
+		} catch (InvalidClassException ex) {
+			logger.log(getClass(), Level.SEVERE, "NET2APL NetNode rejected moved agent " + agent + ", its state holds a class that is not allowed: " + ex.getMessage());
+		} catch (URISyntaxException | ClassNotFoundException ex) {
+			logger.log(getClass(), Level.SEVERE, "NET2APL NetNode can't read moved agent " + agent + " error: " + ex);
+		}
+	}
+
+	/**
+	 * Request a platform to move a fraction of its agents to another platform.
+	 * @param host Host of the NetNode of the platform that moves its agents
+	 * @param port Port of the NetNode of the platform that moves its agents
+	 * @param fraction Fraction of the agents to move
+	 * @param destinationHost Host of the NetNode of the platform that receives the agents
+	 * @param destinationPort Port of the NetNode of the platform that receives the agents
+	 */
+	public void requestMigration(String host, int port, double fraction, String destinationHost, int destinationPort) {
+		try {
+			ByteArrayOutputStream frame = new ByteArrayOutputStream();
+			DataOutputStream dos = new DataOutputStream(frame);
+			dos.writeDouble(fraction);
+			dos.writeUTF(destinationHost);
+			dos.writeInt(destinationPort);
+			// Tick requests use the same connection, so the agents move before the next tick is requested
+			this.connections.send(host, port, 0, MIGRATION_REQUEST_FRAME, frame.toByteArray());
+		} catch (IOException ex) {
+			logger.log(getClass(), Level.SEVERE, "NET2APL NetNode can't request migration error: " + ex.getMessage());
+		}
+	}
+
 	public void stop() {
 		this.listening = false;
+		Selector selector = this.selector;
+		if (selector != null) {
+			selector.wakeup();
+		}
+		this.connections.close();
+		this.workers.shutdown();
+		this.tickService.shutdown();
 	}
 
 	public void requestRemoteID(String remoteHost, int remotePort) {
@@ -142,6 +908,7 @@ public class NetNode<T extends MessageInterface> implements Messenger<T>, Runnab
 	
 	@Override
 	public void agentDied(nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID agentID) {
+		this.routes.remove(agentID);
 		innerMessenger.agentDied(agentID);
 	}
 
@@ -153,27 +920,50 @@ public class NetNode<T extends MessageInterface> implements Messenger<T>, Runnab
 		innerMessenger.register(agent);
 	}
 
+	@Override
+	public void registerAll(Collection<? extends Agent> agents) {
+		for (Agent agent : agents) {
+			if (agent instanceof nl.uu.cs.iss.ga.sim2apl.core.fipa.ams.DirectoryFacilitator) {
+				yellowPages = (DirectoryFacilitator) agent;
+			}
+		}
+		innerMessenger.registerAll(agents);
+	}
+
 	@Override
 	public void deregister(nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID agentID) {
+		this.routes.remove(agentID);
 		innerMessenger.deregister(agentID);
 	}
 
 	@Override
 	public void deliverMessage(nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID receiver, T message) throws MessageReceiverNotFoundException {
-		String remoteHost = receiver.getHost();
-		int remotePort = receiver.getPort();
+		Route route = this.routes.get(receiver);
+		if (route == null) {
+			route = route(receiver);
+		}
 
-		if (host.equals(remoteHost) && port == remotePort) {
+		if (route == Route.LOCAL) {
 			innerMessenger.deliverMessage(receiver, message);
+		} else if (route.moved) {
+			// Messages for an agent that moved use the connection over which the agent was sent, so they arrive after it
+			try {
+				this.connections.send(route.peer, receiver.hashCode(), message, this.streamEncoders);
+			} catch (IOException ex) {
+				logger.log(getClass(), Level.SEVERE, "NET2APL NetNode send error: " + ex.getMessage());
+			}
+		} else if (this.batchRemoteMessages) {
+			byte[] encoded = this.encodeMessage(message);
+			Route remote = route;
+			Batch batch = this.batches.computeIfAbsent(remote.key, key -> new Batch(remote.host, remote.port));
+			if (batch.add(encoded) >= MAX_BATCH_SIZE) {
+				flush(batch);
+			}
 		} else {
-			try (Socket clientSocket = new Socket(remoteHost, remotePort)) {
-				byte[] asbytes = this.encodeMessage(message);
-								
-				try(DataOutputStream dos = new DataOutputStream(clientSocket.getOutputStream())) {
-					dos.writeInt(asbytes.length);
-					dos.write(asbytes);
-				}
-
+			try {
+				// Messages of the same sender share a connection, so they arrive in order
+				AgentID sender = message.getSender();
+				this.connections.send(route.peer, sender == null ? 0 : sender.hashCode(), message, this.streamEncoders);
 			} catch (UnknownHostException ex) {
 				logger.log(getClass(), Level.SEVERE, "NET2APL NetNode send error: " + ex.getMessage());
 			} catch (IOException ex) {
@@ -182,6 +972,55 @@ public class NetNode<T extends MessageInterface> implements Messenger<T>, Runnab
 		}
 	}
 
+	/**
+	 * Determine the route to a receiver, and cache it.
+	 */
+	private Route route(AgentID receiver) {
+		InetSocketAddress location = this.locations.get(receiver);
+		String remoteHost = location == null ? receiver.getHost() : location.getHostString();
+		int remotePort = location == null ? receiver.getPort() : location.getPort();
+
+		Route route;
+		if (host.equals(remoteHost) && port == remotePort) {
+			route = Route.LOCAL;
+		} else {
+			route = new Route(this.connections.peer(remoteHost, remotePort), remoteHost, remotePort, location != null);
+		}
+		if (this.routes.size() >= MAX_ROUTES) {
+			this.routes.clear();
+		}
+		this.routes.put(receiver, route);
+		if (this.locations.get(receiver) != location) {
+			// The receiver moved while its route was determined
+			this.routes.remove(receiver, route);
+		}
+		return route;
+	}
+
+	/**
+	 * The route to a receiver: either the local messenger, or a remote platform.
+	 */
+	private static final class Route {
+		/** The route to agents on this platform. */
+		static final Route LOCAL = new Route(null, null, 0, false);
+
+		final ConnectionPool.Peer peer;
+		final String host;
+		final int port;
+		/** The host and port of the remote platform, which identify its batch. */
+		final String key;
+		/** Whether the receiver moved to the remote platform. */
+		final boolean moved;
+
+		private Route(ConnectionPool.Peer peer, String host, int port, boolean moved) {
+			this.peer = peer;
+			this.host = host;
+			this.port = port;
+			this.key = host + ":" + port;
+			this.moved = moved;
+		}
+	}
+
 	@Override
 	public void deliverMessage(T message) throws MessageReceiverNotFoundException {
 		for (AgentID receiver : message.getReceiver()) {
@@ -204,4 +1043,120 @@ public class NetNode<T extends MessageInterface> implements Messenger<T>, Runnab
 		return innerMessenger.decodeMessage(asBytes);
 	}
 
+	@Override
+	public Function<T, byte[]> newStreamEncoder() {
+		return innerMessenger.newStreamEncoder();
+	}
+
+	@Override
+	public Function<byte[], T> newStreamDecoder() {
+		return innerMessenger.newStreamDecoder();
+	}
+
+	/**
+	 * Collect messages to other platforms until the end of the tick, and send them as one compressed frame per
+	 * remote platform, instead of sending each message as soon as it is delivered. The NetNode must be registered as
+	 * a tick hook processor with the simulation engine for the messages to be sent. Messages that were collected when
+	 * batching is switched off are sent right away.
+	 * @param batch True to collect messages until the end of the tick
+	 */
+	public void setBatchRemoteMessages(boolean batch) {
+		this.batchRemoteMessages = batch;
+		if (!batch) {
+			flush();
+		}
+	}
+
+	public boolean isBatchRemoteMessages() {
+		return this.batchRemoteMessages;
+	}
+
+	/**
+	 * Send all messages to other platforms that were collected so far.
+	 */
+	public void flush() {
+		for (Batch batch : this.batches.values()) {
+			flush(batch);
+		}
+	}
+
+	private void flush(Batch batch) {
+		// Batches of the same platform are taken and sent by one thread at a time, so they arrive in order
+		synchronized (batch.sendLock) {
+			byte[] raw = batch.take();
+			if (raw == null) return;
+			try {
+				ByteArrayOutputStream frame = new ByteArrayOutputStream(raw.length / 4 + 16);
+				DataOutputStream dos = new DataOutputStream(frame);
+				dos.writeInt(raw.length);
+				Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+				try (DeflaterOutputStream deflated = new DeflaterOutputStream(dos, deflater)) {
+					deflated.write(raw);
+				} finally {
+					deflater.end();
+				}
+				this.connections.send(batch.host, batch.port, 0, BATCH_FRAME, frame.toByteArray());
+			} catch (IOException ex) {
+				logger.log(getClass(), Level.SEVERE, "NET2APL NetNode send error: " + ex.getMessage());
+			}
+		}
+	}
+
+	@Override
+	public void tickPreHook(long startingTick) {
+		// Messages are sent at the end of the tick
+	}
+
+	@Override
+	public void tickPostHook(long finishedTick, int tickDuration, HashMap<AgentID, List<String>> producedAgentActions) {
+		flush();
+	}
+
+	@Override
+	public void simulationFinishedHook(long lastTick, int lastTickDuration) {
+		flush();
+	}
+
+	/**
+	 * Messages are only sent during ticks, and are sent at the end of the tick in which they were sent,
+	 * so the NetNode does not need any ticks of its own.
+	 */
+	@Override
+	public long getNextHookTick(long fromTick) {
+		return -1;
+	}
+
+	/**
+	 * The encoded messages for one remote platform that were not sent yet, each preceded by its length.
+	 */
+	private static final class Batch {
+		private final String host;
+		private final int port;
+		private final Object sendLock = new Object();
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		private Batch(String host, int port) {
+			this.host = host;
+			this.port = port;
+		}
+
+		/** @return The number of bytes in the batch after adding the message */
+		private synchronized int add(byte[] message) {
+			this.buffer.write(message.length >>> 24);
+			this.buffer.write(message.length >>> 16);
+			this.buffer.write(message.length >>> 8);
+			this.buffer.write(message.length);
+			this.buffer.writeBytes(message);
+			return this.buffer.size();
+		}
+
+		/** @return The messages in the batch, or null if the batch is empty */
+		private synchronized byte[] take() {
+			if (this.buffer.size() == 0) return null;
+			byte[] raw = this.buffer.toByteArray();
+			this.buffer = new ByteArrayOutputStream(raw.length);
+			return raw;
+		}
+	}
+
 }
@@ -1,14 +1,19 @@
 package nl.uu.cs.iss.ga.sim2apl.core.platform;
 
 import nl.uu.cs.iss.ga.sim2apl.core.agent.Agent;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentArchetype;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentArguments;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentCreationFailedException;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentKillSwitch;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentState;
 import nl.uu.cs.iss.ga.sim2apl.core.defaults.messenger.DefaultMessenger;
 import nl.uu.cs.iss.ga.sim2apl.core.deliberation.DeliberationRunnable;
 import nl.uu.cs.iss.ga.sim2apl.core.fipa.ams.DirectoryFacilitator;
 import nl.uu.cs.iss.ga.sim2apl.core.logging.ConsoleLogger;
+import nl.uu.cs.iss.ga.sim2apl.core.defaults.messenger.DefaultMessageIDGenerator;
 import nl.uu.cs.iss.ga.sim2apl.core.logging.Loggable;
+import nl.uu.cs.iss.ga.sim2apl.core.messaging.MessageIDGenerator;
 import nl.uu.cs.iss.ga.sim2apl.core.messaging.Messenger;
 import nl.uu.cs.iss.ga.sim2apl.core.tick.DefaultBlockingTickExecutor;
 import nl.uu.cs.iss.ga.sim2apl.core.tick.TickExecutor;
@@ -17,6 +22,9 @@ import java.net.InetAddress;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
 import java.util.*;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * A Platform is a container that maintains the available thread pool, agent factories,
@@ -66,6 +74,14 @@ public final class Platform {
      * The messenger that is used for direct communication between agents.
      */
     private final Messenger<?> messenger;
+    /**
+     * The generator that produces the IDs with which agents stamp the messages they send.
+     */
+    private MessageIDGenerator messageIDGenerator;
+    /**
+     * The ID of this platform among the platforms of a distributed simulation, or 0 if it runs on its own
+     */
+    private long nodeID;
     /**
      * The Registered Agents
      */
@@ -81,6 +97,34 @@ public final class Platform {
     private final Set<AgentID> remoteDfs;
     private final ArrayList<String> remoteHosts;
     private final ArrayList<Integer> remotePorts;
+    /**
+     * The index that is given to the next agent that registers if no index is free
+     */
+    private int nextAgentIndex;
+    /**
+     * Indices of agents that were deregistered, which are given to agents that register later, lowest first.
+     * Guarded by itself, as agents that die release their index while the platform may be locked
+     */
+    private final BitSet freeAgentIndices = new BitSet();
+    /**
+     * The number of agents that registered so far, including agents that were deregistered
+     */
+    private long nofRegistrations;
+    /**
+     * The seed from which the random number streams of agents are derived
+     */
+    private long randomSeed;
+    /**
+     * Agents whose registration is deferred, per thread that is constructing agents for a bulk registration
+     */
+    private final ThreadLocal<List<Agent>> deferredRegistrations;
+
+    /**
+     * The agent arguments of the types of agents that can move between platforms, by type, and the types by the
+     * archetypes of these arguments
+     */
+    private final Map<String, AgentArguments> migratableTypes;
+    private final Map<AgentArchetype, String> migratableArchetypes;
 
     /**
      * Sets the threadpool to a new FixedThreadPool with the given amount of execution threads.
@@ -98,6 +142,10 @@ public final class Platform {
         this.test = new HashMap<>();
         this.remoteHosts = new ArrayList<>();
         this.remotePorts = new ArrayList<>();
+        this.deferredRegistrations = new ThreadLocal<>();
+        this.migratableTypes = new HashMap<>();
+        this.migratableArchetypes = new IdentityHashMap<>();
+        this.randomSeed = new SplittableRandom().nextLong();
     }
 
     /**
@@ -122,10 +170,13 @@ public final class Platform {
         } else if (!messenger.implementsEncoding()) {
             platform = new Platform(executor, messenger);
         } else {
-            platform = new Platform(executor, new NetNode<>(messenger, host, port));
+            NetNode<?> netNode = new NetNode<>(messenger, host, port);
+            platform = new Platform(executor, netNode);
+            netNode.setPlatform(platform);
         }
         platform.host = host;
         platform.port = port;
+        platform.messageIDGenerator = new DefaultMessageIDGenerator(host, port);
         platform.setLogger(logger);
 
         if (otherHosts != null && otherPorts != null) {
@@ -166,7 +217,19 @@ public final class Platform {
     //// AMS FUNCTIONALITY ///
     //////////////////////////
 
-    public synchronized void register(Agent agent) {
+    public void register(Agent agent) {
+        List<Agent> deferred = this.deferredRegistrations.get();
+        if (deferred != null) {
+            // The agent is constructed by createAgents, which registers all agents at once afterwards
+            deferred.add(agent);
+            return;
+        }
+        synchronized (this) {
+            registerAgent(agent);
+        }
+    }
+
+    private void registerAgent(Agent agent) {
         getLogger().log(getClass(), "Registering agent " + agent.getAID().getUuID());
 
         DeliberationRunnable deliberationRunnable = new DeliberationRunnable(agent, this);
@@ -177,6 +240,7 @@ public final class Platform {
         this.registeredAgents.put(agent.getAID(), agent);
         this.test.put(agent.getAID().getUuID(), agent.getAID());
         agent.setPlatform(this);
+        assignIndex(agent);
 
         //Add to platform's messenger
         this.messenger.register(agent);
@@ -184,11 +248,123 @@ public final class Platform {
         agent.invoke();
     }
 
+    /**
+     * Give a registering agent the lowest free index, so the indices of agents stay dense when agents come and go,
+     * and its registration number
+     */
+    private void assignIndex(Agent agent) {
+        int index;
+        synchronized (this.freeAgentIndices) {
+            index = this.freeAgentIndices.nextSetBit(0);
+            if (index >= 0) {
+                this.freeAgentIndices.clear(index);
+            } else {
+                index = this.nextAgentIndex++;
+            }
+        }
+        agent.setIndex(index);
+        agent.setRegistrationNumber(this.nofRegistrations++);
+    }
+
+    /**
+     * Make the index of an agent that is no longer registered available to agents that register later
+     */
+    private void releaseIndex(Agent agent) {
+        if (agent.getIndex() < 0) return;
+        synchronized (this.freeAgentIndices) {
+            this.freeAgentIndices.set(agent.getIndex());
+        }
+    }
+
+    /**
+     * Register a batch of agents at once. This has the same effect as registering each agent separately,
+     * but the platform, messenger and tick executor are each locked only once, and only a single log line
+     * is produced for the whole batch. The agents are scheduled in the order of the collection.
+     *
+     * Agents call {@link #register(Agent)} from their constructor, so this method is intended for agents that
+     * were constructed through {@link #createAgents(int, IntFunction)}, which defers their registration.
+     *
+     * @param agents Agents to register
+     */
+    public void registerAll(Collection<? extends Agent> agents) {
+        if (agents.isEmpty()) return;
+
+        // Creating the deliberation runnables and kill switches does not depend on the platform
+        List<DeliberationRunnable> deliberationRunnables = new ArrayList<>(agents.size());
+        List<AgentKillSwitch> killSwitches = new ArrayList<>(agents.size());
+        for (Agent agent : agents) {
+            deliberationRunnables.add(new DeliberationRunnable(agent, this));
+            killSwitches.add(new AgentKillSwitch(agent));
+        }
+
+        synchronized (this) {
+            getLogger().log(getClass(), "Registering " + agents.size() + " agents");
+
+            int i = 0;
+            for (Agent agent : agents) {
+                this.agentKillSwitches.put(agent.getAID(), killSwitches.get(i++));
+                this.registeredAgents.put(agent.getAID(), agent);
+                this.test.put(agent.getAID().getUuID(), agent.getAID());
+                agent.setPlatform(this);
+                assignIndex(agent);
+            }
+
+            this.messenger.registerAll(agents);
+            synchronized (this.tickExecutor) {
+                this.tickExecutor.scheduleAllForNextTick(deliberationRunnables);
+            }
+            for (Agent agent : agents) {
+                agent.invoke();
+            }
+        }
+    }
+
+    /**
+     * Construct a population of agents in parallel, and register them with {@link #registerAll(Collection)}.
+     * The factory is called once for each index from <code>0</code> to <code>count - 1</code>, possibly from
+     * multiple threads at once, and should construct an agent on this platform. The registration of agents
+     * constructed by the factory is deferred until all agents are constructed. This includes agents that the
+     * factory constructs but does not return.
+     *
+     * @param count   Number of agents to construct
+     * @param factory Constructs the agent with the given index. Checked exceptions should be wrapped in an unchecked
+     *                exception, which will be rethrown by this method. In that case no agent is registered.
+     * @return All agents constructed by the factory, in order of index
+     */
+    public List<Agent> createAgents(int count, IntFunction<? extends Agent> factory) {
+        List<Agent> agents = IntStream.range(0, count).parallel()
+                .mapToObj(index -> constructDeferred(factory, index))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        registerAll(agents);
+        return agents;
+    }
+
+    /**
+     * Call the factory while deferring the registration of the agents it constructs
+     *
+     * @return The agents constructed by the factory, in order of construction
+     */
+    private List<Agent> constructDeferred(IntFunction<? extends Agent> factory, int index) {
+        List<Agent> constructed = new ArrayList<>(1);
+        List<Agent> outer = this.deferredRegistrations.get(); // Non-null if a factory creates agents through createAgents itself
+        this.deferredRegistrations.set(constructed);
+        try {
+            factory.apply(index);
+        } finally {
+            if (outer == null) this.deferredRegistrations.remove();
+            else this.deferredRegistrations.set(outer);
+        }
+        return constructed;
+    }
+
     public synchronized void deregister(Agent agent) {
         getLogger().log(getClass(), "Deregistering agent " + agent.getAID().getUuID());
 
         this.agentKillSwitches.remove(agent.getAID());
-        this.registeredAgents.remove(agent.getAID());
+        if (this.registeredAgents.remove(agent.getAID()) != null) {
+            releaseIndex(agent);
+        }
         this.messenger.deregister(agent.getAID());
         this.test.remove(agent.getAID().getUuID());
         this.directoryFacilitators.remove(agent.getAID()); // <- Just in case it was a DF.
@@ -212,6 +388,93 @@ public final class Platform {
         this.messenger.register(agent);
     }
 
+    /**
+     * Allow agents that are created from the given agent arguments to move between platforms. Each platform should
+     * register the same types, as a platform creates the agents that move to it from its own agent arguments. The
+     * goals, plans, triggers, messages and contexts of these agents should be serializable. Other classes that they
+     * reference have to be allowed on the receiving platform (see {@link NetNode#allowMigratedClasses(Class...)}).
+     *
+     * @param type  Name of the type of agents, which is the same on all platforms
+     * @param args  Agent arguments from which agents of the type are created
+     */
+    public synchronized void registerMigratableType(String type, AgentArguments args) {
+        this.migratableTypes.put(type, args);
+        this.migratableArchetypes.put(args.getArchetype(), type);
+    }
+
+    /**
+     * Move an agent to another platform, which should be connected through a NetNode. The agent keeps its AgentID,
+     * and continues its deliberation on the other platform, while it is removed from this platform. This should only be
+     * done between ticks. The agent should have been created from agent arguments that were registered with
+     * {@link #registerMigratableType(String, AgentArguments)}.
+     *
+     * @param agentID   ID of the agent to move
+     * @param host      Host of the platform to move the agent to
+     * @param port      Port of the platform to move the agent to
+     * @return True if the agent was moved, false if the agent is not on this platform, is not of a migratable type,
+     * or could not be sent to the other platform
+     */
+    public boolean migrate(AgentID agentID, String host, int port) {
+        if (!(this.messenger instanceof NetNode)) {
+            throw new IllegalStateException("Moving agents requires a messenger that supports encoding");
+        }
+        Agent agent;
+        String type;
+        synchronized (this) {
+            agent = this.registeredAgents.get(agentID);
+            type = agent == null ? null : this.migratableArchetypes.get(agent.getArchetype());
+        }
+        if (type == null || agent.isInTransit()) return false;
+
+        if (!((NetNode<?>) this.messenger).migrate(agent, type, host, port)) return false;
+        getLogger().log(getClass(), "Moved agent " + agentID.getUuID() + " to " + host + ":" + port);
+        deregister(agent);
+        return true;
+    }
+
+    /**
+     * Move a fraction of the agents of this platform that are of a migratable type to another platform. The agents
+     * that were registered last are moved first.
+     *
+     * @param fraction  Fraction of the migratable agents to move
+     * @param host      Host of the platform to move the agents to
+     * @param port      Port of the platform to move the agents to
+     * @return The number of agents that were moved
+     * @see #migrate(AgentID, String, int)
+     */
+    public int migrateAgents(double fraction, String host, int port) {
+        List<Agent> candidates = new ArrayList<>();
+        synchronized (this) {
+            for (Agent agent : this.registeredAgents.values()) {
+                if (this.migratableArchetypes.containsKey(agent.getArchetype())) candidates.add(agent);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(Agent::getRegistrationNumber).reversed());
+        int n = (int) Math.min(candidates.size(), Math.round(Math.max(0, fraction) * candidates.size()));
+        int moved = 0;
+        for (int i = 0; i < n; i++) {
+            if (migrate(candidates.get(i).getAID(), host, port)) moved++;
+        }
+        return moved;
+    }
+
+    /**
+     * Create an agent that moved to this platform from another platform, and restore its state.
+     *
+     * @return False if the type of the agent is not registered on this platform
+     */
+    boolean moveIn(String type, AgentID agentID, AgentState state) {
+        AgentArguments args;
+        synchronized (this) {
+            args = this.migratableTypes.get(type);
+        }
+        if (args == null) return false;
+        Agent agent = new Agent(this, args, agentID);
+        agent.moveIn(state);
+        getLogger().log(getClass(), "Agent " + agentID.getUuID() + " moved here");
+        return true;
+    }
+
     public synchronized void updateNickName(AgentID agentID) {
         Agent agent = registeredAgents.get(agentID);
         agent.setAID(agentID);
@@ -294,8 +557,12 @@ public final class Platform {
         if (killSwitch != null) {// It's okay if the switch is null. In that case the agent was already killed in the past.
             killSwitch.killAgent();
         }
+        Agent agent;
         synchronized (this.registeredAgents) {
-            this.registeredAgents.remove(agentID);
+            agent = this.registeredAgents.remove(agentID);
+        }
+        if (agent != null) {
+            releaseIndex(agent);
         }
     }
 
@@ -345,4 +612,94 @@ public final class Platform {
     public TickExecutor getTickExecutor() {
         return this.tickExecutor;
     }
+
+    /**
+     * Obtain the hosts of the other platforms this platform was created with
+     *
+     * @return Hosts of the other platforms, in the same order as their ports
+     */
+    public List<String> getRemoteHosts() {
+        return Collections.unmodifiableList(this.remoteHosts);
+    }
+
+    /**
+     * Obtain the ports of the other platforms this platform was created with
+     *
+     * @return Ports of the other platforms, in the same order as their hosts
+     */
+    public List<Integer> getRemotePorts() {
+        return Collections.unmodifiableList(this.remotePorts);
+    }
+
+    /**
+     * Make this platform a worker in distributed tick execution. From now on, the ticks of this platform are executed
+     * when a coordinator requests them through the NetNode of this platform, instead of by a local simulation engine
+     * (see {@link nl.uu.cs.iss.ga.sim2apl.core.tick.DistributedTickExecutor}). The node ID of the worker should be
+     * set to its ordinal among the workers of the coordinator (see {@link #setNodeID(long)}).
+     *
+     * @throws IllegalStateException If this platform does not communicate with other platforms through a NetNode
+     */
+    public void serveDistributedTicks() {
+        if (!(this.messenger instanceof NetNode)) {
+            throw new IllegalStateException("Distributed tick execution requires a messenger that supports encoding");
+        }
+        ((NetNode<?>) this.messenger).serveTicks(this.tickExecutor);
+    }
+
+    public MessageIDGenerator getMessageIDGenerator() {
+        return this.messageIDGenerator;
+    }
+
+    /**
+     * Obtain the seed from which the random number streams of agents are derived
+     *
+     * @return The random seed of this platform
+     */
+    public long getRandomSeed() {
+        return this.randomSeed;
+    }
+
+    /**
+     * Obtain the ID of this platform among the platforms of a distributed simulation. The random number streams of
+     * agents are derived from it, so agents on different platforms draw different numbers from the same seed
+     *
+     * @return The node ID of this platform
+     */
+    public long getNodeID() {
+        return this.nodeID;
+    }
+
+    /**
+     * Set the ID of this platform among the platforms of a distributed simulation. By default, the ID is 0, which is
+     * also the ID of the coordinator. Each worker should have its ordinal among the workers of the coordinator as ID,
+     * i.e. 1 for the first worker that was added to the coordinator, so the random number streams of its agents are
+     * the same in every run, on any machine. Like the random seed, the ID should be set before any agent draws a
+     * random number
+     *
+     * @param nodeID ID that is unique among the platforms of the simulation
+     */
+    public void setNodeID(long nodeID) {
+        this.nodeID = nodeID;
+    }
+
+    /**
+     * Set the seed from which the random number streams of agents are derived (see
+     * {@link nl.uu.cs.iss.ga.sim2apl.core.agent.RandomContext}). By default, a random seed is used. The seed
+     * should be set before any agent draws a random number, as streams are not re-derived afterwards.
+     *
+     * @param randomSeed Seed to use
+     */
+    public void setRandomSeed(long randomSeed) {
+        this.randomSeed = randomSeed;
+    }
+
+    /**
+     * Replace the generator that produces message IDs. By default, a {@link DefaultMessageIDGenerator}
+     * for the host and port of this platform is used.
+     *
+     * @param messageIDGenerator Generator to use for all messages sent by agents on this platform
+     */
+    public void setMessageIDGenerator(MessageIDGenerator messageIDGenerator) {
+        this.messageIDGenerator = messageIDGenerator;
+    }
 }
\ No newline at end of file
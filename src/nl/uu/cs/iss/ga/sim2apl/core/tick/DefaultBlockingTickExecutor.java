@@ -3,19 +3,66 @@ package nl.uu.cs.iss.ga.sim2apl.core.tick;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
 import nl.uu.cs.iss.ga.sim2apl.core.deliberation.DeliberationRunnable;
 
+import nl.uu.cs.iss.ga.sim2apl.core.plan.Plan;
+
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
 
 /**
  * A default time step executor that uses a ThreadPoolExecutor to run the agents when the tick needs
  * to be performed.
+ *
+ * Without a random, agents are executed in parallel, starting with the agents whose previous deliberation
+ * cycle took longest. Agents are handed to the threads in chunks, so that lightweight agents are not
+ * dominated by the cost of submitting each of them separately. With a random, agents are executed one
+ * after another in a random order.
+ *
+ * Optionally, the time of a tick and of the deliberation cycle of a single agent can be limited (see
+ * {@link #setTickBudget(long, TimeUnit)} and {@link #setAgentBudget(long, TimeUnit)}). Agents that exceed
+ * these budgets are reported, and handled according to the {@link StragglerPolicy}, so that a single agent
+ * that does not finish its deliberation cycle cannot stall the simulation.
  */
 public class DefaultBlockingTickExecutor implements TickExecutor {
+    private static final Logger LOG = Logger.getLogger(DefaultBlockingTickExecutor.class.getName());
+
+    /** The default measured deliberation time of the agents in a chunk at which the chunk is closed **/
+    static final long DEFAULT_CHUNK_TARGET_NANOS = 50_000;
+    /** The minimal number of chunks per thread, so threads that finish early can still pick up work **/
+    private static final int CHUNKS_PER_THREAD = 4;
+    /** The minimal interval at which running agents are checked against the agent budget **/
+    private static final long MIN_BUDGET_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** States of a runnable within a tick **/
+    private static final int PENDING = 0, RUNNING = 1, DONE = 2, SKIPPED = 3, STRAGGLING = 4;
 
     /** Internal counters **/
+    private final int nThreads;
     private int tick = 0;
     private int stepDuration;
+    private double tailFraction;
+    private int budgetViolations;
+    private int deferredAgents;
+    private long totalBudgetViolations;
+
+    /** Time budgets in nanoseconds, or 0 if unlimited **/
+    private long tickBudget;
+    private long agentBudget;
+
+    /** The measured deliberation time of the agents in a chunk at which the chunk is closed, in nanoseconds **/
+    private long chunkTarget = DEFAULT_CHUNK_TARGET_NANOS;
+    private StragglerPolicy stragglerPolicy = StragglerPolicy.REPORT;
+
+    /** Stragglers the tick no longer waited for, whose deliberation cycle is still running **/
+    private final Set<DeliberationRunnable> inFlight;
+    /** Agents that are not executed until they are released from quarantine **/
+    private final Set<DeliberationRunnable> quarantined;
+    /** The actions of deferred stragglers that finished, to be reported with the next tick **/
+    private final Queue<Map.Entry<AgentID, List<String>>> lateActions;
 
     /**
      * A random object, which can be used to have agent execution occur in deterministic manner
@@ -23,18 +70,26 @@ public class DefaultBlockingTickExecutor implements TickExecutor {
     private Random random;
 
     /** The ExecutorService that will be used to execute one sense-reason-act step for all scheduled agents **/
-    private final ExecutorService executor;
+    private final ThreadPoolExecutor executor;
+
+    /** The agents scheduled for the next tick, in order of registration **/
+    private final ScheduledRunnables scheduledRunnables;
 
-    /** The list of agents scheduled for the next tick **/
-    private final ArrayList<DeliberationRunnable> scheduledRunnables;
+    /** The deliberation cycles of agents that sleep until a given tick **/
+    private final TickTimer<DeliberationRunnable> tickTimer;
 
     /**
      * Default constructor
      * @param nThreads Number of threads to use to execute the agent's sense-reason-act cycles.
      */
     public DefaultBlockingTickExecutor(int nThreads) {
-        this.executor = Executors.newFixedThreadPool(nThreads);
-        this.scheduledRunnables = new ArrayList<>();
+        this.nThreads = nThreads;
+        this.executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(nThreads);
+        this.scheduledRunnables = new ScheduledRunnables();
+        this.tickTimer = new TickTimer<>();
+        this.inFlight = ConcurrentHashMap.newKeySet();
+        this.quarantined = ConcurrentHashMap.newKeySet();
+        this.lateActions = new ConcurrentLinkedQueue<>();
     }
 
     /**
@@ -43,7 +98,9 @@ public class DefaultBlockingTickExecutor implements TickExecutor {
      *
      * <b>NOTICE:</b> when the number of threads is larger then 1, some variation in order of
      * agent execution may still occur. If agents use the same random object for selecting actions,
-     * the nextInt they receive may no longer be deterministic
+     * the nextInt they receive may no longer be deterministic. Agents that draw from their own stream
+     * ({@link nl.uu.cs.iss.ga.sim2apl.core.agent.RandomContext}) are deterministic without a random
+     * object, also when executed in parallel
      * @param nThreads  Number of threads to use to execute the agent's sense-reason-act cycles.
      * @param random    A (seeded) random object
      */
@@ -52,16 +109,128 @@ public class DefaultBlockingTickExecutor implements TickExecutor {
         this.random = random;
     }
 
+    /**
+     * Limit the time the executor waits for the agents in a tick. Agents that are still deliberating when the budget
+     * has been used up are handled according to the straggler policy.
+     *
+     * @param budget    Maximal duration of a tick, or 0 for no limit
+     * @param unit      Unit of the budget
+     */
+    public void setTickBudget(long budget, TimeUnit unit) {
+        this.tickBudget = unit.toNanos(Math.max(0, budget));
+    }
+
+    /**
+     * Limit the duration of the deliberation cycle of a single agent. Agents that exceed the budget are handled
+     * according to the straggler policy.
+     *
+     * @param budget    Maximal duration of a deliberation cycle, or 0 for no limit
+     * @param unit      Unit of the budget
+     */
+    public void setAgentBudget(long budget, TimeUnit unit) {
+        this.agentBudget = unit.toNanos(Math.max(0, budget));
+    }
+
+    /**
+     * Set how agents that exceed the tick or agent budget are handled. The default is {@link StragglerPolicy#REPORT}.
+     *
+     * @param stragglerPolicy Policy for agents that exceed their budget
+     */
+    public void setStragglerPolicy(StragglerPolicy stragglerPolicy) {
+        this.stragglerPolicy = Objects.requireNonNull(stragglerPolicy);
+    }
+
+    /**
+     * Get the number of agents that exceeded the tick or agent budget in the last tick
+     *
+     * @return Number of budget violations
+     */
+    public int getLastTickBudgetViolations() {
+        return this.budgetViolations;
+    }
+
+    /**
+     * Get the number of agents that exceeded the tick or agent budget since the executor was created
+     *
+     * @return Number of budget violations
+     */
+    public long getTotalBudgetViolations() {
+        return this.totalBudgetViolations;
+    }
+
+    /**
+     * Get the number of agents that were deferred to the next tick in the last tick, because they had not started
+     * their deliberation cycle before the tick budget was used up
+     *
+     * @return Number of deferred agents
+     */
+    public int getLastTickDeferredCount() {
+        return this.deferredAgents;
+    }
+
+    /**
+     * Obtain the agents that are in quarantine
+     *
+     * @return IDs of the quarantined agents
+     */
+    public List<AgentID> getQuarantinedAgents() {
+        List<AgentID> agentIDs = new ArrayList<>();
+        for (DeliberationRunnable dr : this.quarantined) {
+            agentIDs.add(dr.getAgentID());
+        }
+        return agentIDs;
+    }
+
+    /**
+     * Release an agent from quarantine, and schedule it for the next tick
+     *
+     * @param agentID   ID of the agent to release
+     * @return True if the agent was in quarantine
+     */
+    public boolean releaseFromQuarantine(AgentID agentID) {
+        for (DeliberationRunnable dr : this.quarantined) {
+            if (dr.getAgentID().equals(agentID) && this.quarantined.remove(dr)) {
+                scheduleForNextTick(dr);
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public boolean scheduleForNextTick(DeliberationRunnable agentDeliberationRunnable) {
-        if (!this.scheduledRunnables.contains(agentDeliberationRunnable)) {
-            this.scheduledRunnables.add(agentDeliberationRunnable);
-            return true;
-        }
-        return false;
+        return this.scheduledRunnables.add(agentDeliberationRunnable);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int scheduleAllForNextTick(Collection<DeliberationRunnable> agentDeliberationRunnables) {
+        return this.scheduledRunnables.addAll(agentDeliberationRunnables);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TickTimer<DeliberationRunnable> getTickTimer() {
+        return this.tickTimer;
+    }
+
+    /**
+     * Set the previous deliberation time of the agents in a chunk at which the chunk is closed. Larger chunks reduce
+     * the cost of handing agents to the threads, smaller chunks balance the work between the threads more evenly.
+     *
+     * @param target    Deliberation time per chunk, or 0 to hand each agent to the threads separately. The default is
+     *                  50 microseconds
+     * @param unit      Unit of the target
+     */
+    public void setChunkTarget(long target, TimeUnit unit) {
+        this.chunkTarget = unit.toNanos(Math.max(0, target));
     }
 
     /**
@@ -69,41 +238,314 @@ public class DefaultBlockingTickExecutor implements TickExecutor {
      */
     @Override
     public HashMap<AgentID, List<String>> doTick() {
-        ArrayList<DeliberationRunnable> runnables;
+        // Agents sleeping on the timer that are due in this tick
+        for (DeliberationRunnable dueRunnable : this.tickTimer.advanceTo(this.tick)) {
+            if (dueRunnable.timerExpired(this.tick)) {
+                scheduleForNextTick(dueRunnable);
+            }
+        }
+
         // TODO make sure running can only happen once with some sort of mutex? How to verify if a tick is currently being executed?
-        synchronized (this.scheduledRunnables) {
-            runnables = new ArrayList<>(this.scheduledRunnables);
-            this.scheduledRunnables.clear();
+        // The runnables are obtained in order of agent index, so a seeded shuffle only depends on the order of registration
+        List<DeliberationRunnable> runnables = withoutStragglers(this.scheduledRunnables.drain());
+
+        HashMap<AgentID, List<String>> agentPlanActions = new LinkedHashMap<>();
+        for (Map.Entry<AgentID, List<String>> late; (late = this.lateActions.poll()) != null; ) {
+            putActions(agentPlanActions, late.getKey(), late.getValue());
         }
 
+        long startTime = System.currentTimeMillis();
+        Integer[] order = new Integer[runnables.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        int[] chunkEnds;
         if(this.random != null) {
-            runnables.sort(Comparator.comparing(deliberationRunnable -> deliberationRunnable.getAgentID().getUuID()));
             Collections.shuffle(runnables, this.random);
+
+            // Agents are executed one after another, so the order of execution is fully determined by the random
+            chunkEnds = new int[order.length];
+            Arrays.fill(chunkEnds, order.length);
+        } else {
+            chunkEnds = chunkLongestFirst(runnables, order);
         }
 
-        HashMap<AgentID, List<String>> agentPlanActions = new HashMap<>();
+        TickRun run = new TickRun(runnables, order, chunkEnds);
+        List<String>[] actions = run.execute();
 
-        long startTime = System.currentTimeMillis();
-        for(DeliberationRunnable dr : runnables) {
+        // Report the actions in order of the runnables, which is the canonical order, or the order of execution
+        // when agents are executed one after another. The result then does not depend on the order of completion
+        for (int i = 0; i < actions.length; i++) {
+            if (actions[i] != null) putActions(agentPlanActions, runnables.get(i).getAgentID(), actions[i]);
+        }
+        this.tailFraction = this.random != null ? 0 : run.tailFraction;
+        this.budgetViolations = run.violations;
+        this.totalBudgetViolations += run.violations;
+        this.deferredAgents = run.deferred;
+        this.stepDuration = (int) (System.currentTimeMillis() - startTime);
+
+        tick++;
+        return agentPlanActions;
+    }
+
+    /**
+     * Order the runnables for parallel execution in order of decreasing duration of their previous deliberation
+     * cycle (longest processing time first). Long running agents are then started early, instead of being picked
+     * up last while the other threads have run out of work.
+     *
+     * The runnables are submitted in chunks of consecutive runnables in that order. A chunk is closed once the
+     * previous deliberation times of its runnables add up to the chunk target (see
+     * {@link #setChunkTarget(long, TimeUnit)}), so expensive agents get a chunk of their own while many lightweight
+     * agents share one. The chunk size is capped such that each thread receives at least {@link #CHUNKS_PER_THREAD}
+     * chunks, which also bounds the chunks of agents whose cost has not been measured yet.
+     *
+     * @param runnables Runnables to execute, in canonical order
+     * @param order     Positions of the runnables, which are sorted in order of execution
+     * @return For each position in the order, the end of the chunk it belongs to
+     */
+    private int[] chunkLongestFirst(List<DeliberationRunnable> runnables, Integer[] order) {
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> runnables.get(i).getLastDeliberationTime()).reversed());
+
+        int maxChunkSize = Math.max(1, (order.length + this.nThreads * CHUNKS_PER_THREAD - 1) / (this.nThreads * CHUNKS_PER_THREAD));
+        int[] chunkEnds = new int[order.length];
+        int from = 0;
+        while (from < order.length) {
+            int to = from;
+            long chunkCost = 0;
+            do {
+                chunkCost += runnables.get(order[to++]).getLastDeliberationTime();
+            } while (to < order.length && to - from < maxChunkSize && chunkCost < this.chunkTarget);
+            Arrays.fill(chunkEnds, from, to, to);
+            from = to;
+        }
+        return chunkEnds;
+    }
+
+    /**
+     * Remove the agents that are quarantined, or whose deliberation cycle of an earlier tick is still running. The
+     * latter stay scheduled, so they are executed in the first tick after their deliberation cycle has finished.
+     */
+    private List<DeliberationRunnable> withoutStragglers(List<DeliberationRunnable> runnables) {
+        if (this.inFlight.isEmpty() && this.quarantined.isEmpty()) return runnables;
+        List<DeliberationRunnable> executable = new ArrayList<>(runnables.size());
+        for (DeliberationRunnable dr : runnables) {
+            if (this.quarantined.contains(dr)) continue;
+            if (this.inFlight.contains(dr)) {
+                scheduleForNextTick(dr);
+            } else {
+                executable.add(dr);
+            }
+        }
+        return executable;
+    }
+
+    /** Add actions of an agent, after the actions that were already reported for it in the same tick */
+    private static void putActions(Map<AgentID, List<String>> agentPlanActions, AgentID agentID, List<String> actions) {
+        agentPlanActions.merge(agentID, actions, (reported, added) -> {
+            List<String> merged = new ArrayList<>(reported);
+            merged.addAll(added);
+            return merged;
+        });
+    }
+
+    /**
+     * Resize the thread pool by the given number of threads. Stragglers that the tick no longer waits for keep
+     * occupying a thread, so the pool grows while they run to keep the configured number of threads available.
+     */
+    private synchronized void resizePool(int delta) {
+        int size = this.executor.getCorePoolSize() + delta;
+        if (delta > 0) {
+            this.executor.setMaximumPoolSize(size);
+            this.executor.setCorePoolSize(size);
+        } else {
+            this.executor.setCorePoolSize(size);
+            this.executor.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * The execution of the runnables of a single tick. The runnables are submitted to the thread pool in chunks of
+     * consecutive runnables in the order of execution, where each chunk runs its runnables one after another. The
+     * state of each runnable is tracked, so the tick can stop waiting for stragglers, and the runnables that were
+     * held up by a straggler in its chunk can be resubmitted.
+     */
+    private final class TickRun {
+        private final List<DeliberationRunnable> runnables;
+        private final Integer[] order;
+        private final int[] chunkEnds;
+        /** For each runnable, its position in the order of execution **/
+        private final int[] positions;
+        private final AtomicIntegerArray states;
+        private final AtomicLongArray startTimes;
+        private final AtomicReferenceArray<List<String>> actions;
+        private final boolean[] reported;
+        /** Counts down for each runnable that the tick no longer has to wait for **/
+        private final CountDownLatch remaining;
+        /** The time at which the last chunk started. From then on, each thread that finishes stays idle **/
+        private final AtomicLong lastStart;
+        private double tailFraction;
+        private int violations;
+        private int deferred;
+
+        private TickRun(List<DeliberationRunnable> runnables, Integer[] order, int[] chunkEnds) {
+            this.runnables = runnables;
+            this.order = order;
+            this.chunkEnds = chunkEnds;
+            this.positions = new int[order.length];
+            for (int k = 0; k < order.length; k++) this.positions[order[k]] = k;
+            this.states = new AtomicIntegerArray(order.length);
+            this.startTimes = new AtomicLongArray(order.length);
+            this.actions = new AtomicReferenceArray<>(order.length);
+            this.reported = new boolean[order.length];
+            this.remaining = new CountDownLatch(order.length);
+            this.lastStart = new AtomicLong();
+        }
+
+        /** Execute all runnables, and obtain the actions of each runnable that finished within the tick */
+        private List<String>[] execute() {
+            long start = System.nanoTime();
+            this.lastStart.set(start);
+            for (int from = 0; from < this.order.length; from = this.chunkEnds[from]) {
+                submit(from, this.chunkEnds[from]);
+            }
             try {
-                List<Object> currentAgentActions = this.executor.submit(dr).get();
-                currentAgentActions = currentAgentActions.stream().filter(Objects::nonNull).collect(Collectors.toList());
-                
-                List<String> currentAgentActionStrings = new ArrayList<>();
-                for (Object action: currentAgentActions) {
-                    currentAgentActionStrings.add((String) action);
+                await(start);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            long duration = System.nanoTime() - start;
+            this.tailFraction = duration <= 0 ? 0 : (double) (start + duration - this.lastStart.get()) / duration;
+
+            @SuppressWarnings("unchecked")
+            List<String>[] result = (List<String>[]) new List<?>[this.order.length];
+            for (int i = 0; i < result.length; i++) result[i] = this.actions.get(i);
+            return result;
+        }
+
+        /** Submit the runnables at the given positions in the order of execution as a single chunk */
+        private void submit(int from, int to) {
+            executor.submit(() -> {
+                this.lastStart.accumulateAndGet(System.nanoTime(), Math::max);
+                for (int k = from; k < to; k++) {
+                    run(this.order[k]);
                 }
-                
-                agentPlanActions.put(dr.getAgentID(), currentAgentActionStrings);
-                
-            } catch (InterruptedException | ExecutionException e) {
+            });
+        }
+
+        private void run(int i) {
+            if (!this.states.compareAndSet(i, PENDING, RUNNING)) return;
+            this.startTimes.set(i, System.nanoTime());
+            DeliberationRunnable dr = this.runnables.get(i);
+            List<String> result = null;
+            try {
+                result = toActionStrings(dr.call());
+            } catch (Throwable e) {
+                // Do not let one failing agent prevent the remaining agents of the chunk from running, or the tick
+                // from finishing. Errors are caught as well, as an escaping error would leave the tick waiting
                 e.printStackTrace();
             }
+            if (this.states.compareAndSet(i, RUNNING, DONE)) {
+                this.actions.set(i, result);
+                this.remaining.countDown();
+            } else {
+                // The tick no longer waited for this straggler
+                inFlight.remove(dr);
+                resizePool(-1);
+                if (stragglerPolicy == StragglerPolicy.DEFER && result != null) {
+                    lateActions.add(new AbstractMap.SimpleImmutableEntry<>(dr.getAgentID(), result));
+                }
+            }
         }
-        this.stepDuration = (int) (System.currentTimeMillis() - startTime);
 
-        tick++;
-        return agentPlanActions;
+        /** Wait until all runnables have finished, or have been given up on because they exceeded a budget */
+        private void await(long start) throws InterruptedException {
+            if (tickBudget <= 0 && agentBudget <= 0) {
+                this.remaining.await();
+                return;
+            }
+            boolean budgetUsed = false;
+            while (true) {
+                long now = System.nanoTime();
+                if (!budgetUsed && tickBudget > 0 && now - start >= tickBudget) {
+                    budgetUsed = true;
+                    for (int i = 0; i < this.order.length; i++) {
+                        if (this.states.get(i) == RUNNING) straggler(i, "the tick budget", now);
+                    }
+                    if (stragglerPolicy != StragglerPolicy.REPORT) deferPending();
+                } else if (agentBudget > 0) {
+                    for (int i = 0; i < this.order.length; i++) {
+                        long started = this.startTimes.get(i);
+                        if (started != 0 && now - started > agentBudget && this.states.get(i) == RUNNING) {
+                            straggler(i, "its deliberation budget", now);
+                        }
+                    }
+                }
+
+                if (agentBudget <= 0 && budgetUsed) {
+                    this.remaining.await();
+                    return;
+                }
+                long wait = agentBudget > 0 ? Math.max(agentBudget / 4, MIN_BUDGET_CHECK_NANOS) : Long.MAX_VALUE;
+                if (!budgetUsed && tickBudget > 0) wait = Math.min(wait, start + tickBudget - now);
+                if (this.remaining.await(wait, TimeUnit.NANOSECONDS)) return;
+            }
+        }
+
+        /** Report a straggler, and stop waiting for it unless only reporting is required */
+        private void straggler(int i, String budget, long now) {
+            if (this.reported[i]) return;
+            DeliberationRunnable dr = this.runnables.get(i);
+            if (stragglerPolicy != StragglerPolicy.REPORT) {
+                inFlight.add(dr);
+                if (!this.states.compareAndSet(i, RUNNING, STRAGGLING)) {
+                    // Finished in the meantime
+                    inFlight.remove(dr);
+                    return;
+                }
+                if (stragglerPolicy == StragglerPolicy.QUARANTINE) quarantined.add(dr);
+                resizePool(1);
+                this.remaining.countDown();
+                // The runnables after the straggler in its chunk are no longer held up by it
+                int k = this.positions[i];
+                if (k + 1 < this.chunkEnds[k]) submit(k + 1, this.chunkEnds[k]);
+            }
+            this.reported[i] = true;
+            this.violations++;
+            Plan plan = dr.getCurrentPlan();
+            long started = this.startTimes.get(i);
+            LOG.warning(String.format("Agent %s exceeded %s in tick %d after %d ms while executing %s (%s)",
+                    dr.getAgentID(), budget, tick, started == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(now - started),
+                    plan == null ? "no plan" : plan.getClass().getName(), stragglerPolicy));
+        }
+
+        /** Defer the runnables that have not started yet to the next tick */
+        private void deferPending() {
+            for (int i = 0; i < this.order.length; i++) {
+                if (this.states.compareAndSet(i, PENDING, SKIPPED)) {
+                    scheduleForNextTick(this.runnables.get(i));
+                    this.deferred++;
+                    this.remaining.countDown();
+                }
+            }
+        }
+    }
+
+    /** Filter out the null actions and cast the remaining ones to strings */
+    private static List<String> toActionStrings(List<Object> actions) {
+        List<String> currentAgentActionStrings = new ArrayList<>();
+        for (Object action : actions) {
+            if (action != null) currentAgentActionStrings.add((String) action);
+        }
+        return currentAgentActionStrings;
+    }
+
+    /**
+     * Get the fraction of the last tick during which not all threads could be kept busy, because the
+     * last chunk of runnables was already started. This is 0 if the agents were executed one after another, which
+     * is the case when a random is used to order them.
+     *
+     * @return Fraction of the duration of the last tick, between 0 and 1
+     */
+    public double getLastTickTailFraction() {
+        return this.tailFraction;
     }
 
     /**
@@ -114,6 +556,17 @@ public class DefaultBlockingTickExecutor implements TickExecutor {
         return this.tick;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void skipToTick(int tick) {
+        if (tick < this.tick) {
+            throw new IllegalArgumentException("Cannot skip back from tick " + this.tick + " to tick " + tick);
+        }
+        this.tick = tick;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -136,13 +589,7 @@ public class DefaultBlockingTickExecutor implements TickExecutor {
      */
     @Override
     public List<AgentID> getScheduledAgents() {
-        List<AgentID> scheduledAgents = new ArrayList<>();
-        synchronized (this.scheduledRunnables) {
-            for(DeliberationRunnable runnable : this.scheduledRunnables) {
-                scheduledAgents.add(runnable.getAgentID());
-            }
-        }
-        return scheduledAgents;
+        return this.scheduledRunnables.getAgentIDs();
     }
 
     /**
@@ -150,9 +597,7 @@ public class DefaultBlockingTickExecutor implements TickExecutor {
      */
     @Override
     public int getNofScheduledAgents() {
-        synchronized (this.scheduledRunnables) {
-            return this.scheduledRunnables.size();
-        }
+        return this.scheduledRunnables.size();
     }
 
     /**
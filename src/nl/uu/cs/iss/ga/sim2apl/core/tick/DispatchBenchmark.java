@@ -0,0 +1,81 @@
+package nl.uu.cs.iss.ga.sim2apl.core.tick;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.Agent;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentArguments;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentCreationFailedException;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.PlanToAgentInterface;
+import nl.uu.cs.iss.ga.sim2apl.core.logging.NullLogger;
+import nl.uu.cs.iss.ga.sim2apl.core.plan.Plan;
+import nl.uu.cs.iss.ga.sim2apl.core.platform.Platform;
+
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the tick duration of the {@link DefaultBlockingTickExecutor} when each agent is handed to the threads
+ * separately with the duration when agents are handed over in chunks (see
+ * {@link DefaultBlockingTickExecutor#setChunkTarget(long, TimeUnit)}). The agents do a configurable amount of
+ * work in each deliberation cycle, so both many lightweight agents and fewer heavier agents can be measured.
+ *
+ * Run with <code>java nl.uu.cs.iss.ga.sim2apl.core.tick.DispatchBenchmark [agents] [work] [ticks] [threads]</code>.
+ * The first ticks of each run are not measured, so the deliberation times used for chunking are known.
+ */
+final class DispatchBenchmark {
+    private static final int WARMUP_TICKS = 5;
+
+    private DispatchBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int nAgents = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int work = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        int nTicks = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int nThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.println(String.format("%d agents, %d work units per agent, %d threads", nAgents, work, nThreads));
+        for (int round = 0; round < 2; round++) {
+            double perAgent = run(nThreads, nAgents, work, nTicks, 0);
+            double chunked = run(nThreads, nAgents, work, nTicks, DefaultBlockingTickExecutor.DEFAULT_CHUNK_TARGET_NANOS);
+            System.out.println(String.format("per agent: %8.2f ms/tick, chunked: %8.2f ms/tick", perAgent, chunked));
+        }
+    }
+
+    /** Run a simulation and obtain the mean duration of the measured ticks in milliseconds */
+    private static double run(int nThreads, int nAgents, int work, int nTicks, long chunkTargetNanos)
+            throws AgentCreationFailedException, URISyntaxException {
+        DefaultBlockingTickExecutor executor = new DefaultBlockingTickExecutor(nThreads);
+        executor.setChunkTarget(chunkTargetNanos, TimeUnit.NANOSECONDS);
+        Platform platform = Platform.newPlatform(executor, null);
+        platform.setLogger(new NullLogger());
+        AgentArguments arguments = new AgentArguments();
+        arguments.addInitialPlan(new Busy(work));
+        for (int i = 0; i < nAgents; i++) new Agent(platform, arguments);
+
+        try {
+            for (int tick = 0; tick < WARMUP_TICKS; tick++) executor.doTick();
+            long start = System.nanoTime();
+            for (int tick = 0; tick < nTicks; tick++) executor.doTick();
+            return (System.nanoTime() - start) / 1e6 / nTicks;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /** A plan that never finishes and does a fixed amount of work in each tick. It is shared by all agents */
+    private static final class Busy extends Plan {
+        private static final long serialVersionUID = 1L;
+
+        private final int work;
+
+        private Busy(int work) {
+            this.work = work;
+        }
+
+        @Override
+        public Object execute(PlanToAgentInterface planInterface) {
+            long sum = 0;
+            for (int i = this.work; i > 0; i--) sum += i % 7;
+            return (sum & 1) == 0 ? "a" : "b";
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package nl.uu.cs.iss.ga.sim2apl.core.tick;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+import nl.uu.cs.iss.ga.sim2apl.core.deliberation.DeliberationRunnable;
+import nl.uu.cs.iss.ga.sim2apl.core.platform.NetNode;
+import nl.uu.cs.iss.ga.sim2apl.core.platform.Platform;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A time step executor that coordinates the ticks of several platforms, which may run in different JVMs or on
+ * different machines. Each platform executes its own agents, so the agents of a simulation can be divided over the
+ * memory of several machines. The platform of the coordinator executes its own agents with a local tick executor,
+ * and requests each worker platform to execute the same tick through its NetNode. A tick finishes when the local
+ * executor and all workers have finished it, so the ticks of all platforms stay synchronised.
+ *
+ * The actions of all platforms are combined, so the tick hook processors of the simulation engine of the coordinator
+ * see the actions of all agents. The actions of the local agents come first, followed by the actions of the agents
+ * of each worker, in the order in which the workers were added.
+ *
+ * A worker platform is created with a NetNode, and calls {@link Platform#serveDistributedTicks()} instead of running
+ * a simulation engine of its own. The random number streams of the agents of a platform are derived from its node ID
+ * (see {@link Platform#setNodeID(long)}), which is 0 for the coordinator, and should be set to the ordinal of each
+ * worker, i.e. 1 for the worker that was added first, so the agents draw the same numbers in every run.
+ *
+ * Agents on different platforms communicate through their NetNodes as usual. A message that is sent to another
+ * platform during a tick is sent before the tick finishes, but may be delivered after the next tick has started,
+ * unless the receiving platform is the coordinator. A worker replies over each of its connections to the coordinator,
+ * and the coordinator finishes the tick when the reply arrived over all of them, so messages of the worker that
+ * were sent to the host and port of the coordinator are delivered before the tick finishes.
+ *
+ * Scheduled agents, tick timers and event-driven tick skipping only concern the local agents of the coordinator, as
+ * the coordinator does not know when the agents of the workers need to be executed. The executor therefore needs every
+ * tick, and the workers skip to the requested tick when ticks are skipped.
+ */
+public class DistributedTickExecutor implements TickExecutor {
+    private static final Logger LOG = Logger.getLogger(DistributedTickExecutor.class.getName());
+
+    /** Internal counters **/
+    private int stepDuration;
+    private int localStepDuration;
+    private int[] workerStepDurations = new int[0];
+
+    /** The executor of the agents on the platform of the coordinator **/
+    private final TickExecutor localExecutor;
+
+    /** The NetNode through which the ticks of workers are requested **/
+    private NetNode<?> netNode;
+    private final List<String> workerHosts;
+    private final List<Integer> workerPorts;
+
+    /** The time to wait for a worker to finish a tick, or 0 to wait indefinitely **/
+    private long workerTimeoutNanos = 0;
+
+    /**
+     * Create a coordinator without workers
+     *
+     * @param localExecutor Executor of the agents on the platform of the coordinator
+     */
+    public DistributedTickExecutor(TickExecutor localExecutor) {
+        this.localExecutor = localExecutor;
+        this.workerHosts = new ArrayList<>();
+        this.workerPorts = new ArrayList<>();
+    }
+
+    /**
+     * Connect the coordinator to the NetNode of the given platform, and add the other platforms that the platform was
+     * created with as workers. The platform should be the platform that uses this executor.
+     *
+     * @param platform  Platform of the coordinator
+     * @throws IllegalStateException If the platform does not communicate with other platforms through a NetNode
+     */
+    public void connect(Platform platform) {
+        if (!(platform.getMessenger() instanceof NetNode)) {
+            throw new IllegalStateException("Distributed tick execution requires a messenger that supports encoding");
+        }
+        this.netNode = (NetNode<?>) platform.getMessenger();
+        int n = Math.min(platform.getRemoteHosts().size(), platform.getRemotePorts().size());
+        for (int i = 0; i < n; i++) {
+            addWorker(platform.getRemoteHosts().get(i), platform.getRemotePorts().get(i));
+        }
+    }
+
+    /**
+     * Add a worker platform, which executes the ticks requested by this coordinator. The worker is assigned the number
+     * of workers that were added before it plus one as node ID (see {@link Platform#setNodeID(long)})
+     *
+     * @param host  Host of the NetNode of the worker
+     * @param port  Port of the NetNode of the worker
+     */
+    public void addWorker(String host, int port) {
+        this.workerHosts.add(host);
+        this.workerPorts.add(port);
+    }
+
+    /**
+     * Set the time to wait for a worker to finish a tick. The tick finishes without the actions of a worker that did
+     * not finish in time, and the worker is requested to execute the next tick as usual.
+     *
+     * @param timeout   Time to wait, or 0 to wait indefinitely
+     * @param unit      Unit of the timeout
+     */
+    public void setWorkerTimeout(long timeout, TimeUnit unit) {
+        this.workerTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Obtain the number of worker platforms
+     *
+     * @return Number of workers
+     */
+    public int getNofWorkers() {
+        return this.workerHosts.size();
+    }
+
+    /**
+     * Obtain the host of a worker
+     *
+     * @param worker    Index of the worker, in the order in which the workers were added
+     * @return Host of the NetNode of the worker
+     */
+    public String getWorkerHost(int worker) {
+        return this.workerHosts.get(worker);
+    }
+
+    /**
+     * Obtain the port of a worker
+     *
+     * @param worker    Index of the worker, in the order in which the workers were added
+     * @return Port of the NetNode of the worker
+     */
+    public int getWorkerPort(int worker) {
+        return this.workerPorts.get(worker);
+    }
+
+    /**
+     * Obtain the NetNode through which the workers are coordinated
+     *
+     * @return NetNode of the coordinator, or null if the coordinator is not connected
+     */
+    public NetNode<?> getNetNode() {
+        return this.netNode;
+    }
+
+    /**
+     * Obtain the time it took the local executor to execute the last tick
+     *
+     * @return Duration of the last tick of the local agents in milliseconds
+     */
+    public int getLastLocalTickDuration() {
+        return this.localStepDuration;
+    }
+
+    /**
+     * Obtain the time it took each worker to execute the last tick, measured by the coordinator from the request of the
+     * tick until the reply of the worker
+     *
+     * @return Duration of the last tick of each worker in milliseconds, in the order in which the workers were added,
+     * or -1 for a worker that did not finish the tick
+     */
+    public int[] getLastWorkerTickDurations() {
+        return this.workerStepDurations.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean scheduleForNextTick(DeliberationRunnable agentDeliberationRunnable) {
+        return this.localExecutor.scheduleForNextTick(agentDeliberationRunnable);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int scheduleAllForNextTick(Collection<DeliberationRunnable> agentDeliberationRunnables) {
+        return this.localExecutor.scheduleAllForNextTick(agentDeliberationRunnables);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TickTimer<DeliberationRunnable> getTickTimer() {
+        return this.localExecutor.getTickTimer();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HashMap<AgentID, List<String>> doTick() {
+        if (this.netNode == null && !this.workerHosts.isEmpty()) {
+            throw new IllegalStateException("The coordinator is not connected to a NetNode");
+        }
+        int tick = this.localExecutor.getCurrentTick();
+        long startTime = System.currentTimeMillis();
+
+        // The workers execute the tick at the same time as the local agents
+        long requestTime = System.nanoTime();
+        int[] workerDurations = new int[this.workerHosts.size()];
+        Arrays.fill(workerDurations, -1);
+        List<CompletableFuture<HashMap<AgentID, List<String>>>> workerActions = new ArrayList<>(this.workerHosts.size());
+        for (int i = 0; i < this.workerHosts.size(); i++) {
+            int worker = i;
+            // The duration is recorded before the future completes, so it is visible once the actions are
+            workerActions.add(this.netNode.requestTick(this.workerHosts.get(i), this.workerPorts.get(i), tick, i + 1)
+                    .thenApply(actions -> {
+                        workerDurations[worker] = (int) ((System.nanoTime() - requestTime) / 1_000_000);
+                        return actions;
+                    }));
+        }
+
+        HashMap<AgentID, List<String>> agentPlanActions = new LinkedHashMap<>(this.localExecutor.doTick());
+        this.localStepDuration = (int) ((System.nanoTime() - requestTime) / 1_000_000);
+        if (this.netNode != null) {
+            this.netNode.flush();
+        }
+
+        long deadline = System.nanoTime() + this.workerTimeoutNanos;
+        for (int i = 0; i < workerActions.size(); i++) {
+            CompletableFuture<HashMap<AgentID, List<String>>> future = workerActions.get(i);
+            try {
+                agentPlanActions.putAll(this.workerTimeoutNanos > 0
+                        ? future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                        : future.get());
+            } catch (TimeoutException e) {
+                future.cancel(false);
+                LOG.warning(String.format("Worker %s:%d did not finish tick %d in time",
+                        this.workerHosts.get(i), this.workerPorts.get(i), tick));
+            } catch (InterruptedException | ExecutionException e) {
+                LOG.log(Level.SEVERE, String.format("Worker %s:%d failed to execute tick %d",
+                        this.workerHosts.get(i), this.workerPorts.get(i), tick), e);
+            }
+        }
+        this.stepDuration = (int) (System.currentTimeMillis() - startTime);
+        this.workerStepDurations = workerDurations;
+
+        return agentPlanActions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCurrentTick() {
+        return this.localExecutor.getCurrentTick();
+    }
+
+    /**
+     * The agents of the workers may need every tick, so the current tick is always needed when there are workers.
+     */
+    @Override
+    public int getNextEventTick() {
+        return this.workerHosts.isEmpty() ? this.localExecutor.getNextEventTick() : getCurrentTick();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void skipToTick(int tick) {
+        // The workers skip to the tick when it is requested
+        this.localExecutor.skipToTick(tick);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        return this.localExecutor.isRunning();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLastTickDuration() {
+        return this.stepDuration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AgentID> getScheduledAgents() {
+        return this.localExecutor.getScheduledAgents();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNofScheduledAgents() {
+        return this.localExecutor.getNofScheduledAgents();
+    }
+
+    /**
+     * Shut down the local executor. The workers keep running, and can be coordinated again by another coordinator.
+     */
+    @Override
+    public void shutdown() {
+        this.localExecutor.shutdown();
+    }
+}
@@ -0,0 +1,114 @@
+package nl.uu.cs.iss.ga.sim2apl.core.tick;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+import nl.uu.cs.iss.ga.sim2apl.core.platform.Platform;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A simulation engine that advances time from event to event. Instead of executing every tick, it jumps
+ * directly to the next tick in which an agent is scheduled, an agent sleeping on the tick timer is due, or
+ * a tick hook processor needs its hooks to be called (see {@link TickHookProcessor#getNextHookTick(long)}).
+ * No hooks are called for the ticks that are skipped.
+ *
+ * Ticks themselves are executed in the same blocking manner as by the {@link DefaultSimulationEngine}. The
+ * simulation finishes after the given number of ticks, or as soon as no agent or tick hook processor needs
+ * any further tick. This requires a tick executor that supports {@link TickExecutor#skipToTick(int)}.
+ */
+public class EventDrivenSimulationEngine extends AbstractSimulationEngine {
+
+    /** The TickExecutor is obtained from the platform */
+    private final TickExecutor executor;
+
+    /** The number of ticks that were skipped so far */
+    private int skippedTicks;
+
+    /**
+     * {@inheritDoc}
+     */
+    public EventDrivenSimulationEngine(Platform platform) {
+        super(platform);
+        this.executor = platform.getTickExecutor();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public EventDrivenSimulationEngine(Platform platform, TickHookProcessor... processors) {
+        super(platform, processors);
+        this.executor = platform.getTickExecutor();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public EventDrivenSimulationEngine(Platform platform, int iterations) {
+        super(platform, iterations);
+        this.executor = platform.getTickExecutor();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public EventDrivenSimulationEngine(Platform platform, int nIterations, TickHookProcessor... hookProcessors) {
+        super(platform, nIterations, hookProcessors);
+        this.executor = platform.getTickExecutor();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean start() {
+        while (true) {
+            int next = nextTick();
+            if (next < 0 || (this.nIterations > 0 && next >= this.nIterations)) break;
+
+            int current = this.executor.getCurrentTick();
+            if (next > current) {
+                this.skippedTicks += next - current;
+                this.executor.skipToTick(next);
+            }
+            doTick();
+        }
+        int lastTick = this.nIterations > 0 ? this.nIterations : this.executor.getCurrentTick();
+        this.processSimulationFinishedHook(lastTick, this.executor.getLastTickDuration());
+        this.executor.shutdown();
+        return true;
+    }
+
+    /**
+     * Obtain the number of ticks that were skipped because no agent or tick hook processor needed them
+     *
+     * @return Number of skipped ticks
+     */
+    public int getSkippedTicks() {
+        return this.skippedTicks;
+    }
+
+    /**
+     * Determine the next tick to execute, which is the earliest tick needed by either the tick executor
+     * or one of the tick hook processors
+     *
+     * @return The next tick to execute, or -1 if no further tick is needed
+     */
+    private int nextTick() {
+        int current = this.executor.getCurrentTick();
+        long next = this.executor.getNextEventTick();
+        for (TickHookProcessor processor : this.tickHookProcessorList) {
+            long hookTick = processor.getNextHookTick(current);
+            if (hookTick >= 0 && (next < 0 || hookTick < next)) next = Math.max(hookTick, current);
+        }
+        return next > Integer.MAX_VALUE ? -1 : (int) next;
+    }
+
+    /**
+     * Performs a single tick, and notifies all tickHookProcessors before and after the tick execution
+     */
+    private void doTick() {
+        int tick = this.executor.getCurrentTick();
+        this.processTickPreHooks(tick);
+        HashMap<AgentID, List<String>> agentActions = this.executor.doTick();
+        this.processTickPostHook(tick, this.executor.getLastTickDuration(), agentActions);
+    }
+}
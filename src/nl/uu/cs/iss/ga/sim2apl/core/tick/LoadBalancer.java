@@ -0,0 +1,120 @@
+package nl.uu.cs.iss.ga.sim2apl.core.tick;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+import nl.uu.cs.iss.ga.sim2apl.core.platform.Platform;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A tick hook processor that moves agents from the slowest to the fastest platform of a distributed simulation (see
+ * {@link DistributedTickExecutor}), when the duration of their last tick differs too much. A distributed tick takes as
+ * long as its slowest platform, so moving agents away from that platform shortens the ticks of the whole simulation.
+ *
+ * After a tick, the platform whose tick took longest is asked to move a fraction of its migratable agents (see
+ * {@link Platform#registerMigratableType(String, nl.uu.cs.iss.ga.sim2apl.core.agent.AgentArguments)}) to the platform
+ * whose tick was shortest. The fraction is chosen such that both platforms would take equally long if the duration of
+ * a tick were proportional to the number of agents. Agents are moved at most once every given number of ticks, so the
+ * effect of moving agents can be observed before more agents are moved. As agents move while the next tick is already
+ * requested, a moved agent may skip that tick.
+ */
+public class LoadBalancer implements TickHookProcessor {
+    private static final Logger LOG = Logger.getLogger(LoadBalancer.class.getName());
+
+    /** Ticks shorter than this many milliseconds are not balanced, as their duration is mostly overhead **/
+    private static final int MIN_TICK_DURATION = 10;
+
+    private final Platform platform;
+    private final DistributedTickExecutor executor;
+    private final double imbalanceRatio;
+    private final int interval;
+
+    private long lastBalancedTick;
+    private int nofMigrationRequests = 0;
+
+    /**
+     * Create a balancer that moves agents when the slowest platform takes 1.5 times as long as the fastest, at most once
+     * every 10 ticks
+     *
+     * @param platform  Platform of the coordinator
+     * @param executor  Executor of the coordinator
+     */
+    public LoadBalancer(Platform platform, DistributedTickExecutor executor) {
+        this(platform, executor, 1.5, 10);
+    }
+
+    /**
+     * @param platform          Platform of the coordinator
+     * @param executor          Executor of the coordinator
+     * @param imbalanceRatio    Ratio between the durations of the slowest and fastest platform from which agents are
+     *                          moved. Should be larger than 1
+     * @param interval          Minimal number of ticks between two moves
+     */
+    public LoadBalancer(Platform platform, DistributedTickExecutor executor, double imbalanceRatio, int interval) {
+        if (imbalanceRatio <= 1 || interval < 1) {
+            throw new IllegalArgumentException("The imbalance ratio must be larger than 1 and the interval positive");
+        }
+        this.platform = platform;
+        this.executor = executor;
+        this.imbalanceRatio = imbalanceRatio;
+        this.interval = interval;
+        this.lastBalancedTick = -interval;
+    }
+
+    /**
+     * Obtain the number of times a platform was asked to move agents
+     *
+     * @return Number of migration requests
+     */
+    public int getNofMigrationRequests() {
+        return this.nofMigrationRequests;
+    }
+
+    @Override
+    public void tickPreHook(long startingTick) {
+        // Agents are only moved between ticks
+    }
+
+    @Override
+    public void tickPostHook(long finishedTick, int tickDuration, HashMap<AgentID, List<String>> producedAgentActions) {
+        if (finishedTick - this.lastBalancedTick < this.interval || this.executor.getNetNode() == null) return;
+
+        // Node -1 is the coordinator itself, the others are the workers
+        int[] workerDurations = this.executor.getLastWorkerTickDurations();
+        int slowest = -1, fastest = -1;
+        int slowestDuration = this.executor.getLastLocalTickDuration(), fastestDuration = slowestDuration;
+        for (int i = 0; i < workerDurations.length; i++) {
+            if (workerDurations[i] < 0) continue; // Did not finish in time, so its load is unknown
+            if (workerDurations[i] > slowestDuration) {
+                slowest = i;
+                slowestDuration = workerDurations[i];
+            }
+            if (workerDurations[i] < fastestDuration) {
+                fastest = i;
+                fastestDuration = workerDurations[i];
+            }
+        }
+        if (slowest == fastest || slowestDuration < MIN_TICK_DURATION
+                || slowestDuration <= this.imbalanceRatio * fastestDuration) return;
+
+        double fraction = (slowestDuration - fastestDuration) / (2.0 * slowestDuration);
+        String host = fastest < 0 ? this.platform.getHost() : this.executor.getWorkerHost(fastest);
+        int port = fastest < 0 ? this.platform.getPort() : this.executor.getWorkerPort(fastest);
+        LOG.info(String.format("Tick %d took %d ms on node %d and %d ms on node %d, moving %.0f%% of the agents",
+                finishedTick, slowestDuration, slowest, fastestDuration, fastest, fraction * 100));
+        if (slowest < 0) {
+            this.platform.migrateAgents(fraction, host, port);
+        } else {
+            this.executor.getNetNode().requestMigration(this.executor.getWorkerHost(slowest),
+                    this.executor.getWorkerPort(slowest), fraction, host, port);
+        }
+        this.lastBalancedTick = finishedTick;
+        this.nofMigrationRequests++;
+    }
+
+    @Override
+    public void simulationFinishedHook(long lastTick, int lastTickDuration) {
+        // Nothing to balance
+    }
+}
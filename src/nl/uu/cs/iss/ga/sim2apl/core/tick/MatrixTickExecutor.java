@@ -31,8 +31,11 @@ public class MatrixTickExecutor implements TickExecutor {
     /** The ExecutorService that will be used to execute one sense-reason-act step for all scheduled agents **/
     private final ExecutorService executor;
 
-    /** The list of agents scheduled for the next tick **/
-    private final ArrayList<DeliberationRunnable> scheduledRunnables;
+    /** The agents scheduled for the next tick, in order of registration **/
+    private final ScheduledRunnables scheduledRunnables;
+
+    /** The deliberation cycles of agents that sleep until a given tick **/
+    private final TickTimer<DeliberationRunnable> tickTimer;
     
     private final MatrixAgentThread agentThread;
     private final MatrixStoreThread storeThread;
@@ -44,7 +47,8 @@ public class MatrixTickExecutor implements TickExecutor {
      */
     public MatrixTickExecutor(int nThreads) {
         this.executor = Executors.newFixedThreadPool(nThreads);
-        this.scheduledRunnables = new ArrayList<>();
+        this.scheduledRunnables = new ScheduledRunnables();
+        this.tickTimer = new TickTimer<>();
         
         this.agentThread = new MatrixAgentThread(0, CONTROLLER_ADDRESS, CONTROLLER_PORT, this.executor);
         this.storeThread = new MatrixStoreThread(0, CONTROLLER_ADDRESS, CONTROLLER_PORT);
@@ -70,11 +74,23 @@ public class MatrixTickExecutor implements TickExecutor {
      */
     @Override
     public boolean scheduleForNextTick(DeliberationRunnable agentDeliberationRunnable) {
-        if (!this.scheduledRunnables.contains(agentDeliberationRunnable)) {
-            this.scheduledRunnables.add(agentDeliberationRunnable);
-            return true;
-        }
-        return false;
+        return this.scheduledRunnables.add(agentDeliberationRunnable);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int scheduleAllForNextTick(Collection<DeliberationRunnable> agentDeliberationRunnables) {
+        return this.scheduledRunnables.addAll(agentDeliberationRunnables);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TickTimer<DeliberationRunnable> getTickTimer() {
+        return this.tickTimer;
     }
 
     /**
@@ -87,15 +103,18 @@ public class MatrixTickExecutor implements TickExecutor {
             throw new RuntimeException("Simulation already finished");
         }
         
-        ArrayList<DeliberationRunnable> runnables;
-        // TODO make sure running can only happen once with some sort of mutex? How to verify if a tick is currently being executed?
-        synchronized (this.scheduledRunnables) {
-            runnables = new ArrayList<>(this.scheduledRunnables);
-            this.scheduledRunnables.clear();
+        // Agents sleeping on the timer that are due in this tick
+        for (DeliberationRunnable dueRunnable : this.tickTimer.advanceTo(this.tick)) {
+            if (dueRunnable.timerExpired(this.tick)) {
+                scheduleForNextTick(dueRunnable);
+            }
         }
 
+        // TODO make sure running can only happen once with some sort of mutex? How to verify if a tick is currently being executed?
+        // The runnables are obtained in order of agent index, so a seeded shuffle only depends on the order of registration
+        List<DeliberationRunnable> runnables = this.scheduledRunnables.drain();
+
         if(this.random != null) {
-            runnables.sort(Comparator.comparing(deliberationRunnable -> deliberationRunnable.getAgentID().getUuID()));
             Collections.shuffle(runnables, this.random);
         }
         
@@ -130,6 +149,17 @@ public class MatrixTickExecutor implements TickExecutor {
         return this.tick;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void skipToTick(int tick) {
+        if (tick < this.tick) {
+            throw new IllegalArgumentException("Cannot skip back from tick " + this.tick + " to tick " + tick);
+        }
+        this.tick = tick;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -152,13 +182,7 @@ public class MatrixTickExecutor implements TickExecutor {
      */
     @Override
     public List<AgentID> getScheduledAgents() {
-        List<AgentID> scheduledAgents = new ArrayList<>();
-        synchronized (this.scheduledRunnables) {
-            for(DeliberationRunnable runnable : this.scheduledRunnables) {
-                scheduledAgents.add(runnable.getAgentID());
-            }
-        }
-        return scheduledAgents;
+        return this.scheduledRunnables.getAgentIDs();
     }
 
     /**
@@ -166,9 +190,7 @@ public class MatrixTickExecutor implements TickExecutor {
      */
     @Override
     public int getNofScheduledAgents() {
-        synchronized (this.scheduledRunnables) {
-            return this.scheduledRunnables.size();
-        }
+        return this.scheduledRunnables.size();
     }
 
     /**
@@ -0,0 +1,82 @@
+package nl.uu.cs.iss.ga.sim2apl.core.tick;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.Agent;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentArguments;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentCreationFailedException;
+import nl.uu.cs.iss.ga.sim2apl.core.agent.PlanToAgentInterface;
+import nl.uu.cs.iss.ga.sim2apl.core.logging.NullLogger;
+import nl.uu.cs.iss.ga.sim2apl.core.plan.Plan;
+import nl.uu.cs.iss.ga.sim2apl.core.platform.Platform;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Checks that a simulation with a fixed random seed produces the same actions in every run, regardless of the
+ * number of threads of the {@link DefaultBlockingTickExecutor}. Each agent draws from its own random stream
+ * (see {@link nl.uu.cs.iss.ga.sim2apl.core.agent.RandomContext}) and spends a random amount of work on each
+ * deliberation cycle, so agents finish in a different order in each parallel run.
+ *
+ * Run with <code>java nl.uu.cs.iss.ga.sim2apl.core.tick.ReproducibilityCheck [agents] [ticks]</code>. The
+ * process exits with status 1 if two runs differ.
+ */
+final class ReproducibilityCheck {
+    private static final long SEED = 42;
+
+    private ReproducibilityCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int nAgents = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int nTicks = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        List<String> reference = run(1, nAgents, nTicks);
+        boolean identical = true;
+        for (int nThreads : new int[] {4, 4, Runtime.getRuntime().availableProcessors()}) {
+            List<String> actions = run(nThreads, nAgents, nTicks);
+            boolean same = reference.equals(actions);
+            System.out.println(String.format("%d threads: %d actions, %s", nThreads, actions.size(),
+                    same ? "identical to the single-threaded run" : "DIFFERENT from the single-threaded run"));
+            identical &= same;
+        }
+        if (!identical) System.exit(1);
+    }
+
+    /** Run a simulation and obtain the actions of all ticks, in the order in which the executor returned them */
+    private static List<String> run(int nThreads, int nAgents, int nTicks) throws AgentCreationFailedException, URISyntaxException {
+        Platform platform = Platform.newPlatform(nThreads, null);
+        platform.setLogger(new NullLogger());
+        platform.setRandomSeed(SEED);
+        AgentArguments arguments = new AgentArguments();
+        arguments.addInitialPlan(new RandomWalk());
+        for (int i = 0; i < nAgents; i++) new Agent(platform, arguments);
+
+        List<String> actions = new ArrayList<>();
+        try {
+            for (int tick = 0; tick < nTicks; tick++) {
+                platform.getTickExecutor().doTick().values().forEach(agentActions -> actions.addAll(agentActions));
+            }
+        } finally {
+            platform.getTickExecutor().shutdown();
+        }
+        return actions;
+    }
+
+    /**
+     * A plan that never finishes, and draws a random step with a random amount of work in each tick. The same
+     * instance is shared by all agents, so it keeps no state of its own.
+     */
+    private static final class RandomWalk extends Plan {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object execute(PlanToAgentInterface planInterface) {
+            SplittableRandom random = planInterface.getRandom();
+            long work = 0;
+            for (int i = random.nextInt(20_000); i > 0; i--) work += i % 7;
+            return (random.nextInt(3) - 1) + ":" + (work & 1);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package nl.uu.cs.iss.ga.sim2apl.core.tick;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+import nl.uu.cs.iss.ga.sim2apl.core.deliberation.DeliberationRunnable;
+
+/**
+ * The set of deliberation cycles scheduled for the next tick, kept in canonical order of the registration
+ * index of their agents (see {@link DeliberationRunnable#getAgentIndex()}). Runnables are stored in the slot
+ * of their index, so adding a runnable and checking whether it is already scheduled take constant time, and
+ * the scheduled runnables can be obtained in canonical order without sorting them. The platform gives the
+ * index of an agent that deregisters to the next agent that registers, so the slots stay bounded by the
+ * largest number of agents that were registered at the same time.
+ *
+ * Runnables of agents without an index, which are not registered with a platform, are kept in the order in
+ * which they were added, after all indexed runnables.
+ */
+final class ScheduledRunnables {
+	/** The scheduled runnables by agent index. Slots of runnables that are not scheduled are null. */
+	private DeliberationRunnable[] byIndex;
+	/** The agent indices of the scheduled runnables */
+	private final BitSet scheduled;
+	/** Scheduled runnables whose agent has no (unique) index */
+	private final List<DeliberationRunnable> unindexed;
+	private int size;
+
+	ScheduledRunnables() {
+		this.byIndex = new DeliberationRunnable[16];
+		this.scheduled = new BitSet();
+		this.unindexed = new ArrayList<>();
+		this.size = 0;
+	}
+
+	/**
+	 * Schedule a runnable, unless it is already scheduled
+	 *
+	 * @param runnable	Runnable to schedule
+	 * @return True if the runnable was not yet scheduled
+	 */
+	synchronized boolean add(DeliberationRunnable runnable) {
+		int index = runnable.getAgentIndex();
+		if (index >= 0 && !this.scheduled.get(index)) {
+			if (index >= this.byIndex.length) {
+				int capacity = this.byIndex.length;
+				while (capacity <= index) capacity = capacity > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE - 8 : capacity * 2;
+				DeliberationRunnable[] grown = new DeliberationRunnable[capacity];
+				System.arraycopy(this.byIndex, 0, grown, 0, this.byIndex.length);
+				this.byIndex = grown;
+			}
+			this.byIndex[index] = runnable;
+			this.scheduled.set(index);
+		} else if (index >= 0 && this.byIndex[index] == runnable) {
+			return false;
+		} else {
+			// Agents without an index are rare, so a linear check suffices
+			for (DeliberationRunnable other : this.unindexed) {
+				if (other == runnable) return false;
+			}
+			this.unindexed.add(runnable);
+		}
+		this.size++;
+		return true;
+	}
+
+	/**
+	 * Schedule all runnables that are not yet scheduled
+	 *
+	 * @param runnables	Runnables to schedule
+	 * @return The number of runnables that were not yet scheduled
+	 */
+	synchronized int addAll(Collection<DeliberationRunnable> runnables) {
+		int added = 0;
+		for (DeliberationRunnable runnable : runnables) {
+			if (add(runnable)) added++;
+		}
+		return added;
+	}
+
+	/**
+	 * Remove all scheduled runnables
+	 *
+	 * @return The runnables that were scheduled, in canonical order
+	 */
+	synchronized List<DeliberationRunnable> drain() {
+		List<DeliberationRunnable> runnables = new ArrayList<>(this.size);
+		for (int i = this.scheduled.nextSetBit(0); i >= 0; i = this.scheduled.nextSetBit(i + 1)) {
+			runnables.add(this.byIndex[i]);
+			this.byIndex[i] = null;
+		}
+		runnables.addAll(this.unindexed);
+		this.scheduled.clear();
+		this.unindexed.clear();
+		this.size = 0;
+		return runnables;
+	}
+
+	/**
+	 * Obtain the IDs of the agents of the scheduled runnables
+	 *
+	 * @return Agent IDs in canonical order
+	 */
+	synchronized List<AgentID> getAgentIDs() {
+		List<AgentID> agentIDs = new ArrayList<>(this.size);
+		for (int i = this.scheduled.nextSetBit(0); i >= 0; i = this.scheduled.nextSetBit(i + 1)) {
+			agentIDs.add(this.byIndex[i].getAgentID());
+		}
+		for (DeliberationRunnable runnable : this.unindexed) {
+			agentIDs.add(runnable.getAgentID());
+		}
+		return agentIDs;
+	}
+
+	/**
+	 * Obtain the number of scheduled runnables
+	 *
+	 * @return Number of scheduled runnables
+	 */
+	synchronized int size() {
+		return this.size;
+	}
+}
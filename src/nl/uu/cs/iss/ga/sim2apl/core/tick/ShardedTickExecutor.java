@@ -0,0 +1,279 @@
+package nl.uu.cs.iss.ga.sim2apl.core.tick;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+import nl.uu.cs.iss.ga.sim2apl.core.deliberation.DeliberationRunnable;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A time step executor that partitions the agents into shards, and executes each shard on the same worker thread
+ * in every tick. The state of an agent (its plans, contexts and mailbox) then stays in the caches of the same core,
+ * instead of moving between cores when the agent is picked up by an arbitrary thread of a pool.
+ *
+ * An agent is assigned to a shard by its registration index (see {@link DeliberationRunnable#getAgentIndex()}),
+ * in blocks of {@value #BLOCK_SIZE} consecutive agents, so agents that were created together share a shard. Each
+ * worker thread owns one or more shards, and executes the agents of its own shards in canonical order. A worker that
+ * has finished its own shards steals the remaining agents of the shards of other workers, so a shard with expensive
+ * agents does not delay the whole tick.
+ */
+public class ShardedTickExecutor implements TickExecutor {
+
+    /** The number of consecutive agent indices that are assigned to the same shard **/
+    private static final int BLOCK_SIZE = 64;
+    /** The number of agents a worker claims at once from a shard **/
+    private static final int CLAIM_SIZE = 8;
+
+    /** Internal counters **/
+    private int tick = 0;
+    private int stepDuration;
+    private int stolen;
+
+    /** One single threaded executor per worker, so the shards of a worker always run on the same thread **/
+    private final ExecutorService[] workers;
+    private final int nShards;
+
+    /** The agents scheduled for the next tick, in order of registration **/
+    private final ScheduledRunnables scheduledRunnables;
+
+    /** The deliberation cycles of agents that sleep until a given tick **/
+    private final TickTimer<DeliberationRunnable> tickTimer;
+
+    /**
+     * Create an executor with one shard per thread
+     *
+     * @param nThreads Number of worker threads
+     */
+    public ShardedTickExecutor(int nThreads) {
+        this(nThreads, 1);
+    }
+
+    /**
+     * Create an executor in which each worker thread owns the given number of shards. More shards per thread
+     * allow a finer grained division of work when agents are stolen.
+     *
+     * @param nThreads          Number of worker threads
+     * @param shardsPerThread   Number of shards owned by each worker thread
+     */
+    public ShardedTickExecutor(int nThreads, int shardsPerThread) {
+        if (nThreads < 1 || shardsPerThread < 1) {
+            throw new IllegalArgumentException("The number of threads and shards per thread must be positive");
+        }
+        this.workers = new ExecutorService[nThreads];
+        for (int i = 0; i < nThreads; i++) {
+            String name = "shard-worker-" + i;
+            this.workers[i] = Executors.newSingleThreadExecutor(r -> new Thread(r, name));
+        }
+        this.nShards = nThreads * shardsPerThread;
+        this.scheduledRunnables = new ScheduledRunnables();
+        this.tickTimer = new TickTimer<>();
+    }
+
+    /**
+     * Obtain the shard of the agent with the given registration index
+     *
+     * @param agentIndex    Registration index of the agent
+     * @return Shard of the agent, or 0 if the agent has no index
+     */
+    public int getShard(int agentIndex) {
+        return agentIndex < 0 ? 0 : (agentIndex / BLOCK_SIZE) % this.nShards;
+    }
+
+    /**
+     * Obtain the number of agents in the last tick that were executed by a worker that did not own their shard
+     *
+     * @return Number of stolen agents
+     */
+    public int getLastTickStolenCount() {
+        return this.stolen;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean scheduleForNextTick(DeliberationRunnable agentDeliberationRunnable) {
+        return this.scheduledRunnables.add(agentDeliberationRunnable);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int scheduleAllForNextTick(Collection<DeliberationRunnable> agentDeliberationRunnables) {
+        return this.scheduledRunnables.addAll(agentDeliberationRunnables);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TickTimer<DeliberationRunnable> getTickTimer() {
+        return this.tickTimer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HashMap<AgentID, List<String>> doTick() {
+        // Agents sleeping on the timer that are due in this tick
+        for (DeliberationRunnable dueRunnable : this.tickTimer.advanceTo(this.tick)) {
+            if (dueRunnable.timerExpired(this.tick)) {
+                scheduleForNextTick(dueRunnable);
+            }
+        }
+
+        List<DeliberationRunnable> runnables = this.scheduledRunnables.drain();
+        long startTime = System.currentTimeMillis();
+
+        // Divide the positions of the runnables over the shards, keeping them in canonical order
+        int[] shardSizes = new int[this.nShards];
+        for (DeliberationRunnable dr : runnables) shardSizes[getShard(dr.getAgentIndex())]++;
+        int[][] shards = new int[this.nShards][];
+        for (int s = 0; s < this.nShards; s++) shards[s] = new int[shardSizes[s]];
+        Arrays.fill(shardSizes, 0);
+        for (int i = 0; i < runnables.size(); i++) {
+            int s = getShard(runnables.get(i).getAgentIndex());
+            shards[s][shardSizes[s]++] = i;
+        }
+        AtomicInteger[] cursors = new AtomicInteger[this.nShards];
+        for (int s = 0; s < this.nShards; s++) cursors[s] = new AtomicInteger();
+
+        @SuppressWarnings("unchecked")
+        List<String>[] actions = (List<String>[]) new List<?>[runnables.size()];
+        AtomicInteger stolenCount = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(this.workers.length);
+        for (int w = 0; w < this.workers.length; w++) {
+            int worker = w;
+            futures.add(this.workers[w].submit(() -> {
+                // Own shards first, then the shards of the other workers
+                runShards(worker, true, runnables, shards, cursors, actions);
+                stolenCount.addAndGet(runShards(worker, false, runnables, shards, cursors, actions));
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+        this.stolen = stolenCount.get();
+        this.stepDuration = (int) (System.currentTimeMillis() - startTime);
+
+        // Report the actions in canonical order, so the result does not depend on the order of completion
+        HashMap<AgentID, List<String>> agentPlanActions = new LinkedHashMap<>();
+        for (int i = 0; i < actions.length; i++) {
+            if (actions[i] != null) agentPlanActions.put(runnables.get(i).getAgentID(), actions[i]);
+        }
+
+        tick++;
+        return agentPlanActions;
+    }
+
+    private boolean isOwnedBy(int shard, int worker) {
+        return shard % this.workers.length == worker;
+    }
+
+    /**
+     * Execute the remaining runnables of either the shards owned by a worker, or the shards owned by all other workers
+     *
+     * @return The number of runnables that were executed
+     */
+    private int runShards(int worker, boolean own, List<DeliberationRunnable> runnables, int[][] shards,
+                          AtomicInteger[] cursors, List<String>[] actions) {
+        int executed = 0;
+        for (int k = 0; k < this.nShards; k++) {
+            // Stealing starts at the shards of the next worker, so not all idle workers compete for the same shard
+            int s = (worker + k) % this.nShards;
+            if (isOwnedBy(s, worker) != own) continue;
+            int[] shard = shards[s];
+            int from;
+            while ((from = cursors[s].getAndAdd(CLAIM_SIZE)) < shard.length) {
+                int to = Math.min(from + CLAIM_SIZE, shard.length);
+                for (int j = from; j < to; j++) {
+                    int i = shard[j];
+                    try {
+                        List<String> agentActions = new ArrayList<>();
+                        for (Object action : runnables.get(i).call()) {
+                            if (action != null) agentActions.add((String) action);
+                        }
+                        actions[i] = agentActions;
+                    } catch (Throwable e) {
+                        // Do not let one failing agent prevent the remaining agents of the shard from running, or the
+                        // tick from finishing. Errors and actions that are not strings are caught as well, as they
+                        // would otherwise abort the claimed range and the remaining shards of the worker
+                        e.printStackTrace();
+                    }
+                }
+                executed += to - from;
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCurrentTick() {
+        return this.tick;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void skipToTick(int tick) {
+        if (tick < this.tick) {
+            throw new IllegalArgumentException("Cannot skip back from tick " + this.tick + " to tick " + tick);
+        }
+        this.tick = tick;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        // TODO
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLastTickDuration() {
+        return this.stepDuration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AgentID> getScheduledAgents() {
+        return this.scheduledRunnables.getAgentIDs();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNofScheduledAgents() {
+        return this.scheduledRunnables.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void shutdown() {
+        for (ExecutorService worker : this.workers) {
+            worker.shutdown();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package nl.uu.cs.iss.ga.sim2apl.core.tick;
+
+/**
+ * Determines what a tick executor does with an agent whose deliberation cycle exceeds its time budget, or that is
+ * still deliberating when the time budget of the tick has been used up. Such an agent is always reported. As the
+ * deliberation cycle of an agent cannot be interrupted safely, the cycle keeps running in the background when the
+ * tick no longer waits for it.
+ */
+public enum StragglerPolicy {
+    /** Only report the agent. The tick still waits until its deliberation cycle has finished. */
+    REPORT,
+
+    /**
+     * Do not wait for the agent. Its actions are reported in the first tick that ends after its deliberation cycle
+     * has finished, and it is not executed again before then. Agents that did not start before the time budget of
+     * the tick was used up are deferred to the next tick.
+     */
+    DEFER,
+
+    /**
+     * Do not wait for the agent, discard its actions and do not execute it again until it is released from
+     * quarantine. Agents that did not start before the time budget of the tick was used up are deferred to the
+     * next tick.
+     */
+    QUARANTINE
+}
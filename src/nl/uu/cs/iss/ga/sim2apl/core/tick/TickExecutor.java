@@ -3,6 +3,7 @@ package nl.uu.cs.iss.ga.sim2apl.core.tick;
 import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
 import nl.uu.cs.iss.ga.sim2apl.core.deliberation.DeliberationRunnable;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 
@@ -22,6 +23,36 @@ public interface TickExecutor {
      */
     boolean scheduleForNextTick(DeliberationRunnable agentDeliberationRunnable);
 
+    /**
+     * Schedules the deliberation cycles of a batch of agents for the next tick. Deliberation
+     * cycles that are already on the queue are skipped, as with {@link #scheduleForNextTick(DeliberationRunnable)}.
+     * Executors should override this method if they can schedule a batch more efficiently than
+     * one deliberation cycle at a time.
+     *
+     * @param agentDeliberationRunnables Deliberation cycles to schedule
+     * @return The number of deliberation cycles that were scheduled
+     */
+    default int scheduleAllForNextTick(Collection<DeliberationRunnable> agentDeliberationRunnables) {
+        int scheduled = 0;
+        for (DeliberationRunnable agentDeliberationRunnable : agentDeliberationRunnables) {
+            if (scheduleForNextTick(agentDeliberationRunnable)) scheduled++;
+        }
+        return scheduled;
+    }
+
+    /**
+     * Obtain the timer that holds the deliberation cycles of agents that sleep until a given tick
+     * (see {@link nl.uu.cs.iss.ga.sim2apl.core.agent.Agent#wakeAt(int)}). Executors that support the
+     * timer drain it at the start of each tick, and schedule the deliberation cycles that are due
+     * in that tick.
+     *
+     * @return The tick timer of this executor, or null if this executor does not support sleeping
+     * until a given tick
+     */
+    default TickTimer<DeliberationRunnable> getTickTimer() {
+        return null;
+    }
+
     /**
      * Performs one tick, executing the sense-reason-act cycles of all agents
      * scheduled for that tick. It collects all the actions produced by the
@@ -41,6 +72,33 @@ public interface TickExecutor {
      */
     int getCurrentTick();
 
+    /**
+     * Obtain the earliest tick, from the current tick onwards, in which an agent will be executed if
+     * no new input arrives. This is the current tick if agents are scheduled, or otherwise the tick at
+     * which the first agent sleeping on the tick timer is due.
+     *
+     * @return The next tick in which an agent will be executed, or -1 if no agent will be executed
+     * until an agent receives input
+     */
+    default int getNextEventTick() {
+        if (getNofScheduledAgents() > 0) return getCurrentTick();
+        TickTimer<DeliberationRunnable> timer = getTickTimer();
+        int due = timer == null ? -1 : timer.nextDueTick();
+        return due < 0 ? -1 : Math.max(due, getCurrentTick());
+    }
+
+    /**
+     * Advance the tick counter to the given tick, without executing the ticks in between. This
+     * should only be used when no agents would be executed in the skipped ticks, see {@link #getNextEventTick()}.
+     *
+     * @param tick The tick that will be executed by the next call to {@link #doTick()}
+     * @throws UnsupportedOperationException If this executor does not support skipping ticks
+     * @throws IllegalArgumentException If the given tick lies before the current tick
+     */
+    default void skipToTick(int tick) {
+        throw new UnsupportedOperationException("This tick executor cannot skip ticks");
+    }
+
     /**
      * Verify whether a tick is currently being executed
      * @return True iff a tick is currently being executed
@@ -12,4 +12,17 @@ public interface TickHookProcessor {
     void tickPostHook(long finishedTick, int tickDuration, HashMap<AgentID, List<String>> producedAgentActions);
 
     void simulationFinishedHook(long lastTick, int lastTickDuration);
+
+    /**
+     * Obtain the next tick in which this processor needs its hooks to be called. Simulation engines that
+     * skip ticks in which no agents are executed, such as the {@link EventDrivenSimulationEngine}, will
+     * not skip this tick. By default, a processor needs every tick.
+     *
+     * @param fromTick  The earliest tick that can still be executed
+     * @return The next tick, at or after <code>fromTick</code>, in which the hooks of this processor need to be
+     * called, or a negative value if this processor does not need any further ticks
+     */
+    default long getNextHookTick(long fromTick) {
+        return fromTick;
+    }
 }
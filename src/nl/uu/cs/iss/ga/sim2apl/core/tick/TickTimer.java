@@ -0,0 +1,200 @@
+package nl.uu.cs.iss.ga.sim2apl.core.tick;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel that holds items until a given tick. Scheduling an item and advancing
+ * the timer by one tick both take constant time, regardless of the number of items in the timer or
+ * how far ahead they are due. The timer is used by tick executors to hold the deliberation cycles of
+ * agents that sleep until a given tick, so that sleeping agents are not touched until they are due.
+ *
+ * The wheel consists of {@value #LEVELS} levels of {@value #SLOTS} slots. The first level holds items
+ * that are due within {@value #SLOTS} ticks, one slot per tick. Each next level covers {@value #SLOTS}
+ * times as many ticks per slot. When the timer reaches the start of the ticks covered by a slot of a
+ * higher level, the items in that slot are moved down to a lower level. Items that are due beyond the
+ * range of the highest level are kept in an overflow list.
+ *
+ * @param <T> Type of the items held by the timer
+ */
+public final class TickTimer<T> {
+	/** Number of bits of a tick that index the slots of one level */
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+
+	/** An item with the tick at which it is due */
+	private static final class Entry<T> {
+		private final int dueTick;
+		private final T item;
+
+		private Entry(int dueTick, T item) {
+			this.dueTick = dueTick;
+			this.item = item;
+		}
+	}
+
+	/** The slots of each level. A slot is allocated when the first item is placed in it. */
+	private final List<Entry<T>>[][] wheel;
+	/** Items that are due beyond the range of the wheel */
+	private final List<Entry<T>> overflow;
+	/** Items that were scheduled for a tick that has already been reached */
+	private List<Entry<T>> expired;
+	/** The last tick that was reached by the timer */
+	private int currentTick;
+	private int size;
+
+	/**
+	 * Create an empty timer. The first tick that is reached is tick <code>0</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	public TickTimer() {
+		this.wheel = (List<Entry<T>>[][]) new List<?>[LEVELS][SLOTS];
+		this.overflow = new ArrayList<>();
+		this.expired = new ArrayList<>();
+		this.currentTick = -1;
+		this.size = 0;
+	}
+
+	/**
+	 * Hold an item until the given tick. If that tick has already been reached, the item is returned
+	 * by the next call to {@link #advanceTo(int)}.
+	 *
+	 * @param dueTick	Tick at which the item should be returned
+	 * @param item		Item to hold
+	 */
+	public synchronized void schedule(int dueTick, T item) {
+		place(new Entry<>(dueTick, item));
+		this.size++;
+	}
+
+	/**
+	 * Advance the timer to the given tick, and obtain all items that are due at or before that tick.
+	 * The order of items that are due at the same tick does not depend on timing, but is not necessarily
+	 * the order in which they were scheduled.
+	 *
+	 * @param tick	Tick to advance to
+	 * @return		The items that are due, which are no longer held by the timer
+	 */
+	public synchronized List<T> advanceTo(int tick) {
+		List<Entry<T>> due = this.expired;
+		this.expired = new ArrayList<>();
+		while (this.currentTick < tick) {
+			this.currentTick++;
+			cascade();
+			List<Entry<T>> slot = this.wheel[0][this.currentTick & SLOT_MASK];
+			if (slot != null && !slot.isEmpty()) {
+				due.addAll(slot);
+				slot.clear();
+			}
+			// Items moved down by the cascade that are already due end up here
+			if (!this.expired.isEmpty()) {
+				due.addAll(this.expired);
+				this.expired.clear();
+			}
+		}
+		if (due.isEmpty()) return Collections.emptyList();
+
+		List<T> items = new ArrayList<>(due.size());
+		for (Entry<T> entry : due) items.add(entry.item);
+		this.size -= due.size();
+		return items;
+	}
+
+	/**
+	 * Obtain the last tick that was reached by the timer
+	 *
+	 * @return The tick passed to the last call of {@link #advanceTo(int)}, or <code>-1</code> if the timer was never advanced
+	 */
+	public synchronized int getCurrentTick() {
+		return this.currentTick;
+	}
+
+	/**
+	 * Obtain the earliest tick at which an item held by the timer is due. The slots of a level are ordered in
+	 * time starting after the current tick, so per level only the first non-empty slot has to be inspected.
+	 * A higher level can hold items that are due before those in a lower level, as items are only moved down
+	 * when their slot is reached, so the earliest items of all levels are compared.
+	 *
+	 * @return The earliest due tick, which may be before the current tick if an item was scheduled for a tick that
+	 * was already reached, or <code>-1</code> if the timer holds no items
+	 */
+	public synchronized int nextDueTick() {
+		if (this.size == 0) return -1;
+		if (!this.expired.isEmpty()) return earliest(this.expired);
+		int earliest = earliest(this.overflow);
+		for (int level = 0; level < LEVELS; level++) {
+			int start = (this.currentTick >>> (SLOT_BITS * level)) + 1;
+			for (int i = 0; i < SLOTS; i++) {
+				List<Entry<T>> slot = this.wheel[level][(start + i) & SLOT_MASK];
+				if (slot != null && !slot.isEmpty()) {
+					earliest = Math.min(earliest, earliest(slot));
+					break;
+				}
+			}
+		}
+		return earliest;
+	}
+
+	/**
+	 * Obtain the number of items held by the timer
+	 *
+	 * @return Number of items that are not yet returned
+	 */
+	public synchronized int size() {
+		return this.size;
+	}
+
+	private int earliest(List<Entry<T>> entries) {
+		int earliest = Integer.MAX_VALUE;
+		for (Entry<T> entry : entries) earliest = Math.min(earliest, entry.dueTick);
+		return earliest;
+	}
+
+	/** Place an entry in the level that covers its due tick, relative to the current tick */
+	private void place(Entry<T> entry) {
+		long delay = (long) entry.dueTick - this.currentTick;
+		if (delay <= 0) {
+			this.expired.add(entry);
+			return;
+		}
+		for (int level = 0; level < LEVELS; level++) {
+			if (delay < 1L << (SLOT_BITS * (level + 1))) {
+				int index = (entry.dueTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+				List<Entry<T>> slot = this.wheel[level][index];
+				if (slot == null) {
+					slot = new ArrayList<>();
+					this.wheel[level][index] = slot;
+				}
+				slot.add(entry);
+				return;
+			}
+		}
+		this.overflow.add(entry);
+	}
+
+	/**
+	 * Move the items of higher levels down when the current tick reaches the start of the ticks their slot covers.
+	 * Higher levels are cascaded first, so an item can move down multiple levels at once.
+	 */
+	private void cascade() {
+		if ((this.currentTick & ((1 << (SLOT_BITS * LEVELS)) - 1)) == 0 && !this.overflow.isEmpty()) {
+			List<Entry<T>> entries = new ArrayList<>(this.overflow);
+			this.overflow.clear();
+			entries.forEach(this::place);
+		}
+		for (int level = LEVELS - 1; level > 0; level--) {
+			if ((this.currentTick & ((1 << (SLOT_BITS * level)) - 1)) == 0) {
+				int index = (this.currentTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+				List<Entry<T>> slot = this.wheel[level][index];
+				if (slot != null && !slot.isEmpty()) {
+					List<Entry<T>> entries = new ArrayList<>(slot);
+					slot.clear();
+					entries.forEach(this::place);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,301 @@
+package nl.uu.cs.iss.ga.sim2apl.core.tick;
+
+import nl.uu.cs.iss.ga.sim2apl.core.agent.AgentID;
+import nl.uu.cs.iss.ga.sim2apl.core.deliberation.DeliberationRunnable;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A time step executor that runs the deliberation cycle of each agent on its own thread, for agents whose plans
+ * block, e.g. on I/O or on calls to local services. A pool of a fixed number of threads would either be starved by
+ * such agents, or oversubscribe the processors when sized for them. The tick still only finishes when the deliberation
+ * cycles of all scheduled agents have finished.
+ *
+ * On Java 21 and later, each deliberation cycle runs on a virtual thread. A virtual thread that blocks while it is pinned
+ * to its carrier thread, e.g. inside a <code>synchronized</code> block, blocks the carrier as well, which throttles the
+ * remaining agents of the tick. These pinning events are observed through Java Flight Recorder, logged, and counted
+ * (see {@link #getPinnedEventCount()}). Pinning events are delivered asynchronously, so they may be reported one or more
+ * ticks after they occurred.
+ *
+ * On earlier versions of Java, virtual threads are not available, and the deliberation cycles run on a pool of platform
+ * threads with one thread per available processor instead. Agents whose plans block then hold up the other agents as
+ * they would with the {@link DefaultBlockingTickExecutor}, but the number of threads stays bounded however many agents
+ * are scheduled. The executor is looked up at run time, so this class can be used with every supported version of Java.
+ */
+public class VirtualThreadTickExecutor implements TickExecutor {
+    private static final Logger LOG = Logger.getLogger(VirtualThreadTickExecutor.class.getName());
+
+    /** The Java Flight Recorder event that is emitted when a virtual thread blocks while pinned to its carrier **/
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /** Internal counters **/
+    private int tick = 0;
+    private int stepDuration;
+
+    /** The ExecutorService that starts a new virtual thread for each deliberation cycle, or the fallback thread pool **/
+    private final ExecutorService executor;
+    private final boolean virtual;
+
+    /** The agents scheduled for the next tick, in order of registration **/
+    private final ScheduledRunnables scheduledRunnables;
+
+    /** The deliberation cycles of agents that sleep until a given tick **/
+    private final TickTimer<DeliberationRunnable> tickTimer;
+
+    /** The JFR recording stream that reports pinning events, or null if pinning is not monitored **/
+    private final AutoCloseable pinningStream;
+    private final AtomicLong pinnedEvents;
+    private final AtomicLong pinnedNanos;
+    private long reportedPinnedEvents;
+
+    /**
+     * Create an executor that reports pinning events for which the virtual thread was blocked for at least 20 ms,
+     * which is the default threshold of Java Flight Recorder
+     */
+    public VirtualThreadTickExecutor() {
+        this(Duration.ofMillis(20));
+    }
+
+    /**
+     * Create an executor that reports pinning events for which the virtual thread was blocked for at least the
+     * given duration
+     *
+     * @param pinningThreshold  Minimal duration of a pinning event to be reported, or null to not monitor pinning
+     */
+    public VirtualThreadTickExecutor(Duration pinningThreshold) {
+        this.scheduledRunnables = new ScheduledRunnables();
+        this.tickTimer = new TickTimer<>();
+        this.pinnedEvents = new AtomicLong();
+        this.pinnedNanos = new AtomicLong();
+
+        ExecutorService virtualExecutor = createVirtualThreadExecutor();
+        this.virtual = virtualExecutor != null;
+        if (this.virtual) {
+            this.executor = virtualExecutor;
+        } else {
+            int nThreads = Runtime.getRuntime().availableProcessors();
+            LOG.info(String.format("Virtual threads are not available, running the deliberation cycles on %d platform threads", nThreads));
+            this.executor = Executors.newFixedThreadPool(nThreads);
+        }
+        this.pinningStream = this.virtual && pinningThreshold != null ? startPinningStream(pinningThreshold) : null;
+    }
+
+    /**
+     * Determine whether the deliberation cycles run on virtual threads
+     *
+     * @return True if virtual threads are available in this version of Java
+     */
+    public boolean usesVirtualThreads() {
+        return this.virtual;
+    }
+
+    /**
+     * Get the number of pinning events that were reported so far
+     *
+     * @return Number of pinning events, or 0 if pinning is not monitored
+     */
+    public long getPinnedEventCount() {
+        return this.pinnedEvents.get();
+    }
+
+    /**
+     * Get the total duration of the pinning events that were reported so far
+     *
+     * @return Total time virtual threads were blocked while pinned to their carrier thread
+     */
+    public Duration getPinnedTime() {
+        return Duration.ofNanos(this.pinnedNanos.get());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean scheduleForNextTick(DeliberationRunnable agentDeliberationRunnable) {
+        return this.scheduledRunnables.add(agentDeliberationRunnable);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int scheduleAllForNextTick(Collection<DeliberationRunnable> agentDeliberationRunnables) {
+        return this.scheduledRunnables.addAll(agentDeliberationRunnables);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TickTimer<DeliberationRunnable> getTickTimer() {
+        return this.tickTimer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HashMap<AgentID, List<String>> doTick() {
+        // Agents sleeping on the timer that are due in this tick
+        for (DeliberationRunnable dueRunnable : this.tickTimer.advanceTo(this.tick)) {
+            if (dueRunnable.timerExpired(this.tick)) {
+                scheduleForNextTick(dueRunnable);
+            }
+        }
+
+        List<DeliberationRunnable> runnables = this.scheduledRunnables.drain();
+        HashMap<AgentID, List<String>> agentPlanActions = new LinkedHashMap<>();
+
+        long startTime = System.currentTimeMillis();
+        List<Future<List<Object>>> futures = new ArrayList<>(runnables.size());
+        for (DeliberationRunnable dr : runnables) {
+            futures.add(this.executor.submit(dr));
+        }
+
+        // Futures are in canonical order, so the result does not depend on the order of completion
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                List<String> actions = new ArrayList<>();
+                for (Object action : futures.get(i).get()) {
+                    if (action != null) actions.add((String) action);
+                }
+                agentPlanActions.put(runnables.get(i).getAgentID(), actions);
+            } catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+        this.stepDuration = (int) (System.currentTimeMillis() - startTime);
+
+        long pinned = this.pinnedEvents.get();
+        if (pinned > this.reportedPinnedEvents) {
+            LOG.warning(String.format("%d pinning events reported during tick %d (%d in total, %d ms)",
+                    pinned - this.reportedPinnedEvents, this.tick, pinned, getPinnedTime().toMillis()));
+            this.reportedPinnedEvents = pinned;
+        }
+
+        tick++;
+        return agentPlanActions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCurrentTick() {
+        return this.tick;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void skipToTick(int tick) {
+        if (tick < this.tick) {
+            throw new IllegalArgumentException("Cannot skip back from tick " + this.tick + " to tick " + tick);
+        }
+        this.tick = tick;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        // TODO
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLastTickDuration() {
+        return this.stepDuration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AgentID> getScheduledAgents() {
+        return this.scheduledRunnables.getAgentIDs();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNofScheduledAgents() {
+        return this.scheduledRunnables.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void shutdown() {
+        this.executor.shutdown();
+        if (this.pinningStream != null) {
+            try {
+                this.pinningStream.close();
+            } catch (Exception e) {
+                LOG.log(Level.FINE, "Could not close the pinning event stream", e);
+            }
+        }
+    }
+
+    /**
+     * Create an executor that starts a new virtual thread for each task
+     *
+     * @return The executor, or null if virtual threads are not available
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Start a JFR recording stream that counts the pinning events of at least the given duration
+     *
+     * @param threshold Minimal duration of a pinning event
+     * @return The started stream, or null if the stream could not be started
+     */
+    private AutoCloseable startPinningStream(Duration threshold) {
+        try {
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Class<?> settingsClass = Class.forName("jdk.jfr.EventSettings");
+            Method getDuration = Class.forName("jdk.jfr.consumer.RecordedEvent").getMethod("getDuration");
+
+            AutoCloseable stream = (AutoCloseable) streamClass.getConstructor().newInstance();
+            Object settings = streamClass.getMethod("enable", String.class).invoke(stream, PINNED_EVENT);
+            settingsClass.getMethod("withThreshold", Duration.class).invoke(settings, threshold);
+            Consumer<Object> onPinned = event -> {
+                long nanos = 0;
+                try {
+                    nanos = ((Duration) getDuration.invoke(event)).toNanos();
+                } catch (ReflectiveOperationException e) {
+                    LOG.log(Level.FINE, "Could not read the duration of a pinning event", e);
+                }
+                this.pinnedEvents.incrementAndGet();
+                this.pinnedNanos.addAndGet(nanos);
+                LOG.fine(() -> "Virtual thread pinned: " + event);
+            };
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT, onPinned);
+            streamClass.getMethod("startAsync").invoke(stream);
+            return stream;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Could not monitor pinning of virtual threads", e);
+            return null;
+        }
+    }
+}